@@ -3,8 +3,12 @@ package com.beeny;
 import com.beeny.item.VillagerJournalItemClient;
 import com.beeny.network.VillagerTeleportPacketClient;
 import com.beeny.network.OpenFamilyTreePacketClient;
+import com.beeny.network.VillagerNotLoadedPacketClient;
 import com.beeny.network.FamilyTreeDataPacketClient;
+import com.beeny.network.AncestryDataPacketClient;
 import com.beeny.network.RequestVillagerListPacketClient;
+import com.beeny.network.BatchVillagerEditPacketClient;
+import com.beeny.system.ChronologyManager;
 import net.fabricmc.api.ClientModInitializer;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
@@ -25,7 +29,10 @@ public class VillagersRebornClient implements ClientModInitializer {
         VillagerTeleportPacketClient.register();
         OpenFamilyTreePacketClient.register();
         FamilyTreeDataPacketClient.register();
+        AncestryDataPacketClient.register();
         RequestVillagerListPacketClient.register();
+        VillagerNotLoadedPacketClient.register();
+        BatchVillagerEditPacketClient.register();
         
         
         openJournalKey = KeyBindingHelper.registerKeyBinding(new KeyBinding(
@@ -37,6 +44,11 @@ public class VillagersRebornClient implements ClientModInitializer {
         
         
         ClientTickEvents.END_CLIENT_TICK.register(client -> {
+            // The integrated server keeps the calendar current itself
+            if (client.world != null && !client.isIntegratedServerRunning()) {
+                ChronologyManager.update(client.world.getTime());
+            }
+            
             while (openJournalKey.wasPressed()) {
                 if (client.player != null && client.world != null) {
                     VillagerJournalItemClient.openVillagerJournal(client.world, client.player);
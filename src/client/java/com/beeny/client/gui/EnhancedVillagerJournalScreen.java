@@ -3,9 +3,12 @@ package com.beeny.client.gui;
 import com.beeny.data.VillagerData;
 import com.beeny.network.VillagerTeleportPacket;
 import com.beeny.network.UpdateVillagerNotesPacket;
+import com.beeny.network.BatchVillagerEditPacket;
+import com.beeny.network.BatchVillagerEditPacketClient;
 import com.beeny.Villagersreborn;
 import com.beeny.util.VillagerNames;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.gui.DrawContext;
 import net.minecraft.client.gui.screen.Screen;
 import net.minecraft.client.gui.widget.ButtonWidget;
@@ -67,6 +70,7 @@ public class EnhancedVillagerJournalScreen extends Screen {
     
     private TextFieldWidget notesField;
     private ButtonWidget saveNotesButton;
+    // Creative players and operators stage notes and send them in one batch when the journal closes, from any distance
     
     
     private TextFieldWidget searchField;
@@ -382,13 +386,13 @@ public class EnhancedVillagerJournalScreen extends Screen {
         }
         
         
-        if (!selectedVillagerData.getFamilyMembers().isEmpty()) {
+        if (!selectedVillagerData.getParentIds().isEmpty()) {
             context.drawTextWithShadow(textRenderer,
-                Text.literal("👨‍👩‍👧‍👦 Family Members:").formatted(Formatting.AQUA),
+                Text.literal("👨‍👩‍👧‍👦 Parents:").formatted(Formatting.AQUA),
                 screenX + CONTENT_MARGIN, y, 0xFFFFFF);
             y += lineHeight;
             
-            for (String member : selectedVillagerData.getFamilyMembers()) {
+            for (String member : selectedVillagerData.getParentIds()) {
                 context.drawTextWithShadow(textRenderer,
                     Text.literal("  • " + member).formatted(Formatting.WHITE),
                     screenX + CONTENT_MARGIN + 10, y, 0xFFFFFF);
@@ -398,7 +402,7 @@ public class EnhancedVillagerJournalScreen extends Screen {
         
         if (selectedVillagerData.getSpouseName().isEmpty() && 
             selectedVillagerData.getChildrenNames().isEmpty() && 
-            selectedVillagerData.getFamilyMembers().isEmpty()) {
+            selectedVillagerData.getParentIds().isEmpty()) {
             context.drawCenteredTextWithShadow(textRenderer,
                 Text.literal("No family connections yet"),
                 screenX + SCREEN_WIDTH / 2, contentY + 50, 0xFF808080);
@@ -603,7 +607,7 @@ public class EnhancedVillagerJournalScreen extends Screen {
     private void teleportToVillager() {
         if (selectedVillager != null && client != null && client.player != null) {
             
-            ClientPlayNetworking.send(new VillagerTeleportPacket(selectedVillager.getId()));
+            ClientPlayNetworking.send(new VillagerTeleportPacket(selectedVillager.getUuid()));
             
             
             client.getSoundManager().play(PositionedSoundInstance.master(SoundEvents.ENTITY_ENDERMAN_TELEPORT, 1.0f));
@@ -625,7 +629,11 @@ public class EnhancedVillagerJournalScreen extends Screen {
             String notes = notesField.getText();
             
             
-            ClientPlayNetworking.send(new UpdateVillagerNotesPacket(selectedVillager.getId(), notes));
+            if (canBatchEdit()) {
+                BatchVillagerEditPacketClient.stage(selectedVillager.getUuid(), BatchVillagerEditPacket.Field.NOTES, notes);
+            } else {
+                ClientPlayNetworking.send(new UpdateVillagerNotesPacket(selectedVillager.getUuid(), notes));
+            }
             
             
             if (selectedVillagerData != null) {
@@ -636,4 +644,20 @@ public class EnhancedVillagerJournalScreen extends Screen {
             client.getSoundManager().play(PositionedSoundInstance.master(SoundEvents.ITEM_BOOK_PAGE_TURN, 1.0f));
         }
     }
-}
\ No newline at end of file
+    
+    private boolean canBatchEdit() {
+        return canBatchEdit(client);
+    }
+    
+    /** Creative players and operators, the players the server accepts batch edits from. */
+    public static boolean canBatchEdit(MinecraftClient client) {
+        return client != null && client.player != null
+            && (client.player.isCreative() || client.player.hasPermissionLevel(2));
+    }
+    
+    @Override
+    public void removed() {
+        super.removed();
+        BatchVillagerEditPacketClient.flush();
+    }
+}
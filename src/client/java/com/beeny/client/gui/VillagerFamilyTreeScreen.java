@@ -6,8 +6,10 @@ import java.util.*;
 
 import com.beeny.Villagersreborn;
 import com.beeny.data.VillagerData;
+import com.beeny.network.AncestryDataPacket;
 import com.beeny.network.FamilyTreeDataPacket;
 import com.beeny.system.VillagerAncestryManager;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
 import net.minecraft.client.gui.DrawContext;
 import net.minecraft.client.gui.screen.Screen;
 import net.minecraft.client.gui.widget.ButtonWidget;
@@ -36,11 +38,12 @@ public class VillagerFamilyTreeScreen extends Screen {
     private static final int GRANDCHILD_COLOR = 0xFFE67E22;       // Dark Orange
     
     private final VillagerEntity currentVillager;
-    private final long villagerId;
+    private final UUID villagerId;
     private final Map<String, FamilyMember> familyTree;
-    private final Map<String, VillagerData> ancestors;
+    private final List<AncestryDataPacket.AncestorEntry> ancestors;
     private final List<FamilyMember> displayedMembers;
     private final List<FamilyTreeDataPacket.FamilyMemberData> serverFamilyMembers;
+    private boolean awaitingAncestors;
     private ButtonWidget closeButton;
     private ButtonWidget backButton;
     
@@ -52,27 +55,53 @@ public class VillagerFamilyTreeScreen extends Screen {
         super(Text.literal("Family Tree"));
         LOGGER.info("[VillagerFamilyTreeScreen] Constructor called for villager: " + villager.getId());
         this.currentVillager = villager;
-        this.villagerId = villager.getId();
+        this.villagerId = villager.getUuid();
         this.familyTree = new HashMap<>();
-        this.ancestors = VillagerAncestryManager.generateAncestors(villager, 4); // 4 generations
+        this.ancestors = new ArrayList<>();
         this.displayedMembers = new ArrayList<>();
         this.serverFamilyMembers = new ArrayList<>();
-        LOGGER.info("[VillagerFamilyTreeScreen] Ancestors generated: " + ancestors.size());
         buildFamilyTree();
         LOGGER.info("[VillagerFamilyTreeScreen] Family tree built with " + displayedMembers.size() + " members");
     }
     
-    public VillagerFamilyTreeScreen(long villagerId, List<FamilyTreeDataPacket.FamilyMemberData> familyMembers) {
+    public VillagerFamilyTreeScreen(UUID villagerId, List<FamilyTreeDataPacket.FamilyMemberData> familyMembers, boolean ancestorsFollow) {
         super(Text.literal("Family Tree"));
         this.currentVillager = null;
         this.villagerId = villagerId;
         this.familyTree = new HashMap<>();
-        this.ancestors = new HashMap<>();
+        this.ancestors = new ArrayList<>();
         this.displayedMembers = new ArrayList<>();
         this.serverFamilyMembers = familyMembers;
+        // Only then is there ancestry work on the server to cancel when the screen closes
+        this.awaitingAncestors = ancestorsFollow;
         buildFamilyTreeFromServerData();
     }
     
+    public UUID getVillagerId() {
+        return villagerId;
+    }
+    
+    /** Called when generated ancestors arrive from the server after the screen has opened. */
+    public void addAncestors(List<AncestryDataPacket.AncestorEntry> entries) {
+        awaitingAncestors = false;
+        ancestors.addAll(entries);
+        for (AncestryDataPacket.AncestorEntry entry : entries) {
+            addAncestorToTree(entry);
+        }
+        displayedMembers.sort((a, b) -> Integer.compare(a.generation, b.generation));
+        calculateTreeLayout();
+    }
+    
+    @Override
+    public void removed() {
+        super.removed();
+        // Drop ancestry work the server is still doing for this screen
+        if (awaitingAncestors) {
+            awaitingAncestors = false;
+            ClientPlayNetworking.send(new AncestryDataPacket.CancelPacket(villagerId));
+        }
+    }
+    
     @Override
     protected void init() {
         super.init();
@@ -173,17 +202,13 @@ public class VillagerFamilyTreeScreen extends Screen {
         setGenerationLevels();
     }
     
-    private void addAncestorsToTree() {
-        for (Map.Entry<String, VillagerData> entry : ancestors.entrySet()) {
-            VillagerData ancestorData = entry.getValue();
-            
-            // Create a fictional FamilyMember for ancestors
-            FamilyMember ancestorMember = new FamilyMember(null, RelationshipType.ANCESTOR);
-            ancestorMember.ancestorData = ancestorData;
-            
-            familyTree.put(entry.getKey(), ancestorMember);
-            displayedMembers.add(ancestorMember);
-        }
+    private void addAncestorToTree(AncestryDataPacket.AncestorEntry entry) {
+        // Generated ancestors arrive as server data with their generation relative to this villager
+        FamilyMember ancestorMember = new FamilyMember(entry.data());
+        ancestorMember.generation = -entry.generation();
+        
+        familyTree.put(entry.data().getUuid(), ancestorMember);
+        displayedMembers.add(ancestorMember);
     }
     
     private RelationshipType determineRelationship(VillagerData currentData, VillagerData otherData, 
@@ -286,20 +311,7 @@ public class VillagerFamilyTreeScreen extends Screen {
                 case CHILD -> member.generation = 1;
                 case GRANDCHILD -> member.generation = 2;
                 case ANCESTOR -> {
-                    // Simple generation assignment for ancestors based on their position in the tree
-                    // We'll determine this based on the ancestor's name key in the ancestors map
-                    // For now, just assign them to generations -1 through -4
-                    String ancestorKey = "";
-                    for (Map.Entry<String, VillagerData> entry : ancestors.entrySet()) {
-                        if (entry.getValue() == member.ancestorData) {
-                            ancestorKey = entry.getKey();
-                            break;
-                        }
-                    }
-                    
-                    // Simple generation assignment - spread ancestors across generations -1 to -4
-                    int ancestorIndex = new ArrayList<>(ancestors.keySet()).indexOf(ancestorKey);
-                    member.generation = -1 - (ancestorIndex % 4); // Distribute across -1, -2, -3, -4
+                    // Generation is taken from the ancestor's path when it is added
                 }
             }
         }
@@ -484,8 +496,8 @@ public class VillagerFamilyTreeScreen extends Screen {
                     member.ancestorData;
                 name = data != null ? data.getName() : "Unknown";
                 isAlive = data != null ? data.isAlive() : true;
-                birthTime = data != null ? data.getBirthTime() : 0;
-                deathTime = data != null ? data.getDeathTime() : 0;
+                birthTime = data != null ? data.getBirthTime() : VillagerData.UNKNOWN_TIME;
+                deathTime = data != null ? data.getDeathTime() : VillagerData.UNKNOWN_TIME;
             }
             
             if (name.length() > 15) {
@@ -617,7 +629,7 @@ public class VillagerFamilyTreeScreen extends Screen {
         tooltip.add(Text.literal(birthInfo).formatted(Formatting.DARK_GREEN));
         
         // Death date for ancestors
-        if (!isAlive && deathTime > 0) {
+        if (!isAlive && deathTime != VillagerData.UNKNOWN_TIME) {
             String deathInfo = "Died: " + VillagerAncestryManager.formatHistoricalDate(deathTime);
             tooltip.add(Text.literal(deathInfo).formatted(Formatting.DARK_RED));
         }
@@ -680,9 +692,8 @@ public class VillagerFamilyTreeScreen extends Screen {
     }
     
     private void focusOnVillager(VillagerEntity newFocus) {
-        if (client != null) {
-            client.setScreen(new VillagerFamilyTreeScreen(newFocus));
-        }
+        // The server answers with a fresh family tree screen for the new focus
+        ClientPlayNetworking.send(new FamilyTreeDataPacket.RequestPacket(newFocus.getUuid()));
     }
     
     private boolean isMouseOverMember(int mouseX, int mouseY, FamilyMember member) {
@@ -2,6 +2,7 @@ package com.beeny.client.gui;
 
 import com.beeny.network.VillagerTeleportPacket;
 import com.beeny.network.RequestVillagerListPacket;
+import com.beeny.network.RequestVillagerListPacketClient;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
 import com.beeny.util.VillagerNames;
 import net.minecraft.client.gui.DrawContext;
@@ -19,6 +20,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 public class VillagerJournalScreen extends Screen {
     
@@ -50,6 +52,8 @@ public class VillagerJournalScreen extends Screen {
     private final ButtonWidget[] villagerButtons; 
     private ButtonWidget scrollUpButton;
     private ButtonWidget scrollDownButton;
+    private ButtonWidget previousPageButton;
+    private ButtonWidget nextPageButton;
     private ButtonWidget closeButton;
     
     
@@ -62,6 +66,8 @@ public class VillagerJournalScreen extends Screen {
     private float animationTick = 0;
     private int scrollOffset = 0;
     private int ticksSinceLastUpdate = 0;
+    private int page = 0;
+    private int pageCount = 1;
     
     public VillagerJournalScreen(List<VillagerEntity> villagers) {
         super(Text.literal("Villager Journal"));
@@ -73,14 +79,45 @@ public class VillagerJournalScreen extends Screen {
         }
     }
     
-    public static VillagerJournalScreen createFromPacketData(List<RequestVillagerListPacket.VillagerDataPacket> villagerDataList) {
+    public static VillagerJournalScreen createFromPacketData(List<RequestVillagerListPacket.VillagerDataPacket> villagerDataList,
+                                                             int page, int pageCount) {
         VillagerJournalScreen screen = new VillagerJournalScreen();
-        
+        screen.setPageData(villagerDataList, page, pageCount);
+        return screen;
+    }
+    
+    /** Replaces the shown entries with a page the server just sent, or with a pushed update of the same page. */
+    public void showPage(List<RequestVillagerListPacket.VillagerDataPacket> villagerDataList, int page, int pageCount) {
+        boolean samePage = page == this.page;
+        setPageData(villagerDataList, page, pageCount);
+        scrollOffset = samePage ? MathHelper.clamp(scrollOffset, 0, Math.max(0, villagerEntries.size() - MAX_VISIBLE_ENTRIES)) : 0;
+        updateVillagerDistances();
+        if (closeButton != null) {
+            updateVillagerButtons();
+        }
+    }
+    
+    public int getPage() {
+        return page;
+    }
+    
+    /** Marks the villager's entry as missing after the server said it is not loaded. */
+    public void markNotLoaded(UUID villagerId) {
+        for (VillagerEntry entry : villagerEntries) {
+            if (entry.villagerId.equals(villagerId)) {
+                entry.notLoaded = true;
+                entry.distance = -1;
+            }
+        }
+    }
+    
+    private void setPageData(List<RequestVillagerListPacket.VillagerDataPacket> villagerDataList, int page, int pageCount) {
+        villagerEntries.clear();
         for (RequestVillagerListPacket.VillagerDataPacket data : villagerDataList) {
-            screen.villagerEntries.add(new VillagerEntry(data));
+            villagerEntries.add(new VillagerEntry(data));
         }
-        
-        return screen;
+        this.page = page;
+        this.pageCount = pageCount;
     }
     
     private VillagerJournalScreen() {
@@ -131,7 +168,39 @@ public class VillagerJournalScreen extends Screen {
             btn -> close()
         ).dimensions(width / 2 - 50, (height + BACKGROUND_HEIGHT) / 2 - 30, 100, 20).build();
         
+        previousPageButton = ButtonWidget.builder(
+            Text.literal("◀"),
+            btn -> changePage(page - 1)
+        ).dimensions(width / 2 - 80, (height + BACKGROUND_HEIGHT) / 2 - 30, 20, 20).build();
+        
+        nextPageButton = ButtonWidget.builder(
+            Text.literal("▶"),
+            btn -> changePage(page + 1)
+        ).dimensions(width / 2 + 60, (height + BACKGROUND_HEIGHT) / 2 - 30, 20, 20).build();
+        
         addDrawableChild(closeButton);
+        
+        // Curators edit the notes of every villager their client has loaded and save them as one batch
+        if (EnhancedVillagerJournalScreen.canBatchEdit(client)) {
+            ButtonWidget notesButton = ButtonWidget.builder(
+                Text.literal("Notes"),
+                btn -> openNotesEditor()
+            ).dimensions(journalX + MARGIN, (height + BACKGROUND_HEIGHT) / 2 - 30, 50, 20).build();
+            addDrawableChild(notesButton);
+        }
+    }
+    
+    private void openNotesEditor() {
+        if (client == null || client.world == null) return;
+        
+        List<VillagerEntity> loaded = new ArrayList<>();
+        for (Entity entity : client.world.getEntities()) {
+            if (entity instanceof VillagerEntity villager) {
+                loaded.add(villager);
+            }
+        }
+        playClickSound();
+        client.setScreen(new EnhancedVillagerJournalScreen(loaded));
     }
     
     private void updateVillagerButtons() {
@@ -141,6 +210,8 @@ public class VillagerJournalScreen extends Screen {
         }
         remove(scrollUpButton);
         remove(scrollDownButton);
+        remove(previousPageButton);
+        remove(nextPageButton);
         
         
         int visibleCount = Math.min(villagerEntries.size() - scrollOffset, MAX_VISIBLE_ENTRIES);
@@ -158,6 +229,20 @@ public class VillagerJournalScreen extends Screen {
         if (scrollOffset + MAX_VISIBLE_ENTRIES < villagerEntries.size()) {
             addDrawableChild(scrollDownButton);
         }
+        if (page > 0) {
+            addDrawableChild(previousPageButton);
+        }
+        if (page + 1 < pageCount) {
+            addDrawableChild(nextPageButton);
+        }
+    }
+    
+    private void changePage(int newPage) {
+        if (newPage >= 0 && newPage < pageCount) {
+            // The entries are swapped in when the server's reply arrives
+            RequestVillagerListPacketClient.requestPage(newPage);
+            playClickSound();
+        }
     }
     
     
@@ -193,6 +278,7 @@ public class VillagerJournalScreen extends Screen {
         if (client == null || client.player == null) return;
         
         for (VillagerEntry entry : villagerEntries) {
+            if (entry.notLoaded) continue;
             // Calculate distance based on stored coordinates
             double dx = entry.x - client.player.getX();
             double dy = entry.y - client.player.getY();
@@ -230,6 +316,11 @@ public class VillagerJournalScreen extends Screen {
         
         context.drawCenteredTextWithShadow(textRenderer, Text.literal("📖 Villager Journal 📖"),
             width / 2, journalY + 10, titleColor);
+        
+        if (pageCount > 1) {
+            context.drawCenteredTextWithShadow(textRenderer, Text.literal("Page " + (page + 1) + " / " + pageCount).formatted(Formatting.GRAY),
+                width / 2, journalY + 22, 0xFFFFFFFF);
+        }
     }
     
     private void renderVillagerEntries(DrawContext context, int mouseX, int mouseY) {
@@ -358,6 +449,12 @@ public class VillagerJournalScreen extends Screen {
         }
     }
     
+    @Override
+    public void removed() {
+        super.removed();
+        RequestVillagerListPacketClient.unsubscribe();
+    }
+    
     @Override
     public boolean shouldPause() {
         return false;
@@ -367,15 +464,17 @@ public class VillagerJournalScreen extends Screen {
         final String name;
         final String profession;
         final int level;
-        final int villagerId;
+        final UUID villagerId;
         final int x, y, z;
         int distance;
+        // Set when the server reports the villager unloaded; shown as missing until the next page update
+        boolean notLoaded;
         
         VillagerEntry(VillagerEntity villager) {
             this.name = getVillagerName(villager);
             this.profession = villager.getVillagerData().profession().toString().toLowerCase();
             this.level = villager.getVillagerData().level();
-            this.villagerId = villager.getId();
+            this.villagerId = villager.getUuid();
             this.x = (int) villager.getX();
             this.y = (int) villager.getY();
             this.z = (int) villager.getZ();
@@ -386,7 +485,7 @@ public class VillagerJournalScreen extends Screen {
             this.name = data.getName();
             this.profession = data.getProfession().toLowerCase();
             this.level = 1; // Default level since we don't have this info from server
-            this.villagerId = data.getEntityId();
+            this.villagerId = data.getUuid();
             this.x = data.getX();
             this.y = data.getY();
             this.z = data.getZ();
@@ -2,11 +2,10 @@ package com.beeny.item;
 
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
-import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.world.World;
 
-import com.beeny.network.RequestVillagerListPacket;
+import com.beeny.network.RequestVillagerListPacketClient;
 
 @Environment(EnvType.CLIENT)
 public class VillagerJournalItemClient {
@@ -15,10 +14,7 @@ public class VillagerJournalItemClient {
     public static void openVillagerJournal(World world, PlayerEntity player) {
         if (player == null) return;
 
-        // Debug logging
-        System.out.println("[VillagerJournalItemClient] Sending RequestVillagerListPacket to server...");
-        
-        // Request villager list from server
-        ClientPlayNetworking.send(new RequestVillagerListPacket());
+        // Request the first journal page; pages seen before only transfer what changed
+        RequestVillagerListPacketClient.requestPage(0);
     }
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.beeny.network;
+
+import com.beeny.client.gui.VillagerFamilyTreeScreen;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.minecraft.client.MinecraftClient;
+
+@Environment(EnvType.CLIENT)
+public class AncestryDataPacketClient {
+    public static void register() {
+        ClientPlayNetworking.registerGlobalReceiver(AncestryDataPacket.ID, (payload, context) -> {
+            context.client().execute(() -> {
+                // Ancestors are only merged into the tree they were requested for
+                if (MinecraftClient.getInstance().currentScreen instanceof VillagerFamilyTreeScreen screen
+                        && screen.getVillagerId().equals(payload.getVillagerId())) {
+                    screen.addAncestors(payload.getAncestors());
+                }
+            });
+        });
+    }
+}
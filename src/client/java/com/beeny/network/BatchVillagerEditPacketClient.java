@@ -0,0 +1,149 @@
+package com.beeny.network;
+
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.text.Text;
+import net.minecraft.util.Formatting;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Edits are staged here and sent as batches. A batch stays in flight until its acknowledgement arrives; edits
+ * it rejected for a reason that can pass (throttled, villager not loaded) are staged again, and throttled ones
+ * are resent by themselves once the server's request budget has refilled.
+ */
+@Environment(EnvType.CLIENT)
+public class BatchVillagerEditPacketClient {
+    private static final Set<BatchVillagerEditPacket.Failure> RETRYABLE = EnumSet.of(
+        BatchVillagerEditPacket.Failure.THROTTLED,
+        BatchVillagerEditPacket.Failure.NOT_LOADED,
+        BatchVillagerEditPacket.Failure.UNLOADED);
+    // The server refills one batch every five seconds
+    private static final int RETRY_DELAY_TICKS = 120;
+
+    private record Key(UUID villagerId, BatchVillagerEditPacket.Field field) {}
+
+    private static final Map<Key, String> STAGED = new LinkedHashMap<>();
+    private static final Map<Integer, List<BatchVillagerEditPacket.Edit>> IN_FLIGHT = new HashMap<>();
+    private static int nextBatchId;
+    private static int retryIn = -1;
+
+    public static void register() {
+        ClientPlayNetworking.registerGlobalReceiver(BatchVillagerEditPacket.AckPacket.ID, (payload, context) -> {
+            context.client().execute(() -> onAck(payload));
+        });
+        ClientTickEvents.END_CLIENT_TICK.register(client -> {
+            if (retryIn > 0 && --retryIn == 0) {
+                retryIn = -1;
+                flush();
+            }
+        });
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> client.execute(BatchVillagerEditPacketClient::clear));
+    }
+
+    /** Stages an edit, replacing an unsent one of the same field; a full batch is sent right away. */
+    public static void stage(UUID villagerId, BatchVillagerEditPacket.Field field, String value) {
+        STAGED.put(new Key(villagerId, field), value);
+        if (STAGED.size() >= BatchVillagerEditPacket.MAX_EDITS) {
+            flush();
+        }
+    }
+
+    /** Sends up to {@link BatchVillagerEditPacket#MAX_EDITS} staged edits as one batch. */
+    public static void flush() {
+        if (STAGED.isEmpty()) return;
+
+        List<BatchVillagerEditPacket.Edit> edits = new ArrayList<>(Math.min(STAGED.size(), BatchVillagerEditPacket.MAX_EDITS));
+        Iterator<Map.Entry<Key, String>> iterator = STAGED.entrySet().iterator();
+        while (iterator.hasNext() && edits.size() < BatchVillagerEditPacket.MAX_EDITS) {
+            Map.Entry<Key, String> entry = iterator.next();
+            edits.add(new BatchVillagerEditPacket.Edit(entry.getKey().villagerId(), entry.getKey().field(), entry.getValue()));
+            iterator.remove();
+        }
+        send(edits);
+    }
+
+    /** Sends up to {@link BatchVillagerEditPacket#MAX_EDITS} edits as one batch and returns its id, which the acknowledgement echoes. */
+    public static int send(List<BatchVillagerEditPacket.Edit> edits) {
+        if (edits.size() > BatchVillagerEditPacket.MAX_EDITS) {
+            throw new IllegalArgumentException("At most " + BatchVillagerEditPacket.MAX_EDITS + " edits per batch");
+        }
+        int batchId = nextBatchId++;
+        List<BatchVillagerEditPacket.Edit> batch = List.copyOf(edits);
+        IN_FLIGHT.put(batchId, batch);
+        ClientPlayNetworking.send(new BatchVillagerEditPacket(batchId, batch));
+        return batchId;
+    }
+
+    private static void onAck(BatchVillagerEditPacket.AckPacket payload) {
+        List<BatchVillagerEditPacket.Edit> edits = IN_FLIGHT.remove(payload.batchId());
+
+        int kept = 0;
+        boolean throttled = false;
+        if (edits != null) {
+            for (BatchVillagerEditPacket.Rejected rejected : payload.rejected()) {
+                if (!RETRYABLE.contains(rejected.reason()) || rejected.index() < 0 || rejected.index() >= edits.size()) continue;
+                BatchVillagerEditPacket.Edit edit = edits.get(rejected.index());
+                // An edit staged since the batch went out is newer and wins
+                if (STAGED.putIfAbsent(new Key(edit.villagerId(), edit.field()), edit.value()) == null) {
+                    kept++;
+                }
+                throttled |= rejected.reason() == BatchVillagerEditPacket.Failure.THROTTLED;
+            }
+        }
+        if (throttled && retryIn < 0) {
+            retryIn = RETRY_DELAY_TICKS;
+        }
+
+        MinecraftClient client = MinecraftClient.getInstance();
+        if (client.player == null) return;
+
+        if (payload.rejected().isEmpty()) {
+            client.player.sendMessage(Text.literal(String.format("Applied %d villager edit%s",
+                payload.applied(), payload.applied() == 1 ? "" : "s")).formatted(Formatting.GREEN), false);
+            return;
+        }
+
+        Map<BatchVillagerEditPacket.Failure, Integer> counts = new EnumMap<>(BatchVillagerEditPacket.Failure.class);
+        payload.rejected().forEach(rejected -> counts.merge(rejected.reason(), 1, Integer::sum));
+        String reasons = counts.entrySet().stream()
+            .map(entry -> entry.getValue() + " " + describe(entry.getKey()))
+            .collect(Collectors.joining(", "));
+        String retry = kept == 0 ? "" : throttled
+            ? String.format("; %d kept and resent shortly", kept)
+            : String.format("; %d kept for the next save", kept);
+        client.player.sendMessage(Text.literal(String.format("Applied %d of %d villager edits (%s%s)",
+            payload.applied(), payload.total(), reasons, retry)).formatted(Formatting.YELLOW), false);
+    }
+
+    private static void clear() {
+        STAGED.clear();
+        IN_FLIGHT.clear();
+        retryIn = -1;
+    }
+
+    private static String describe(BatchVillagerEditPacket.Failure failure) {
+        return switch (failure) {
+            case NOT_LOADED -> "not loaded";
+            case NO_DATA -> "without data";
+            case INVALID_VALUE -> "invalid";
+            case UNLOADED -> "unloaded before applying";
+            case THROTTLED -> "throttled";
+            case DENIED -> "not permitted";
+        };
+    }
+}
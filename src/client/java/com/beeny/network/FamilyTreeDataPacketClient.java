@@ -12,7 +12,7 @@ public class FamilyTreeDataPacketClient {
         ClientPlayNetworking.registerGlobalReceiver(FamilyTreeDataPacket.ID, (payload, context) -> {
             // Open the family tree screen with the received data
             context.client().execute(() -> {
-                MinecraftClient.getInstance().setScreen(new VillagerFamilyTreeScreen(payload.getVillagerId(), payload.getFamilyMembers()));
+                MinecraftClient.getInstance().setScreen(new VillagerFamilyTreeScreen(payload.getVillagerId(), payload.getFamilyMembers(), payload.ancestorsFollow()));
             });
         });
     }
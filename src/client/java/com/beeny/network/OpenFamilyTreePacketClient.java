@@ -6,10 +6,9 @@ public class OpenFamilyTreePacketClient {
     
     public static void register() {
         ClientPlayNetworking.registerGlobalReceiver(OpenFamilyTreePacket.ID, (payload, context) -> {
-            System.out.println("[OpenFamilyTreePacket] Received packet for villager ID: " + payload.villagerEntityId());
             context.client().execute(() -> {
                 // Request family tree data from server
-                ClientPlayNetworking.send(new FamilyTreeDataPacket.RequestPacket(payload.villagerEntityId()));
+                ClientPlayNetworking.send(new FamilyTreeDataPacket.RequestPacket(payload.villagerId()));
             });
         });
     }
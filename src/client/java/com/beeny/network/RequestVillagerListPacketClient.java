@@ -3,20 +3,99 @@ package com.beeny.network;
 import com.beeny.client.gui.VillagerJournalScreen;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
 import net.minecraft.client.MinecraftClient;
 
+import java.util.*;
+
+/**
+ * Client half of the paged journal. Keeps every villager row it has been sent plus, per page, the page's
+ * members and the version they were synced at, so asking for a page again only transfers the changes.
+ * While the journal is open the shown page is subscribed to and the server pushes its changes.
+ */
 @Environment(EnvType.CLIENT)
 public class RequestVillagerListPacketClient {
+    public static final int PAGE_SIZE = 25;
+
+    private static long indexId;
+    private static final Map<UUID, RequestVillagerListPacket.VillagerDataPacket> ROWS = new HashMap<>();
+    private static final Map<Integer, List<UUID>> PAGES = new HashMap<>();
+    private static final Map<Integer, Long> PAGE_VERSIONS = new HashMap<>();
+
     public static void register() {
         ClientPlayNetworking.registerGlobalReceiver(RequestVillagerListPacket.ResponsePacket.ID, (payload, context) -> {
-            // Debug logging
-            System.out.println("[RequestVillagerListPacketClient] Received villager list response with " + payload.getVillagerDataList().size() + " villagers");
-            
-            // Open the villager journal screen with the received data
             context.client().execute(() -> {
-                MinecraftClient.getInstance().setScreen(VillagerJournalScreen.createFromPacketData(payload.getVillagerDataList()));
+                List<RequestVillagerListPacket.VillagerDataPacket> entries = apply(payload);
+                int pageCount = Math.max(1, (payload.getTotal() + payload.getPageSize() - 1) / payload.getPageSize());
+
+                // Flip pages in place when the journal is already open
+                if (MinecraftClient.getInstance().currentScreen instanceof VillagerJournalScreen screen) {
+                    // A push for the page we just left may arrive after the reply for the new one
+                    if (payload.isUpdate() && payload.getPage() != screen.getPage()) return;
+                    screen.showPage(entries, payload.getPage(), pageCount);
+                } else if (!payload.isUpdate()) {
+                    MinecraftClient.getInstance().setScreen(VillagerJournalScreen.createFromPacketData(entries, payload.getPage(), pageCount));
+                } else {
+                    // A push that crossed paths with closing the journal; the cache is still current
+                    return;
+                }
+                // Replies mean the shown page changed, so follow it; pushes keep the subscription as is
+                if (!payload.isUpdate()) {
+                    subscribe(payload.getPage());
+                }
             });
         });
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> client.execute(RequestVillagerListPacketClient::clear));
+    }
+
+    public static void requestPage(int page) {
+        ClientPlayNetworking.send(new RequestVillagerListPacket(page, PAGE_SIZE, indexId, PAGE_VERSIONS.getOrDefault(page, 0L)));
+    }
+
+    /** Asks the server to push changes to the page while the journal shows it. */
+    public static void subscribe(int page) {
+        ClientPlayNetworking.send(new RequestVillagerListPacket.SubscribePacket(page, PAGE_SIZE, indexId, PAGE_VERSIONS.getOrDefault(page, 0L)));
+    }
+
+    public static void unsubscribe() {
+        if (ClientPlayNetworking.canSend(RequestVillagerListPacket.UnsubscribePacket.ID)) {
+            ClientPlayNetworking.send(new RequestVillagerListPacket.UnsubscribePacket());
+        }
+    }
+
+    private static List<RequestVillagerListPacket.VillagerDataPacket> apply(RequestVillagerListPacket.ResponsePacket payload) {
+        if (payload.isReset() || payload.getIndexId() != indexId) {
+            clear();
+            indexId = payload.getIndexId();
+        }
+
+        payload.getRemoved().forEach(ROWS::remove);
+        for (RequestVillagerListPacket.VillagerDataPacket row : payload.getVillagerDataList()) {
+            ROWS.put(row.getUuid(), row);
+        }
+        if (payload.getPageIds() != null) {
+            PAGES.put(payload.getPage(), List.copyOf(payload.getPageIds()));
+        }
+        PAGE_VERSIONS.put(payload.getPage(), payload.getVersion());
+
+        List<RequestVillagerListPacket.VillagerDataPacket> entries = new ArrayList<>();
+        for (UUID id : PAGES.getOrDefault(payload.getPage(), List.of())) {
+            RequestVillagerListPacket.VillagerDataPacket row = ROWS.get(id);
+            if (row != null) {
+                entries.add(row);
+            } else {
+                // Should not happen, but if it does, ask for the whole page next time
+                PAGE_VERSIONS.remove(payload.getPage());
+            }
+        }
+        return entries;
+    }
+
+    private static void clear() {
+        indexId = 0;
+        ROWS.clear();
+        PAGES.clear();
+        PAGE_VERSIONS.clear();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,31 @@
+package com.beeny.network;
+
+import com.beeny.client.gui.VillagerJournalScreen;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.text.Text;
+import net.minecraft.util.Formatting;
+
+@Environment(EnvType.CLIENT)
+public class VillagerNotLoadedPacketClient {
+    public static void register() {
+        ClientPlayNetworking.registerGlobalReceiver(VillagerNotLoadedPacket.ID, (payload, context) -> {
+            context.client().execute(() -> {
+                MinecraftClient client = MinecraftClient.getInstance();
+                if (client.currentScreen instanceof VillagerJournalScreen screen) {
+                    screen.markNotLoaded(payload.villagerId());
+                }
+                if (client.player == null) return;
+
+                String name = payload.name().isEmpty() ? "That villager" : payload.name();
+                String message = payload.lastPos() == null
+                    ? name + " is not loaded right now"
+                    : String.format("%s is not loaded right now (last seen at %d, %d, %d in %s)", name,
+                        payload.lastPos().getX(), payload.lastPos().getY(), payload.lastPos().getZ(), payload.world());
+                client.player.sendMessage(Text.literal(message).formatted(Formatting.RED), false);
+            });
+        });
+    }
+}
@@ -2,15 +2,17 @@ package com.beeny.network;
 
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
 
+import java.util.UUID;
+
 public class VillagerTeleportPacketClient {
     public static void register() {
         
     }
     
-    public static void sendToServer(int villagerId) {
+    public static void sendToServer(UUID villagerId) {
         
-        if (villagerId < 0) {
-            throw new IllegalArgumentException("Villager ID must be non-negative");
+        if (villagerId == null) {
+            throw new IllegalArgumentException("Villager ID must not be null");
         }
         
         ClientPlayNetworking.send(new VillagerTeleportPacket(villagerId));
@@ -8,12 +8,25 @@ import com.beeny.network.UpdateVillagerNotesPacket;
 import com.beeny.network.VillagerMarriagePacket;
 import com.beeny.network.OpenFamilyTreePacket;
 import com.beeny.network.FamilyTreeDataPacket;
+import com.beeny.network.AncestryDataPacket;
+import com.beeny.network.BatchVillagerEditPacket;
+import com.beeny.network.RequestThrottle;
 import com.beeny.network.RequestVillagerListPacket;
+import com.beeny.network.VillagerNotLoadedPacket;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import com.beeny.registry.ModItems;
+import com.beeny.system.AncestryService;
+import com.beeny.system.ChronologyManager;
+import com.beeny.system.ConversationMemory;
+import com.beeny.system.DialoguePackLoader;
+import com.beeny.system.FamilyGraphIndex;
+import com.beeny.system.JournalSubscriptions;
+import com.beeny.system.ScheduleDefinitionLoader;
 import com.beeny.system.VillagerRelationshipManager;
 import com.beeny.system.VillagerScheduleManager;
+import com.beeny.system.VillagerEditQueue;
 import com.beeny.system.ServerVillagerManager;
+import com.beeny.util.NameRegionTable;
 import com.mojang.serialization.Codec;
 import net.fabricmc.api.ModInitializer;
 import net.fabricmc.fabric.api.attachment.v1.AttachmentRegistry;
@@ -87,14 +100,25 @@ public class Villagersreborn implements ModInitializer {
 		VillagerMarriagePacket.register();
 		OpenFamilyTreePacket.register();
 		FamilyTreeDataPacket.register();
+		AncestryDataPacket.register();
 		RequestVillagerListPacket.register();
+		VillagerNotLoadedPacket.register();
+		BatchVillagerEditPacket.register();
+		RequestThrottle.register();
 		
 		
+		AncestryService.register();
+		ScheduleDefinitionLoader.register();
+		DialoguePackLoader.register();
+		FamilyGraphIndex.register();
+		ConversationMemory.register();
+		NameRegionTable.register();
 		registerEvents();
 		
 		
 		ServerTickEvents.END_SERVER_TICK.register(server -> {
 			tickCounter++;
+			ChronologyManager.onServerTick(server);
 			
 			
 			if (tickCounter % 100 == 0) {
@@ -115,13 +139,10 @@ public class Villagersreborn implements ModInitializer {
 			}
 			
 			
-			if (tickCounter % 200 == 0) {
-				server.getWorlds().forEach(world -> {
-					if (world instanceof ServerWorld serverWorld) {
-						VillagerScheduleManager.updateSchedules(serverWorld);
-					}
-				});
-			}
+			// Schedule transitions are queued per villager, so this only touches villagers that are due
+			server.getWorlds().forEach(VillagerScheduleManager::tickSchedules);
+			JournalSubscriptions.tick(server);
+			VillagerEditQueue.tick(server);
 			
 			
 			if (tickCounter % 600 == 0) {
@@ -144,9 +165,9 @@ public class Villagersreborn implements ModInitializer {
 				// Check for empty hand (right-click to open family tree)
 				if (heldItem.isEmpty() && player.isSneaking()) {
 					if (player instanceof ServerPlayerEntity serverPlayer) {
-						LOGGER.info("[Villagersreborn] Sending OpenFamilyTreePacket for villager ID: " + villager.getId());
+						LOGGER.debug("[Villagersreborn] Sending OpenFamilyTreePacket for villager {}", villager.getUuid());
 						// Send packet to open family tree GUI
-						ServerPlayNetworking.send(serverPlayer, new OpenFamilyTreePacket(villager.getId()));
+						ServerPlayNetworking.send(serverPlayer, new OpenFamilyTreePacket(villager.getUuid()));
 						return ActionResult.SUCCESS;
 					}
 				}
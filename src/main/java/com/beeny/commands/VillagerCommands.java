@@ -3,9 +3,17 @@ package com.beeny.commands;
 import com.beeny.Villagersreborn;
 import com.beeny.data.VillagerData;
 import com.beeny.network.OpenFamilyTreePacket;
+import com.beeny.network.RequestThrottle;
+import com.beeny.network.ResponseEncoder;
+import com.beeny.system.ChronologyManager;
+import com.beeny.system.FamilyGraphIndex;
+import com.beeny.system.GenealogyExporter;
+import com.beeny.system.VillagerAncestryManager;
 import com.beeny.system.VillagerRelationshipManager;
 import com.beeny.system.VillagerScheduleManager;
+import com.beeny.system.VillagerEditQueue;
 import com.beeny.system.ServerVillagerManager;
+import com.beeny.system.VillageNameAllocator;
 import com.beeny.util.VillagerNames;
 import com.mojang.brigadier.CommandDispatcher;
 import com.mojang.brigadier.arguments.IntegerArgumentType;
@@ -20,6 +28,8 @@ import net.minecraft.command.CommandRegistryAccess;
 import net.minecraft.command.argument.EntityArgumentType;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.passive.VillagerEntity;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.nbt.NbtOps;
 import net.minecraft.server.command.CommandManager;
 import net.minecraft.server.command.ServerCommandSource;
 import net.minecraft.text.ClickEvent;
@@ -83,6 +93,11 @@ public class VillagerCommands {
                 .then(CommandManager.literal("tree")
                     .then(CommandManager.argument("villager", EntityArgumentType.entity())
                         .executes(VillagerCommands::showFamilyTree)))
+                .then(CommandManager.literal("ancestors")
+                    .then(CommandManager.argument("villager", EntityArgumentType.entity())
+                        .executes(context -> showAncestors(context, 2))
+                        .then(CommandManager.argument("generations", IntegerArgumentType.integer(1, VillagerAncestryManager.MAX_GENERATIONS))
+                            .executes(context -> showAncestors(context, IntegerArgumentType.getInteger(context, "generations"))))))
                 .then(CommandManager.literal("marry")
                     .then(CommandManager.argument("villager1", EntityArgumentType.entity())
                         .then(CommandManager.argument("villager2", EntityArgumentType.entity())
@@ -129,6 +144,9 @@ public class VillagerCommands {
                 .then(CommandManager.literal("export")
                     .then(CommandManager.argument("villager", EntityArgumentType.entity())
                         .executes(VillagerCommands::exportVillagerData)))
+                .then(CommandManager.literal("exportall")
+                    .requires(source -> source.hasPermissionLevel(2))
+                    .executes(VillagerCommands::exportAllVillagerData))
                 .then(CommandManager.literal("reset")
                     .then(CommandManager.argument("villager", EntityArgumentType.entity())
                         .executes(VillagerCommands::resetVillagerData))))
@@ -139,7 +157,15 @@ public class VillagerCommands {
                 .then(CommandManager.literal("relationships")
                     .executes(VillagerCommands::debugRelationships))
                 .then(CommandManager.literal("cleanup")
-                    .executes(VillagerCommands::cleanupData))));
+                    .executes(VillagerCommands::cleanupData))
+                .then(CommandManager.literal("nbtsize")
+                    .executes(VillagerCommands::debugNbtSize))
+                .then(CommandManager.literal("timings")
+                    .executes(VillagerCommands::debugTimings)
+                    .then(CommandManager.literal("reset")
+                        .executes(VillagerCommands::resetTimings)))
+                .then(CommandManager.literal("requests")
+                    .executes(VillagerCommands::debugRequests))));
     }
 
     
@@ -167,6 +193,7 @@ public class VillagerCommands {
                 data.setName(newName);
                 villager.setAttached(Villagersreborn.VILLAGER_NAME, newName); 
                 villager.setCustomName(Text.literal(newName));
+                VillageNameAllocator.claim(villager, newName);
                 renamedCount++;
                 
                 String feedback = !oldName.isEmpty() 
@@ -201,6 +228,7 @@ public class VillagerCommands {
         data.setName(newName);
         nearestVillager.setAttached(Villagersreborn.VILLAGER_NAME, newName); 
         nearestVillager.setCustomName(Text.literal(newName));
+        VillageNameAllocator.claim(nearestVillager, newName);
 
         String feedback = !oldName.isEmpty() 
             ? String.format("Renamed villager from '%s' to '%s'", oldName, newName)
@@ -353,7 +381,7 @@ public class VillagerCommands {
         
         // Send packet to open family tree GUI on client
         ServerPlayNetworking.send(context.getSource().getPlayer(), 
-            new OpenFamilyTreePacket(villager.getId()));
+            new OpenFamilyTreePacket(villager.getUuid()));
         
         sendSuccess(context.getSource(), "Opening family tree for " + 
             (villager.getAttached(Villagersreborn.VILLAGER_DATA) != null ? 
@@ -362,6 +390,34 @@ public class VillagerCommands {
         return 1;
     }
 
+    private static int showAncestors(CommandContext<ServerCommandSource> context, int generations) throws CommandSyntaxException {
+        Entity entity = EntityArgumentType.getEntity(context, "villager");
+        
+        if (!(entity instanceof VillagerEntity villager)) {
+            sendError(context.getSource(), "Entity is not a villager");
+            return 0;
+        }
+        
+        ServerCommandSource source = context.getSource();
+        List<VillagerAncestryManager.Ancestor> ancestors = VillagerAncestryManager.generateAncestors(villager, generations);
+        
+        sendInfo(source, "=== Ancestors of " + VillagerNames.getVillagerName(villager) + " ===");
+        int currentGeneration = 0;
+        for (VillagerAncestryManager.Ancestor ancestor : ancestors) {
+            if (ancestor.generation() != currentGeneration) {
+                currentGeneration = ancestor.generation();
+                sendInfo(source, "Generation " + currentGeneration + ":");
+            }
+            
+            VillagerData data = ancestor.data();
+            String side = ancestor.isMaternal() ? "mother" : "father";
+            source.sendFeedback(() -> Text.literal("  " + data.getName() + " (" + side + " of " + data.getChildrenNames().get(0) + ") - " 
+                + String.join(", ", data.getProfessionHistory())).formatted(Formatting.GRAY), false);
+        }
+        
+        return ancestors.size();
+    }
+
     private static int marryVillagers(CommandContext<ServerCommandSource> context) throws CommandSyntaxException {
         Entity entity1 = EntityArgumentType.getEntity(context, "villager1");
         Entity entity2 = EntityArgumentType.getEntity(context, "villager2");
@@ -455,8 +511,8 @@ public class VillagerCommands {
             VillagerData babyData = new VillagerData();
             baby.setAttached(Villagersreborn.VILLAGER_DATA, babyData);
             
-            // Set baby name using VillagerNames utility
-            String babyName = VillagerNames.generateName(baby);
+            // Set a baby name nobody else in the village has
+            String babyName = VillageNameAllocator.allocate(baby, serverWorld.getRandom().nextBoolean(), null);
             babyData.setName(babyName);
             baby.setCustomName(Text.literal(babyName));
             
@@ -653,12 +709,12 @@ public class VillagerCommands {
         sendInfo(source, "Happiness: " + data.getHappiness());
         sendInfo(source, "Hobby: " + data.getHobby());
         sendInfo(source, "Favorite Food: " + data.getFavoriteFood());
-        sendInfo(source, "Birth Time: " + data.getBirthTime());
+        sendInfo(source, "Birth Time: " + ChronologyManager.formatDate(data.getBirthTime()) + " (tick " + data.getBirthTime() + ")");
         sendInfo(source, "Birth Place: " + data.getBirthPlace());
         sendInfo(source, "Total Trades: " + data.getTotalTrades());
         sendInfo(source, "Spouse: " + data.getSpouseName() + " (ID: " + data.getSpouseId() + ")");
         sendInfo(source, "Children: " + String.join(", ", data.getChildrenNames()));
-        sendInfo(source, "Family: " + String.join(", ", data.getFamilyMembers()));
+        sendInfo(source, "Parents: " + String.join(", ", data.getParentIds()));
         sendInfo(source, "Profession History: " + String.join(", ", data.getProfessionHistory()));
         sendInfo(source, "Notes: " + data.getNotes());
         sendInfo(source, "=== End Export ===");
@@ -666,6 +722,20 @@ public class VillagerCommands {
         return 1;
     }
 
+    private static int exportAllVillagerData(CommandContext<ServerCommandSource> context) {
+        ServerCommandSource source = context.getSource();
+        
+        int count = GenealogyExporter.exportDimension(source);
+        if (count < 0) {
+            sendError(source, "A genealogy export is already running");
+            return 0;
+        }
+        
+        sendInfo(source, String.format("Exporting genealogy for %d villager%s in the background...", 
+            count, count == 1 ? "" : "s"));
+        return count;
+    }
+
     private static int resetVillagerData(CommandContext<ServerCommandSource> context) throws CommandSyntaxException {
         Entity entity = EntityArgumentType.getEntity(context, "villager");
         
@@ -697,8 +767,13 @@ public class VillagerCommands {
                         .add(data.getSpouseName());
                 }
                 
-                if (!data.getFamilyMembers().isEmpty()) {
-                    families.put(data.getName(), data.getFamilyMembers());
+                String uuid = villager.getUuidAsString();
+                List<String> kin = new ArrayList<>();
+                FamilyGraphIndex.getParents(uuid).forEach(id -> kin.add("parent " + describeKin(id)));
+                FamilyGraphIndex.getSiblings(uuid).forEach(id -> kin.add("sibling " + describeKin(id)));
+                FamilyGraphIndex.getChildren(uuid).forEach(id -> kin.add("child " + describeKin(id)));
+                if (!kin.isEmpty()) {
+                    families.put(data.getName(), kin);
                 }
             }
         }
@@ -711,10 +786,92 @@ public class VillagerCommands {
         sendInfo(source, "\nFamily Connections:");
         families.forEach((name, members) -> 
             sendInfo(source, "  " + name + ": " + String.join(", ", members)));
+        sendInfo(source, "Indexed parent edges: " + FamilyGraphIndex.getIndexedEdgeCount());
+        
+        return 1;
+    }
+
+    private static String describeKin(String uuid) {
+        String name = FamilyGraphIndex.getName(uuid);
+        return name != null ? name : uuid;
+    }
+
+    private static int debugNbtSize(CommandContext<ServerCommandSource> context) {
+        ServerCommandSource source = context.getSource();
+        
+        int count = 0;
+        long totalBytes = 0;
+        int largestBytes = 0;
+        String largestName = "";
+        for (VillagerEntity villager : ServerVillagerManager.getInstance().getAllTrackedVillagers()) {
+            VillagerData data = villager.getAttached(Villagersreborn.VILLAGER_DATA);
+            if (data == null) continue;
+            
+            NbtElement encoded = VillagerData.CODEC.encodeStart(NbtOps.INSTANCE, data).result().orElse(null);
+            if (encoded == null) continue;
+            
+            int bytes = encoded.getSizeInBytes();
+            totalBytes += bytes;
+            count++;
+            if (bytes > largestBytes) {
+                largestBytes = bytes;
+                largestName = data.getName();
+            }
+        }
+        
+        if (count == 0) {
+            sendInfo(source, "No tracked villagers with data");
+            return 0;
+        }
+        
+        sendInfo(source, "=== Villager Data NBT Size ===");
+        sendInfo(source, String.format("Villagers: %d, total: %d bytes, average: %d bytes", count, totalBytes, totalBytes / count));
+        sendInfo(source, String.format("Largest: %s (%d bytes)", largestName, largestBytes));
+        return count;
+    }
+
+    private static int debugTimings(CommandContext<ServerCommandSource> context) {
+        ServerCommandSource source = context.getSource();
+        Map<String, ResponseEncoder.Timing> timings = ResponseEncoder.getTimings();
+        if (timings.isEmpty()) {
+            sendInfo(source, "No responses sent yet");
+            return 0;
+        }
         
+        sendInfo(source, "=== Response Timings (avg / max) ===");
+        timings.forEach((id, timing) -> {
+            long count = Math.max(timing.getCount(), 1);
+            sendInfo(source, String.format("%s x%d: snapshot %.1f / %.1f µs (server thread), encode %.1f / %.1f µs (worker), %d bytes avg",
+                id, timing.getCount(),
+                timing.getSnapshotNanos() / 1000.0 / count, timing.getMaxSnapshotNanos() / 1000.0,
+                timing.getEncodeNanos() / 1000.0 / count, timing.getMaxEncodeNanos() / 1000.0,
+                timing.getBytes() / count));
+        });
+        return timings.size();
+    }
+
+    private static int resetTimings(CommandContext<ServerCommandSource> context) {
+        ResponseEncoder.resetTimings();
+        RequestThrottle.resetStats();
+        sendInfo(context.getSource(), "Response timings and request counts reset");
         return 1;
     }
 
+    private static int debugRequests(CommandContext<ServerCommandSource> context) {
+        ServerCommandSource source = context.getSource();
+        Map<String, RequestThrottle.Stats> stats = RequestThrottle.getStats();
+        sendInfo(source, "Pending villager edits: " + VillagerEditQueue.getPendingEdits());
+        if (stats.isEmpty()) {
+            sendInfo(source, "No requests received yet");
+            return 0;
+        }
+        
+        sendInfo(source, "=== Client Requests ===");
+        stats.forEach((id, counts) -> sendInfo(source, String.format("%s: %d accepted, %d dropped, %d coalesced",
+            id, counts.getAccepted(), counts.getDropped(), counts.getCoalesced())));
+        return stats.size();
+    }
+
     private static int cleanupData(CommandContext<ServerCommandSource> context) throws CommandSyntaxException {
         ServerCommandSource source = context.getSource();
         
@@ -820,7 +977,6 @@ public class VillagerCommands {
 
     private static int randomizeAllVillagerNames(CommandContext<ServerCommandSource> context) throws CommandSyntaxException {
         ServerCommandSource source = context.getSource();
-        World world = source.getWorld();
         
         List<VillagerEntity> villagers = getAllVillagersInArea(source, RANDOMIZE_SEARCH_RADIUS);
         
@@ -831,13 +987,11 @@ public class VillagerCommands {
         
         int renamedCount = 0;
         for (VillagerEntity villager : villagers) {
-            String newName = VillagerNames.generateNameForProfession(
-                world,
-                villager.getBlockPos()
-            );
-            
             VillagerData data = villager.getAttached(Villagersreborn.VILLAGER_DATA);
             if (data != null) {
+                boolean isMale = data.getGender().equals("Male") || (!data.getGender().equals("Female")
+                    && (villager.getBlockPos().getX() + villager.getBlockPos().getZ()) % 2 == 0);
+                String newName = VillageNameAllocator.allocate(villager, isMale, null);
                 data.setName(newName);
                 villager.setAttached(Villagersreborn.VILLAGER_NAME, newName); 
                 villager.setCustomName(Text.literal(newName));
@@ -1,6 +1,7 @@
 package com.beeny.data;
 
 import com.mojang.serialization.Codec;
+import com.mojang.serialization.MapCodec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtElement;
@@ -9,9 +10,14 @@ import net.minecraft.nbt.NbtString;
 import net.minecraft.util.Identifier;
 
 import java.util.*;
+import java.util.function.Function;
 
 public class VillagerData {
-    public static final Codec<VillagerData> CODEC = RecordCodecBuilder.create(instance ->
+    // Birth or death time that was never recorded; negative ticks are valid dates before the world began
+    public static final long UNKNOWN_TIME = Long.MIN_VALUE;
+    public static final long NO_ACTIVITY_SLOT = Long.MIN_VALUE;
+    
+    private static final MapCodec<VillagerData> PROFILE_CODEC = RecordCodecBuilder.mapCodec(instance ->
         instance.group(
             Codec.STRING.fieldOf("name").forGetter(VillagerData::getName),
             Codec.INT.fieldOf("age").forGetter(VillagerData::getAge),
@@ -22,7 +28,6 @@ public class VillagerData {
             Codec.STRING.optionalFieldOf("favoritePlayerId", "").forGetter(VillagerData::getFavoritePlayerId),
             Codec.list(Codec.STRING).fieldOf("professionHistory").forGetter(VillagerData::getProfessionHistory),
             Codec.unboundedMap(Codec.STRING, Codec.INT).fieldOf("playerRelations").forGetter(VillagerData::getPlayerRelations),
-            Codec.list(Codec.STRING).fieldOf("familyMembers").forGetter(VillagerData::getFamilyMembers),
             Codec.STRING.optionalFieldOf("spouseName", "").forGetter(VillagerData::getSpouseName),
             Codec.STRING.optionalFieldOf("spouseId", "").forGetter(VillagerData::getSpouseId),
             Codec.list(Codec.STRING).fieldOf("childrenIds").forGetter(VillagerData::getChildrenIds),
@@ -30,7 +35,7 @@ public class VillagerData {
             Codec.STRING.optionalFieldOf("favoriteFood", "").forGetter(VillagerData::getFavoriteFood),
             Codec.STRING.optionalFieldOf("hobby", "").forGetter(VillagerData::getHobby)
         ).apply(instance, (name, age, gender, personality, happiness, totalTrades, favoritePlayerId, 
-            professionHistory, playerRelations, familyMembers, spouseName, spouseId, childrenIds, 
+            professionHistory, playerRelations, spouseName, spouseId, childrenIds, 
             childrenNames, favoriteFood, hobby) -> {
                 VillagerData data = new VillagerData();
                 data.name = name;
@@ -42,7 +47,6 @@ public class VillagerData {
                 data.favoritePlayerId = favoritePlayerId;
                 data.professionHistory = new ArrayList<>(professionHistory);
                 data.playerRelations = new HashMap<>(playerRelations);
-                data.familyMembers = new ArrayList<>(familyMembers);
                 data.spouseName = spouseName;
                 data.spouseId = spouseId;
                 data.childrenIds = new ArrayList<>(childrenIds);
@@ -53,6 +57,62 @@ public class VillagerData {
             })
     );
     
+    private record Lineage(List<String> parentIds, List<String> legacyFamilyMembers) {}
+    
+    private static final MapCodec<Lineage> LINEAGE_CODEC = RecordCodecBuilder.mapCodec(instance ->
+        instance.group(
+            Codec.list(Codec.STRING).optionalFieldOf("parentIds", List.of()).forGetter(Lineage::parentIds),
+            // Older saves copied every relative into this list; it is only read for migration and never written back
+            Codec.list(Codec.STRING).optionalFieldOf("familyMembers", List.of()).forGetter(Lineage::legacyFamilyMembers)
+        ).apply(instance, Lineage::new)
+    );
+    
+    private record Chronology(long birthTime, long deathTime, boolean alive) {}
+    
+    // World game time in ticks, see ChronologyManager; saves from before this was stored load as unknown
+    private static final MapCodec<Chronology> CHRONOLOGY_CODEC = RecordCodecBuilder.mapCodec(instance ->
+        instance.group(
+            Codec.LONG.optionalFieldOf("birthTime", UNKNOWN_TIME).forGetter(Chronology::birthTime),
+            Codec.LONG.optionalFieldOf("deathTime", UNKNOWN_TIME).forGetter(Chronology::deathTime),
+            Codec.BOOL.optionalFieldOf("alive", true).forGetter(Chronology::alive)
+        ).apply(instance, Chronology::new)
+    );
+    
+    private record ScheduleState(String activity, long slot, long since) {}
+    
+    // The activity a villager committed to and the schedule slot it was chosen for, see VillagerScheduleManager
+    private static final MapCodec<ScheduleState> SCHEDULE_CODEC = RecordCodecBuilder.mapCodec(instance ->
+        instance.group(
+            Codec.STRING.optionalFieldOf("activity", "").forGetter(ScheduleState::activity),
+            Codec.LONG.optionalFieldOf("activitySlot", NO_ACTIVITY_SLOT).forGetter(ScheduleState::slot),
+            Codec.LONG.optionalFieldOf("activitySince", 0L).forGetter(ScheduleState::since)
+        ).apply(instance, ScheduleState::new)
+    );
+    
+    public static final Codec<VillagerData> CODEC = RecordCodecBuilder.create(instance ->
+        instance.group(
+            PROFILE_CODEC.forGetter(Function.identity()),
+            LINEAGE_CODEC.forGetter(data -> new Lineage(data.parentIds, List.of())),
+            CHRONOLOGY_CODEC.forGetter(data -> new Chronology(data.birthTime, data.deathTime, data.isAlive)),
+            SCHEDULE_CODEC.forGetter(data -> new ScheduleState(data.activity, data.activitySlot, data.activitySince)),
+            Codec.STRING.optionalFieldOf("notes", "").forGetter(VillagerData::getNotes)
+        ).apply(instance, (data, lineage, chronology, schedule, notes) -> {
+            data.parentIds = new ArrayList<>(lineage.parentIds());
+            if (data.parentIds.isEmpty() && !lineage.legacyFamilyMembers().isEmpty()) {
+                data.migrateLegacyFamilyMembers(lineage.legacyFamilyMembers());
+            }
+            data.birthTime = chronology.birthTime();
+            data.deathTime = chronology.deathTime();
+            data.isAlive = chronology.alive();
+            data.activity = schedule.activity();
+            data.activitySlot = schedule.slot();
+            data.activitySince = schedule.since();
+            data.notes = notes;
+            return data;
+        })
+    );
+
+    
     
     private String name;
     private int age; 
@@ -69,7 +129,8 @@ public class VillagerData {
     private Map<String, Integer> playerRelations; 
     
     
-    private List<String> familyMembers;
+    private List<String> parentIds;
+    private List<String> legacyParentCandidates = List.of();
     private String spouseName;
     private String spouseId;
     private List<String> childrenIds;
@@ -85,6 +146,11 @@ public class VillagerData {
     private boolean isAlive;
     
     
+    private String activity = "";
+    private long activitySlot = NO_ACTIVITY_SLOT;
+    private long activitySince;
+    
+    
     public static final String[] PERSONALITIES = {
         "Friendly", "Grumpy", "Shy", "Energetic", "Lazy", 
         "Curious", "Serious", "Cheerful", "Nervous", "Confident"
@@ -107,24 +173,24 @@ public class VillagerData {
         this.favoritePlayerId = "";
         this.professionHistory = new ArrayList<>();
         this.playerRelations = new HashMap<>();
-        this.familyMembers = new ArrayList<>();
+        this.parentIds = new ArrayList<>();
         this.spouseName = "";
         this.spouseId = "";
         this.childrenIds = new ArrayList<>();
         this.childrenNames = new ArrayList<>();
         this.favoriteFood = "";
         this.hobby = HOBBIES[new Random().nextInt(HOBBIES.length)];
-        this.birthTime = System.currentTimeMillis();
+        this.birthTime = UNKNOWN_TIME;
         this.birthPlace = "";
         this.notes = "";
-        this.deathTime = 0;
+        this.deathTime = UNKNOWN_TIME;
         this.isAlive = true;
     }
     
     
     public VillagerData(String name, int age, String gender, String personality, int happiness,
                        int totalTrades, String favoritePlayerId, List<String> professionHistory,
-                       Map<String, Integer> playerRelations, List<String> familyMembers,
+                       Map<String, Integer> playerRelations, List<String> parentIds,
                        String spouseName, String spouseId, List<String> childrenIds, List<String> childrenNames,
                        String favoriteFood, String hobby, long birthTime, String birthPlace,
                        String notes, long deathTime, boolean isAlive) {
@@ -137,7 +203,7 @@ public class VillagerData {
         this.favoritePlayerId = favoritePlayerId;
         this.professionHistory = new ArrayList<>(professionHistory);
         this.playerRelations = new HashMap<>(playerRelations);
-        this.familyMembers = new ArrayList<>(familyMembers);
+        this.parentIds = new ArrayList<>(parentIds);
         this.spouseName = spouseName;
         this.spouseId = spouseId;
         this.childrenIds = new ArrayList<>(childrenIds);
@@ -206,18 +272,31 @@ public class VillagerData {
         }
     }
     
-    public void addFamilyMember(String memberId) {
-        if (!familyMembers.contains(memberId)) {
-            familyMembers.add(memberId);
+    public void addParent(String parentId) {
+        if (parentIds.size() < 2 && !parentIds.contains(parentId)) {
+            parentIds.add(parentId);
         }
     }
     
-    public void addFamilyMember(String memberName, String memberId) {
-        if (!familyMembers.contains(memberId)) {
-            familyMembers.add(memberId);
+    // Bred villagers used to get both parents first, followed by every relative of theirs and later a spouse.
+    // Villagers that were never bred only had spouses in the list, and divorce never removed them, so the
+    // leading pair may be two exes. Entries that are a spouse or child here are ruled out; the rest are kept
+    // as candidates until FamilyGraphIndex checks them against the other side's childrenIds.
+    private void migrateLegacyFamilyMembers(List<String> familyMembers) {
+        if (familyMembers.size() < 2) return;
+        
+        List<String> candidates = familyMembers.subList(0, 2);
+        for (String candidate : candidates) {
+            if (candidate.equals(spouseId) || childrenIds.contains(candidate)) return;
         }
+        legacyParentCandidates = List.copyOf(candidates);
     }
     
+    /** Parents listed by a pre-migration save that no parent has confirmed yet. Never saved. */
+    public List<String> getLegacyParentCandidates() { return legacyParentCandidates; }
+    
+    public void clearLegacyParentCandidates() { legacyParentCandidates = List.of(); }
+    
     
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
@@ -242,7 +321,7 @@ public class VillagerData {
     
     public List<String> getChildrenIds() { return new ArrayList<>(childrenIds); }
     public List<String> getChildrenNames() { return new ArrayList<>(childrenNames); }
-    public List<String> getFamilyMembers() { return new ArrayList<>(familyMembers); }
+    public List<String> getParentIds() { return new ArrayList<>(parentIds); }
     public List<String> getProfessionHistory() { return new ArrayList<>(professionHistory); }
     
     public Map<String, Integer> getPlayerRelations() { return new HashMap<>(playerRelations); }
@@ -268,6 +347,16 @@ public class VillagerData {
     public boolean isAlive() { return isAlive; }
     public void setAlive(boolean alive) { this.isAlive = alive; }
     
+    public String getActivity() { return activity; }
+    public long getActivitySlot() { return activitySlot; }
+    public long getActivitySince() { return activitySince; }
+    
+    public void setActivity(String activity, long slot, long since) {
+        this.activity = activity;
+        this.activitySlot = slot;
+        this.activitySince = since;
+    }
+    
     public String getFavoritePlayerId() { return favoritePlayerId; }
     public void setFavoritePlayerId(String favoritePlayerId) { this.favoritePlayerId = favoritePlayerId; }
     
@@ -2,9 +2,11 @@ package com.beeny.mixin;
 
 import com.beeny.Villagersreborn;
 import com.beeny.data.VillagerData;
+import com.beeny.system.ChronologyManager;
 import com.beeny.system.VillagerRelationshipManager;
 import com.beeny.system.VillagerScheduleManager;
 import com.beeny.system.ServerVillagerManager;
+import com.beeny.system.VillageNameAllocator;
 import com.beeny.util.VillagerNames;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.LivingEntity;
@@ -129,6 +131,8 @@ public abstract class VillagerEntityMixin extends LivingEntity {
         
         if (data == null || villager.getWorld().isClient) return;
         
+        data.setDeathTime(ChronologyManager.now(villager.getWorld()));
+        
         // Untrack this villager
         ServerVillagerManager.getInstance().untrackVillager(villager.getUuid());
         
@@ -138,6 +142,7 @@ public abstract class VillagerEntityMixin extends LivingEntity {
         
         
         VillagerNames.cleanupVillager(villager.getUuidAsString());
+        VillageNameAllocator.release(villager.getUuid());
         VillagerRelationshipManager.removeProposalTime(villager.getUuidAsString());
     }
     
@@ -224,6 +229,10 @@ public abstract class VillagerEntityMixin extends LivingEntity {
     
     @Unique
     private void ensureNameAndData(VillagerEntity villager, VillagerData data) {
+        // Newborns, spawned villagers and saves from before birth times were stored are dated on first sight
+        if (!ChronologyManager.isKnown(data.getBirthTime()) && !villager.getWorld().isClient) {
+            data.setBirthTime(ChronologyManager.now(villager.getWorld()));
+        }
         
         if (data.getName().isEmpty()) {
             var pos = villager.getBlockPos();
@@ -231,15 +240,15 @@ public abstract class VillagerEntityMixin extends LivingEntity {
             
             
             if (world != null && !pos.equals(new net.minecraft.util.math.BlockPos(0, 0, 0))) {
-                String generatedName = VillagerNames.generateNameForProfession(
-                    world,
-                    pos
-                );
+                boolean isMale = (pos.getX() + pos.getZ()) % 2 == 0;
+                // Only the server knows which names the village already uses
+                String generatedName = world.isClient
+                    ? VillagerNames.generateNameForProfession(world, pos)
+                    : VillageNameAllocator.allocate(villager, isMale, null);
                 
                 data.setName(generatedName);
                 
                 
-                boolean isMale = (pos.getX() + pos.getZ()) % 2 == 0;
                 data.setGender(isMale ? "Male" : "Female");
                 
                 
@@ -251,14 +260,14 @@ public abstract class VillagerEntityMixin extends LivingEntity {
         }
         
         
-        Text activitySuffix = Text.empty();
-        if (villager.getWorld() instanceof ServerWorld) {
-            VillagerScheduleManager.Activity activity = VillagerScheduleManager.getCurrentActivity(villager);
-            activitySuffix = Text.literal(" [" + activity.description + "]")
-                .formatted(Formatting.GRAY);
+        // Activity changes refresh the nameplate from the schedule queue, this only fills in missing ones
+        if (villager.getCustomName() == null || !villager.getCustomName().getString().startsWith(data.getName())) {
+            if (villager.getWorld() instanceof ServerWorld) {
+                VillagerScheduleManager.updateNameplate(villager, data);
+            } else {
+                villager.setCustomName(Text.literal(data.getName()));
+            }
         }
-        
-        villager.setCustomName(Text.literal(data.getName()).append(activitySuffix));
         villager.setCustomNameVisible(true);
     }
     
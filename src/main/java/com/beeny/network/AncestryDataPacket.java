@@ -0,0 +1,146 @@
+package com.beeny.network;
+
+import com.beeny.Villagersreborn;
+import com.beeny.data.VillagerData;
+import com.beeny.system.AncestryService;
+import com.beeny.system.VillagerAncestryManager;
+import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.entity.passive.VillagerEntity;
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.util.Identifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/** Generated ancestors for an open family tree, sent once the ancestry workers finish. */
+public class AncestryDataPacket implements CustomPayload, ResponseEncoder.PreEncoded {
+    public static final CustomPayload.Id<AncestryDataPacket> ID = new CustomPayload.Id<>(Identifier.of(Villagersreborn.MOD_ID, "ancestry_data"));
+    private static final PacketCodec<RegistryByteBuf, AncestryDataPacket> FIELDS_CODEC = PacketCodec.of(
+        (value, buf) -> {
+            buf.writeUuid(value.villagerId);
+            buf.writeVarInt(value.ancestors.size());
+            CompactCodec.Dictionary strings = FamilyTreeDataPacket.FamilyMemberData.newDictionary();
+            for (AncestorEntry entry : value.ancestors) {
+                buf.writeVarInt(entry.generation());
+                entry.data().toPacket(buf, strings);
+            }
+        },
+        buf -> {
+            UUID villagerId = buf.readUuid();
+            int size = buf.readVarInt();
+            List<AncestorEntry> ancestors = new ArrayList<>();
+            CompactCodec.Dictionary strings = FamilyTreeDataPacket.FamilyMemberData.newDictionary();
+            for (int i = 0; i < size; i++) {
+                int generation = buf.readVarInt();
+                ancestors.add(new AncestorEntry(generation, FamilyTreeDataPacket.FamilyMemberData.fromPacket(buf, strings)));
+            }
+            return new AncestryDataPacket(villagerId, ancestors);
+        }
+    );
+    public static final PacketCodec<RegistryByteBuf, AncestryDataPacket> CODEC = ResponseEncoder.preEncoded(FIELDS_CODEC);
+
+    // Fictional ancestors are only shown for villagers without known parents; as deep as the tree always showed
+    public static final int ANCESTOR_GENERATIONS = 4;
+
+    public record AncestorEntry(int generation, FamilyTreeDataPacket.FamilyMemberData data) {}
+
+    private final UUID villagerId;
+    private final List<AncestorEntry> ancestors;
+    private byte[] encoded;
+
+    public AncestryDataPacket(UUID villagerId, List<AncestorEntry> ancestors) {
+        this.villagerId = villagerId;
+        this.ancestors = ancestors;
+    }
+
+    @Override
+    public CustomPayload.Id<? extends CustomPayload> getId() {
+        return ID;
+    }
+
+    public UUID getVillagerId() {
+        return villagerId;
+    }
+
+    public List<AncestorEntry> getAncestors() {
+        return ancestors;
+    }
+
+    @Override
+    public byte[] getEncoded() {
+        return encoded;
+    }
+
+    @Override
+    public void setEncoded(byte[] encoded) {
+        this.encoded = encoded;
+    }
+
+    public static void register() {
+        PayloadTypeRegistry.playS2C().register(ID, CODEC);
+        PayloadTypeRegistry.playC2S().register(CancelPacket.ID, CancelPacket.CODEC);
+        ServerPlayNetworking.registerGlobalReceiver(CancelPacket.ID, (payload, context) -> {
+            context.server().execute(() -> AncestryService.cancel(context.player().getUuid(), payload.getVillagerId()));
+        });
+    }
+
+    public static void requestAncestors(ServerPlayerEntity player, VillagerEntity villager, UUID villagerId) {
+        AncestryService.requestAncestors(player, villager, ANCESTOR_GENERATIONS, villagerId, (target, ancestors) -> {
+            long snapshotStart = System.nanoTime();
+            List<AncestorEntry> entries = new ArrayList<>(ancestors.size());
+            for (VillagerAncestryManager.Ancestor ancestor : ancestors) {
+                entries.add(new AncestorEntry(ancestor.generation(), createAncestorData(ancestor)));
+            }
+            // Through the same worker as the family tree, so a warm cache cannot overtake the screen it belongs to
+            ResponseEncoder.send(target, new AncestryDataPacket(villagerId, entries), CODEC, snapshotStart);
+        });
+    }
+
+    private static FamilyTreeDataPacket.FamilyMemberData createAncestorData(VillagerAncestryManager.Ancestor ancestor) {
+        VillagerData data = ancestor.data();
+        return new FamilyTreeDataPacket.FamilyMemberData(
+            data.getName(),
+            ancestor.getId(),
+            "ANCESTOR",
+            data.getBirthTime(),
+            data.getDeathTime(),
+            false,
+            data.getPersonality(),
+            data.getHappiness(),
+            data.getProfessionHistory().isEmpty() ? "" : data.getProfessionHistory().get(0),
+            data.getSpouseName(),
+            data.getChildrenIds().size(),
+            data.getBirthPlace(),
+            data.getNotes()
+        );
+    }
+
+    /** Sent when the family tree screen closes so unfinished ancestry work is dropped. */
+    public static class CancelPacket implements CustomPayload {
+        public static final CustomPayload.Id<CancelPacket> ID = new CustomPayload.Id<>(Identifier.of(Villagersreborn.MOD_ID, "ancestry_cancel"));
+        public static final PacketCodec<RegistryByteBuf, CancelPacket> CODEC = PacketCodec.of(
+            (value, buf) -> buf.writeUuid(value.villagerId),
+            buf -> new CancelPacket(buf.readUuid())
+        );
+
+        private final UUID villagerId;
+
+        public CancelPacket(UUID villagerId) {
+            this.villagerId = villagerId;
+        }
+
+        @Override
+        public CustomPayload.Id<? extends CustomPayload> getId() {
+            return ID;
+        }
+
+        public UUID getVillagerId() {
+            return villagerId;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.beeny.network;
+
+import com.beeny.Villagersreborn;
+import com.beeny.data.VillagerData;
+import com.beeny.system.ServerVillagerManager;
+import com.beeny.system.VillageNameAllocator;
+import com.beeny.system.VillagerEditQueue;
+import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.entity.passive.VillagerEntity;
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.text.Text;
+import net.minecraft.util.Identifier;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Many edits to many villagers in one request. Unlike {@link UpdateVillagerNotesPacket} there is no distance
+ * limit, so it is reserved for creative players and operators. The whole batch is validated at once, the valid
+ * edits go through {@link VillagerEditQueue} and the player gets a single {@link AckPacket} when it has drained.
+ */
+public record BatchVillagerEditPacket(int batchId, List<Edit> edits) implements CustomPayload {
+    public static final Id<BatchVillagerEditPacket> ID = new Id<>(Identifier.of(Villagersreborn.MOD_ID, "batch_villager_edit"));
+
+    public static final int MAX_EDITS = 256;
+
+    public enum Field {
+        NOTES(500),
+        NAME(50),
+        HOBBY(32);
+
+        private final int maxLength;
+
+        Field(int maxLength) {
+            this.maxLength = maxLength;
+        }
+
+        public int getMaxLength() {
+            return maxLength;
+        }
+    }
+
+    public enum Failure {
+        NOT_LOADED,
+        NO_DATA,
+        INVALID_VALUE,
+        UNLOADED,
+        THROTTLED,
+        DENIED
+    }
+
+    public record Edit(UUID villagerId, Field field, String value) {}
+
+    public record Rejected(int index, Failure reason) {}
+
+    public static final PacketCodec<RegistryByteBuf, BatchVillagerEditPacket> CODEC = PacketCodec.of(
+        (value, buf) -> {
+            buf.writeVarInt(value.batchId);
+            buf.writeVarInt(value.edits.size());
+            for (Edit edit : value.edits) {
+                buf.writeUuid(edit.villagerId());
+                buf.writeVarInt(edit.field().ordinal());
+                buf.writeString(edit.value(), edit.field().getMaxLength());
+            }
+        },
+        buf -> {
+            int batchId = buf.readVarInt();
+            int count = buf.readVarInt();
+            if (count < 0 || count > MAX_EDITS) {
+                throw new IllegalArgumentException("Batch of " + count + " edits exceeds " + MAX_EDITS);
+            }
+            Field[] fields = Field.values();
+            List<Edit> edits = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                UUID villagerId = buf.readUuid();
+                int ordinal = buf.readVarInt();
+                if (ordinal < 0 || ordinal >= fields.length) {
+                    throw new IllegalArgumentException("Unknown villager field " + ordinal);
+                }
+                edits.add(new Edit(villagerId, fields[ordinal], buf.readString(fields[ordinal].getMaxLength())));
+            }
+            return new BatchVillagerEditPacket(batchId, edits);
+        }
+    );
+
+    @Override
+    public Id<? extends CustomPayload> getId() {
+        return ID;
+    }
+
+    /** Sent once per batch after every valid edit was applied or found its villager gone. */
+    public record AckPacket(int batchId, int total, int applied, List<Rejected> rejected) implements CustomPayload {
+        public static final Id<AckPacket> ID = new Id<>(Identifier.of(Villagersreborn.MOD_ID, "batch_villager_edit_ack"));
+
+        public static final PacketCodec<RegistryByteBuf, AckPacket> CODEC = PacketCodec.of(
+            (value, buf) -> {
+                buf.writeVarInt(value.batchId);
+                buf.writeVarInt(value.total);
+                buf.writeVarInt(value.applied);
+                buf.writeVarInt(value.rejected.size());
+                for (Rejected rejected : value.rejected) {
+                    buf.writeVarInt(rejected.index());
+                    buf.writeVarInt(rejected.reason().ordinal());
+                }
+            },
+            buf -> {
+                int batchId = buf.readVarInt();
+                int total = buf.readVarInt();
+                int applied = buf.readVarInt();
+                int count = buf.readVarInt();
+                Failure[] reasons = Failure.values();
+                List<Rejected> rejected = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    int index = buf.readVarInt();
+                    int reason = buf.readVarInt();
+                    rejected.add(new Rejected(index, reason >= 0 && reason < reasons.length ? reasons[reason] : Failure.INVALID_VALUE));
+                }
+                return new AckPacket(batchId, total, applied, rejected);
+            }
+        );
+
+        @Override
+        public Id<? extends CustomPayload> getId() {
+            return ID;
+        }
+    }
+
+    public static void register() {
+        PayloadTypeRegistry.playC2S().register(ID, CODEC);
+        PayloadTypeRegistry.playS2C().register(AckPacket.ID, AckPacket.CODEC);
+        RequestThrottle.limit(ID, 2, 0.2);
+
+        ServerPlayNetworking.registerGlobalReceiver(ID, (payload, context) -> {
+            // Unlike other requests a dropped batch is still answered, so the curator knows to send it again
+            if (!RequestThrottle.tryAcquire(context.player(), ID)) {
+                context.responseSender().sendPacket(rejectAll(payload, Failure.THROTTLED));
+                return;
+            }
+            context.server().execute(() -> handle(context.player(), payload));
+        });
+    }
+
+    private static AckPacket rejectAll(BatchVillagerEditPacket payload, Failure reason) {
+        List<Rejected> rejected = new ArrayList<>(payload.edits().size());
+        for (int i = 0; i < payload.edits().size(); i++) {
+            rejected.add(new Rejected(i, reason));
+        }
+        return new AckPacket(payload.batchId(), payload.edits().size(), 0, rejected);
+    }
+
+    private static void handle(ServerPlayerEntity player, BatchVillagerEditPacket payload) {
+        if (!player.isCreative() && !player.hasPermissionLevel(2)) {
+            ServerPlayNetworking.send(player, rejectAll(payload, Failure.DENIED));
+            return;
+        }
+
+        List<Rejected> rejected = new ArrayList<>();
+        List<VillagerEditQueue.Edit> accepted = new ArrayList<>();
+        ServerVillagerManager manager = ServerVillagerManager.getInstance();
+        for (int i = 0; i < payload.edits().size(); i++) {
+            Edit edit = payload.edits().get(i);
+            VillagerEntity villager = manager.getLoadedVillager(edit.villagerId());
+            if (villager == null) {
+                rejected.add(new Rejected(i, Failure.NOT_LOADED));
+                continue;
+            }
+            if (villager.getAttached(Villagersreborn.VILLAGER_DATA) == null) {
+                rejected.add(new Rejected(i, Failure.NO_DATA));
+                continue;
+            }
+            String value = normalize(edit.field(), edit.value());
+            if (value == null) {
+                rejected.add(new Rejected(i, Failure.INVALID_VALUE));
+                continue;
+            }
+            accepted.add(new VillagerEditQueue.Edit(i, edit.villagerId(), (target, data) -> apply(target, data, edit.field(), value)));
+        }
+
+        UUID playerId = player.getUuid();
+        int total = payload.edits().size();
+        VillagerEditQueue.submit(accepted, result -> {
+            ServerPlayerEntity target = player.getServer().getPlayerManager().getPlayer(playerId);
+            if (target == null) return;
+            List<Rejected> all = new ArrayList<>(rejected);
+            result.missing().forEach(index -> all.add(new Rejected(index, Failure.UNLOADED)));
+            all.sort(Comparator.comparingInt(Rejected::index));
+            ServerPlayNetworking.send(target, new AckPacket(payload.batchId(), total, result.applied(), all));
+        });
+    }
+
+    /** The value to store, or null when the field does not accept it. */
+    private static String normalize(Field field, String value) {
+        return switch (field) {
+            case NOTES -> value;
+            case NAME -> {
+                String name = value.trim();
+                yield name.isEmpty() ? null : name;
+            }
+            case HOBBY -> Arrays.stream(VillagerData.HOBBIES)
+                .filter(hobby -> hobby.equalsIgnoreCase(value.trim()))
+                .findFirst()
+                .orElse(null);
+        };
+    }
+
+    private static void apply(VillagerEntity villager, VillagerData data, Field field, String value) {
+        switch (field) {
+            case NOTES -> data.setNotes(value);
+            case HOBBY -> data.setHobby(value);
+            case NAME -> {
+                data.setName(value);
+                villager.setAttached(Villagersreborn.VILLAGER_NAME, value);
+                villager.setCustomName(Text.literal(value));
+                VillageNameAllocator.claim(villager, value);
+            }
+        }
+    }
+}
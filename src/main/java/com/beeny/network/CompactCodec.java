@@ -0,0 +1,123 @@
+package com.beeny.network;
+
+import net.minecraft.network.PacketByteBuf;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Shared helpers for the mod's payloads. Signed values are zigzag encoded so small negatives stay small,
+ * ids that parse as UUIDs go out as 16 bytes, and repeated strings are sent once per payload through a
+ * {@link Dictionary}.
+ */
+public final class CompactCodec {
+    private static final int ID_EMPTY = 0;
+    private static final int ID_UUID = 1;
+    private static final int ID_STRING = 2;
+
+    private CompactCodec() {}
+
+    public static void writeSignedVarInt(PacketByteBuf buf, int value) {
+        buf.writeVarInt((value << 1) ^ (value >> 31));
+    }
+
+    public static int readSignedVarInt(PacketByteBuf buf) {
+        int encoded = buf.readVarInt();
+        return (encoded >>> 1) ^ -(encoded & 1);
+    }
+
+    public static void writeSignedVarLong(PacketByteBuf buf, long value) {
+        buf.writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    public static long readSignedVarLong(PacketByteBuf buf) {
+        long encoded = buf.readVarLong();
+        return (encoded >>> 1) ^ -(encoded & 1);
+    }
+
+    /** Writes a string id, as 16 bytes when it is a UUID. Generated ancestors have ids that are not. */
+    public static void writeId(PacketByteBuf buf, String id) {
+        if (id == null || id.isEmpty()) {
+            buf.writeByte(ID_EMPTY);
+            return;
+        }
+        UUID uuid = parseUuid(id);
+        if (uuid != null) {
+            buf.writeByte(ID_UUID);
+            buf.writeUuid(uuid);
+        } else {
+            buf.writeByte(ID_STRING);
+            buf.writeString(id);
+        }
+    }
+
+    public static String readId(PacketByteBuf buf) {
+        return switch (buf.readByte()) {
+            case ID_EMPTY -> "";
+            case ID_UUID -> buf.readUuid().toString();
+            case ID_STRING -> buf.readString();
+            default -> throw new IllegalArgumentException("Unknown id encoding");
+        };
+    }
+
+    private static UUID parseUuid(String id) {
+        // UUID.fromString accepts shortened forms, which would not survive the round trip
+        if (id.length() != 36) return null;
+        try {
+            UUID uuid = UUID.fromString(id);
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Strings repeated within one payload, such as relationship labels, professions and places. The first
+     * use writes the string, every later use only its index. Writer and reader must see the strings in the
+     * same order, so use a fresh dictionary for each payload on both sides, seeded with the same values.
+     */
+    public static final class Dictionary {
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        public Dictionary(List<String> seed) {
+            seed.forEach(this::add);
+        }
+
+        public Dictionary() {
+            this(List.of());
+        }
+
+        private void add(String value) {
+            indexes.put(value, values.size());
+            values.add(value);
+        }
+
+        public void write(PacketByteBuf buf, String value) {
+            Integer index = indexes.get(value);
+            if (index != null) {
+                buf.writeVarInt(index + 1);
+                return;
+            }
+            buf.writeVarInt(0);
+            buf.writeString(value);
+            add(value);
+        }
+
+        public String read(PacketByteBuf buf) {
+            int index = buf.readVarInt();
+            if (index == 0) {
+                String value = buf.readString();
+                add(value);
+                return value;
+            }
+            if (index > values.size()) {
+                throw new IllegalArgumentException("Dictionary index " + index + " out of range");
+            }
+            return values.get(index - 1);
+        }
+    }
+}
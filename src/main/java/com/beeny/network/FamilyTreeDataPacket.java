@@ -2,48 +2,56 @@ package com.beeny.network;
 
 import com.beeny.Villagersreborn;
 import com.beeny.data.VillagerData;
+import com.beeny.system.FamilyGraphIndex;
 import com.beeny.system.ServerVillagerManager;
 import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
-import net.minecraft.entity.Entity;
 import net.minecraft.entity.passive.VillagerEntity;
 import net.minecraft.network.RegistryByteBuf;
 import net.minecraft.network.codec.PacketCodec;
 import net.minecraft.network.packet.CustomPayload;
 import net.minecraft.server.network.ServerPlayerEntity;
-import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.Identifier;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
-public class FamilyTreeDataPacket implements CustomPayload {
+public class FamilyTreeDataPacket implements CustomPayload, ResponseEncoder.PreEncoded {
     public static final CustomPayload.Id<FamilyTreeDataPacket> ID = new CustomPayload.Id<>(Identifier.of(Villagersreborn.MOD_ID, "family_tree_data"));
-    public static final PacketCodec<RegistryByteBuf, FamilyTreeDataPacket> CODEC = PacketCodec.of(
+    private static final PacketCodec<RegistryByteBuf, FamilyTreeDataPacket> FIELDS_CODEC = PacketCodec.of(
         (value, buf) -> {
-            buf.writeLong(value.villagerId);
-            buf.writeInt(value.familyMembers.size());
+            buf.writeUuid(value.villagerId);
+            buf.writeBoolean(value.ancestorsFollow);
+            buf.writeVarInt(value.familyMembers.size());
+            CompactCodec.Dictionary strings = FamilyMemberData.newDictionary();
             for (FamilyMemberData member : value.familyMembers) {
-                member.toPacket(buf);
+                member.toPacket(buf, strings);
             }
         },
         buf -> {
-            long villagerId = buf.readLong();
-            int size = buf.readInt();
+            UUID villagerId = buf.readUuid();
+            boolean ancestorsFollow = buf.readBoolean();
+            int size = buf.readVarInt();
             List<FamilyMemberData> members = new ArrayList<>();
+            CompactCodec.Dictionary strings = FamilyMemberData.newDictionary();
             for (int i = 0; i < size; i++) {
-                members.add(FamilyMemberData.fromPacket(buf));
+                members.add(FamilyMemberData.fromPacket(buf, strings));
             }
-            return new FamilyTreeDataPacket(villagerId, members);
+            return new FamilyTreeDataPacket(villagerId, members, ancestorsFollow);
         }
     );
+    public static final PacketCodec<RegistryByteBuf, FamilyTreeDataPacket> CODEC = ResponseEncoder.preEncoded(FIELDS_CODEC);
 
-    private final long villagerId;
+    private final UUID villagerId;
     private final List<FamilyMemberData> familyMembers;
+    private final boolean ancestorsFollow;
+    private byte[] encoded;
 
-    public FamilyTreeDataPacket(long villagerId, List<FamilyMemberData> familyMembers) {
+    public FamilyTreeDataPacket(UUID villagerId, List<FamilyMemberData> familyMembers, boolean ancestorsFollow) {
         this.villagerId = villagerId;
         this.familyMembers = familyMembers;
+        this.ancestorsFollow = ancestorsFollow;
     }
 
     @Override
@@ -51,7 +59,7 @@ public class FamilyTreeDataPacket implements CustomPayload {
         return ID;
     }
     
-    public long getVillagerId() {
+    public UUID getVillagerId() {
         return villagerId;
     }
     
@@ -59,90 +67,98 @@ public class FamilyTreeDataPacket implements CustomPayload {
         return familyMembers;
     }
 
+    /** True when generated ancestors were requested and will arrive in an {@link AncestryDataPacket}. */
+    public boolean ancestorsFollow() {
+        return ancestorsFollow;
+    }
+
+    @Override
+    public byte[] getEncoded() {
+        return encoded;
+    }
+
+    @Override
+    public void setEncoded(byte[] encoded) {
+        this.encoded = encoded;
+    }
+
     public static void register() {
         PayloadTypeRegistry.playC2S().register(RequestPacket.ID, RequestPacket.CODEC);
         PayloadTypeRegistry.playS2C().register(ID, CODEC);
+        RequestThrottle.limit(RequestPacket.ID, 3, 1);
         ServerPlayNetworking.registerGlobalReceiver(RequestPacket.ID, (payload, context) -> {
-            // Send family tree data back to client
-            context.server().execute(() -> {
-                sendFamilyTreeData(context.player(), payload.getVillagerId());
-            });
+            // Send family tree data back to client; repeated clicks on the same villager share one reply
+            RequestThrottle.handle(RequestPacket.ID, context, payload.getVillagerId(),
+                player -> sendFamilyTreeData(player, payload.getVillagerId()));
         });
     }
 
-    public static void sendFamilyTreeData(ServerPlayerEntity player, long villagerId) {
+    public static void sendFamilyTreeData(ServerPlayerEntity player, UUID villagerId) {
+        VillagerEntity villager = ServerVillagerManager.getInstance().getLoadedVillager(villagerId);
+        VillagerData villagerData = villager != null ? villager.getAttached(Villagersreborn.VILLAGER_DATA) : null;
+        if (villagerData == null) {
+            VillagerNotLoadedPacket.send(player, villagerId);
+            return;
+        }
+        
+        long snapshotStart = System.nanoTime();
         List<FamilyMemberData> familyMembers = new ArrayList<>();
         
-        // Get the villager entity
-        ServerWorld world = (ServerWorld) player.getWorld();
-        Entity entity = world.getEntityById((int) villagerId);
+        // Add the current villager
+        familyMembers.add(createFamilyMemberData(villager, villagerData, "CURRENT"));
         
-        if (entity instanceof VillagerEntity villager) {
-            VillagerData villagerData = villager.getAttached(Villagersreborn.VILLAGER_DATA);
-            if (villagerData != null) {
-                // Add the current villager
-                familyMembers.add(createFamilyMemberData(villager, villagerData, "CURRENT"));
-                
-                // Add spouse if exists
-                if (!villagerData.getSpouseId().isEmpty()) {
-                    VillagerEntity spouse = ServerVillagerManager.getInstance().getVillager(
-                        java.util.UUID.fromString(villagerData.getSpouseId()));
-                    if (spouse != null) {
-                        VillagerData spouseData = spouse.getAttached(Villagersreborn.VILLAGER_DATA);
-                        if (spouseData != null) {
-                            familyMembers.add(createFamilyMemberData(spouse, spouseData, "SPOUSE"));
-                        }
-                    }
-                }
-                
-                // Add children
-                for (String childId : villagerData.getChildrenIds()) {
-                    VillagerEntity child = ServerVillagerManager.getInstance().getVillager(
-                        java.util.UUID.fromString(childId));
-                    if (child != null) {
-                        VillagerData childData = child.getAttached(Villagersreborn.VILLAGER_DATA);
-                        if (childData != null) {
-                            familyMembers.add(createFamilyMemberData(child, childData, "CHILD"));
-                        }
-                    }
+        // Add spouse if exists
+        if (!villagerData.getSpouseId().isEmpty()) {
+            VillagerEntity spouse = ServerVillagerManager.getInstance().getVillager(
+                UUID.fromString(villagerData.getSpouseId()));
+            if (spouse != null) {
+                VillagerData spouseData = spouse.getAttached(Villagersreborn.VILLAGER_DATA);
+                if (spouseData != null) {
+                    familyMembers.add(createFamilyMemberData(spouse, spouseData, "SPOUSE"));
                 }
-                
-                // Add parents (find villagers whose children include this villager)
-                for (VillagerEntity potentialParent : ServerVillagerManager.getInstance().getAllTrackedVillagers()) {
-                    if (potentialParent.getWorld() != world) continue;
-                    
-                    VillagerData parentData = potentialParent.getAttached(Villagersreborn.VILLAGER_DATA);
-                    if (parentData != null && parentData.getChildrenIds().contains(villager.getUuidAsString())) {
-                        familyMembers.add(createFamilyMemberData(potentialParent, parentData, "PARENT"));
-                    }
-                }
-                
-                // Add siblings (find villagers who share the same parents)
-                for (VillagerEntity potentialParent : ServerVillagerManager.getInstance().getAllTrackedVillagers()) {
-                    if (potentialParent.getWorld() != world) continue;
-                    
-                    VillagerData parentData = potentialParent.getAttached(Villagersreborn.VILLAGER_DATA);
-                    if (parentData != null &&
-                        parentData.getChildrenIds().contains(villager.getUuidAsString())) {
-                        // This is a parent, now find other children
-                        for (String siblingId : parentData.getChildrenIds()) {
-                            if (siblingId.equals(villager.getUuidAsString())) continue; // Skip self
-                            
-                            VillagerEntity sibling = ServerVillagerManager.getInstance().getVillager(
-                                java.util.UUID.fromString(siblingId));
-                            if (sibling != null) {
-                                VillagerData siblingData = sibling.getAttached(Villagersreborn.VILLAGER_DATA);
-                                if (siblingData != null) {
-                                    familyMembers.add(createFamilyMemberData(sibling, siblingData, "SIBLING"));
-                                }
-                            }
-                        }
-                    }
+            }
+        }
+        
+        // Add children
+        for (String childId : villagerData.getChildrenIds()) {
+            VillagerEntity child = ServerVillagerManager.getInstance().getVillager(
+                UUID.fromString(childId));
+            if (child != null) {
+                VillagerData childData = child.getAttached(Villagersreborn.VILLAGER_DATA);
+                if (childData != null) {
+                    familyMembers.add(createFamilyMemberData(child, childData, "CHILD"));
                 }
             }
         }
         
-        ServerPlayNetworking.send(player, new FamilyTreeDataPacket(villagerId, familyMembers));
+        // Parents and siblings are derived from the family graph instead of scanning every villager
+        String villagerUuid = villager.getUuidAsString();
+        for (String parentId : FamilyGraphIndex.getParents(villagerUuid)) {
+            addKnownMember(familyMembers, parentId, "PARENT");
+        }
+        for (String siblingId : FamilyGraphIndex.getSiblings(villagerUuid)) {
+            addKnownMember(familyMembers, siblingId, "SIBLING");
+        }
+        
+        // Villagers without known parents get generated ancestors, delivered separately once ready
+        boolean ancestorsFollow = FamilyGraphIndex.getParents(villagerUuid).isEmpty();
+        
+        // Members are immutable copies, so only this collection ran on the server thread
+        ResponseEncoder.send(player, new FamilyTreeDataPacket(villagerId, familyMembers, ancestorsFollow), CODEC, snapshotStart);
+        
+        if (ancestorsFollow) {
+            AncestryDataPacket.requestAncestors(player, villager, villagerId);
+        }
+    }
+    
+    private static void addKnownMember(List<FamilyMemberData> familyMembers, String uuid, String relationship) {
+        VillagerEntity member = ServerVillagerManager.getInstance().getVillager(UUID.fromString(uuid));
+        if (member != null) {
+            VillagerData memberData = member.getAttached(Villagersreborn.VILLAGER_DATA);
+            if (memberData != null) {
+                familyMembers.add(createFamilyMemberData(member, memberData, relationship));
+            }
+        }
     }
     
     private static FamilyMemberData createFamilyMemberData(VillagerEntity villager, VillagerData data, String relationship) {
@@ -166,6 +182,9 @@ public class FamilyTreeDataPacket implements CustomPayload {
     }
 
     public static class FamilyMemberData {
+        // Every tree repeats these, so they cost a byte each without ever being spelled out
+        private static final List<String> RELATIONSHIPS = List.of("CURRENT", "SPOUSE", "CHILD", "PARENT", "SIBLING", "ANCESTOR", "");
+
         private final String name;
         private final String uuid;
         private final String relationship;
@@ -198,35 +217,41 @@ public class FamilyTreeDataPacket implements CustomPayload {
             this.notes = notes;
         }
 
-        public void toPacket(RegistryByteBuf buf) {
-            buf.writeString(name);
-            buf.writeString(uuid);
-            buf.writeString(relationship);
-            buf.writeLong(birthTime);
-            buf.writeLong(deathTime);
+        /** Strings shared by the members of one payload; write and read with a fresh one each time. */
+        public static CompactCodec.Dictionary newDictionary() {
+            return new CompactCodec.Dictionary(RELATIONSHIPS);
+        }
+
+        public void toPacket(RegistryByteBuf buf, CompactCodec.Dictionary strings) {
+            // Spouses and children appear both as members and by name, so names go through the dictionary too
+            strings.write(buf, name);
+            CompactCodec.writeId(buf, uuid);
+            strings.write(buf, relationship);
+            CompactCodec.writeSignedVarLong(buf, birthTime);
+            CompactCodec.writeSignedVarLong(buf, deathTime);
             buf.writeBoolean(isAlive);
-            buf.writeString(personality);
-            buf.writeInt(happiness);
-            buf.writeString(profession);
-            buf.writeString(spouseName);
-            buf.writeInt(childrenCount);
-            buf.writeString(birthPlace);
+            strings.write(buf, personality);
+            CompactCodec.writeSignedVarInt(buf, happiness);
+            strings.write(buf, profession);
+            strings.write(buf, spouseName);
+            buf.writeVarInt(childrenCount);
+            strings.write(buf, birthPlace);
             buf.writeString(notes);
         }
 
-        public static FamilyMemberData fromPacket(RegistryByteBuf buf) {
-            String name = buf.readString();
-            String uuid = buf.readString();
-            String relationship = buf.readString();
-            long birthTime = buf.readLong();
-            long deathTime = buf.readLong();
+        public static FamilyMemberData fromPacket(RegistryByteBuf buf, CompactCodec.Dictionary strings) {
+            String name = strings.read(buf);
+            String uuid = CompactCodec.readId(buf);
+            String relationship = strings.read(buf);
+            long birthTime = CompactCodec.readSignedVarLong(buf);
+            long deathTime = CompactCodec.readSignedVarLong(buf);
             boolean isAlive = buf.readBoolean();
-            String personality = buf.readString();
-            int happiness = buf.readInt();
-            String profession = buf.readString();
-            String spouseName = buf.readString();
-            int childrenCount = buf.readInt();
-            String birthPlace = buf.readString();
+            String personality = strings.read(buf);
+            int happiness = CompactCodec.readSignedVarInt(buf);
+            String profession = strings.read(buf);
+            String spouseName = strings.read(buf);
+            int childrenCount = buf.readVarInt();
+            String birthPlace = strings.read(buf);
             String notes = buf.readString();
 
             return new FamilyMemberData(name, uuid, relationship, birthTime, deathTime, isAlive,
@@ -252,13 +277,13 @@ public class FamilyTreeDataPacket implements CustomPayload {
     public static class RequestPacket implements CustomPayload {
         public static final CustomPayload.Id<RequestPacket> ID = new CustomPayload.Id<>(Identifier.of(Villagersreborn.MOD_ID, "family_tree_request"));
         public static final PacketCodec<RegistryByteBuf, RequestPacket> CODEC = PacketCodec.of(
-            (value, buf) -> buf.writeLong(value.villagerId),
-            buf -> new RequestPacket(buf.readLong())
+            (value, buf) -> buf.writeUuid(value.villagerId),
+            buf -> new RequestPacket(buf.readUuid())
         );
 
-        private final long villagerId;
+        private final UUID villagerId;
 
-        public RequestPacket(long villagerId) {
+        public RequestPacket(UUID villagerId) {
             this.villagerId = villagerId;
         }
 
@@ -267,7 +292,7 @@ public class FamilyTreeDataPacket implements CustomPayload {
             return ID;
         }
 
-        public long getVillagerId() {
+        public UUID getVillagerId() {
             return villagerId;
         }
     }
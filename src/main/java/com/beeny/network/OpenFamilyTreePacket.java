@@ -7,13 +7,15 @@ import net.minecraft.network.codec.PacketCodec;
 import net.minecraft.network.packet.CustomPayload;
 import net.minecraft.util.Identifier;
 
-public record OpenFamilyTreePacket(int villagerEntityId) implements CustomPayload {
+import java.util.UUID;
+
+public record OpenFamilyTreePacket(UUID villagerId) implements CustomPayload {
     public static final Id<OpenFamilyTreePacket> ID = new Id<>(
         Identifier.of("villagersreborn", "open_family_tree"));
     
     public static final PacketCodec<RegistryByteBuf, OpenFamilyTreePacket> CODEC = PacketCodec.of(
-        (value, buf) -> buf.writeInt(value.villagerEntityId),
-        buf -> new OpenFamilyTreePacket(buf.readInt())
+        (value, buf) -> buf.writeUuid(value.villagerId),
+        buf -> new OpenFamilyTreePacket(buf.readUuid())
     );
     
     @Override
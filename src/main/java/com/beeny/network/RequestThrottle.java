@@ -0,0 +1,141 @@
+package com.beeny.network;
+
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.util.Identifier;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Per-player token buckets for client requests, one per payload type. Checks run on the network thread, so a
+ * player spamming requests never gets work queued on the server thread. A request can also carry a coalescing
+ * key: while an equal request from the same player is still waiting for the server thread, the new one is
+ * dropped, since it would get the same answer.
+ */
+public class RequestThrottle {
+    private record Limit(int capacity, double tokensPerNano) {}
+
+    private static final class Bucket {
+        private double tokens;
+        private long lastRefill;
+        private Object inFlight;
+
+        private Bucket(int capacity) {
+            this.tokens = capacity;
+            this.lastRefill = System.nanoTime();
+        }
+    }
+
+    public static final class Stats {
+        private final LongAdder accepted = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final LongAdder coalesced = new LongAdder();
+
+        public long getAccepted() { return accepted.sum(); }
+        public long getDropped() { return dropped.sum(); }
+        public long getCoalesced() { return coalesced.sum(); }
+    }
+
+    private static final Map<Identifier, Limit> LIMITS = new ConcurrentHashMap<>();
+    private static final Map<UUID, Map<Identifier, Bucket>> BUCKETS = new ConcurrentHashMap<>();
+    private static final Map<String, Stats> STATS = new ConcurrentSkipListMap<>();
+
+    public static void register() {
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> BUCKETS.remove(handler.getPlayer().getUuid()));
+    }
+
+    /** Allows bursts of {@code capacity} requests, refilled at {@code perSecond}. Unlimited types are not throttled. */
+    public static void limit(CustomPayload.Id<?> id, int capacity, double perSecond) {
+        LIMITS.put(id.id(), new Limit(capacity, perSecond / 1_000_000_000.0));
+    }
+
+    /** Takes a token for the request, counting it as dropped when there is none. Safe on any thread. */
+    public static boolean tryAcquire(ServerPlayerEntity player, CustomPayload.Id<?> id) {
+        return acquire(player, id, null);
+    }
+
+    /**
+     * Throttles and coalesces the request, then runs the handler on the server thread. Requests with a null
+     * key are only throttled.
+     */
+    public static void handle(CustomPayload.Id<?> id, ServerPlayNetworking.Context context, Object coalesceKey,
+                              Consumer<ServerPlayerEntity> handler) {
+        ServerPlayerEntity player = context.player();
+        if (!acquire(player, id, coalesceKey)) return;
+
+        context.server().execute(() -> {
+            try {
+                handler.accept(player);
+            } finally {
+                if (coalesceKey != null) {
+                    finish(player.getUuid(), id, coalesceKey);
+                }
+            }
+        });
+    }
+
+    private static boolean acquire(ServerPlayerEntity player, CustomPayload.Id<?> id, Object coalesceKey) {
+        Stats stats = getStats(id);
+        Limit limit = LIMITS.get(id.id());
+        if (limit == null) {
+            stats.accepted.increment();
+            return true;
+        }
+
+        Bucket bucket = BUCKETS.computeIfAbsent(player.getUuid(), key -> new ConcurrentHashMap<>())
+            .computeIfAbsent(id.id(), key -> new Bucket(limit.capacity()));
+        synchronized (bucket) {
+            if (coalesceKey != null && coalesceKey.equals(bucket.inFlight)) {
+                stats.coalesced.increment();
+                return false;
+            }
+
+            long now = System.nanoTime();
+            bucket.tokens = Math.min(limit.capacity(), bucket.tokens + (now - bucket.lastRefill) * limit.tokensPerNano());
+            bucket.lastRefill = now;
+            if (bucket.tokens < 1) {
+                stats.dropped.increment();
+                return false;
+            }
+
+            bucket.tokens--;
+            if (coalesceKey != null) {
+                bucket.inFlight = coalesceKey;
+            }
+        }
+        stats.accepted.increment();
+        return true;
+    }
+
+    private static void finish(UUID playerId, CustomPayload.Id<?> id, Object coalesceKey) {
+        Map<Identifier, Bucket> buckets = BUCKETS.get(playerId);
+        Bucket bucket = buckets != null ? buckets.get(id.id()) : null;
+        if (bucket == null) return;
+        synchronized (bucket) {
+            if (Objects.equals(bucket.inFlight, coalesceKey)) {
+                bucket.inFlight = null;
+            }
+        }
+    }
+
+    private static Stats getStats(CustomPayload.Id<?> id) {
+        return STATS.computeIfAbsent(id.id().toString(), key -> new Stats());
+    }
+
+    /** Request counts per payload id, sorted by id. */
+    public static Map<String, Stats> getStats() {
+        return STATS;
+    }
+
+    public static void resetStats() {
+        STATS.clear();
+    }
+}
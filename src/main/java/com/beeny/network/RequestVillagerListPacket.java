@@ -2,7 +2,9 @@ package com.beeny.network;
 
 import com.beeny.Villagersreborn;
 import com.beeny.data.VillagerData;
+import com.beeny.system.JournalSubscriptions;
 import com.beeny.system.ServerVillagerManager;
+import com.beeny.system.VillagerJournalIndex;
 import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.minecraft.entity.passive.VillagerEntity;
@@ -12,13 +14,45 @@ import net.minecraft.network.packet.CustomPayload;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.Identifier;
+import net.minecraft.util.math.MathHelper;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
+/**
+ * Asks for one page of the villager journal. The client sends the index id and version it last saw for the
+ * page, so the reply only carries villagers that were added, removed or changed since then.
+ */
 public class RequestVillagerListPacket implements CustomPayload {
     public static final CustomPayload.Id<RequestVillagerListPacket> ID = new CustomPayload.Id<>(Identifier.of(Villagersreborn.MOD_ID, "request_villager_list"));
-    public static final PacketCodec<RegistryByteBuf, RequestVillagerListPacket> CODEC = PacketCodec.of((value, buf) -> {}, buf -> new RequestVillagerListPacket());
+    public static final PacketCodec<RegistryByteBuf, RequestVillagerListPacket> CODEC = PacketCodec.of(
+        (value, buf) -> {
+            buf.writeVarInt(value.page);
+            buf.writeVarInt(value.pageSize);
+            buf.writeLong(value.indexId);
+            buf.writeVarLong(value.sinceVersion);
+        },
+        buf -> new RequestVillagerListPacket(buf.readVarInt(), buf.readVarInt(), buf.readLong(), buf.readVarLong())
+    );
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final int page;
+    private final int pageSize;
+    private final long indexId;
+    private final long sinceVersion;
+
+    public RequestVillagerListPacket(int page, int pageSize, long indexId, long sinceVersion) {
+        this.page = page;
+        this.pageSize = pageSize;
+        this.indexId = indexId;
+        this.sinceVersion = sinceVersion;
+    }
+
+    public int getPage() { return page; }
+    public int getPageSize() { return pageSize; }
+    public long getIndexId() { return indexId; }
+    public long getSinceVersion() { return sinceVersion; }
 
     @Override
     public CustomPayload.Id<? extends CustomPayload> getId() {
@@ -28,25 +62,31 @@ public class RequestVillagerListPacket implements CustomPayload {
     public static void register() {
         PayloadTypeRegistry.playC2S().register(ID, CODEC);
         PayloadTypeRegistry.playS2C().register(ResponsePacket.ID, ResponsePacket.CODEC);
+        PayloadTypeRegistry.playC2S().register(SubscribePacket.ID, SubscribePacket.CODEC);
+        PayloadTypeRegistry.playC2S().register(UnsubscribePacket.ID, UnsubscribePacket.CODEC);
+        // Enough to flip through pages quickly
+        RequestThrottle.limit(ID, 5, 4);
         ServerPlayNetworking.registerGlobalReceiver(ID, (payload, context) -> {
-            // Send villager list back to client
-            context.server().execute(() -> {
-                sendVillagerList(context.player());
-            });
+            // Send the requested page back to the client; a repeat of a request still waiting gets that reply
+            List<Object> key = List.of(payload.getPage(), payload.getPageSize(), payload.getIndexId(), payload.getSinceVersion());
+            RequestThrottle.handle(ID, context, key, player -> sendVillagerList(player, payload));
+        });
+        // Not throttled: each is one map write, and a dropped subscribe would leave the open page without live updates
+        ServerPlayNetworking.registerGlobalReceiver(SubscribePacket.ID, (payload, context) -> {
+            context.server().execute(() -> JournalSubscriptions.subscribe(context.player(),
+                Math.max(payload.getPage(), 0), MathHelper.clamp(payload.getPageSize(), 1, MAX_PAGE_SIZE), payload.getIndexId(), payload.getVersion()));
         });
+        ServerPlayNetworking.registerGlobalReceiver(UnsubscribePacket.ID, (payload, context) -> {
+            context.server().execute(() -> JournalSubscriptions.unsubscribe(context.player().getUuid()));
+        });
+        JournalSubscriptions.register((player, page) ->
+            ResponseEncoder.send(player, toResponse(page, true), ResponsePacket.CODEC, System.nanoTime()));
     }
 
-    public static void sendVillagerList(ServerPlayerEntity player) {
-        List<VillagerDataPacket> villagerDataList = new ArrayList<>();
-        
-        // Debug logging
-        int totalTrackedVillagers = ServerVillagerManager.getInstance().getTrackedVillagerCount();
-        Villagersreborn.LOGGER.info("[RequestVillagerListPacket] Player {} requested villager list. Total tracked villagers: {}", 
-            player.getName().getString(), totalTrackedVillagers);
-        
+    public static void sendVillagerList(ServerPlayerEntity player, RequestVillagerListPacket request) {
         // If we have no tracked villagers, try a manual scan of the world first
-        if (totalTrackedVillagers == 0) {
-            Villagersreborn.LOGGER.info("[RequestVillagerListPacket] No tracked villagers found, performing manual world scan...");
+        if (ServerVillagerManager.getInstance().getTrackedVillagerCount() == 0) {
+            Villagersreborn.LOGGER.debug("[RequestVillagerListPacket] No tracked villagers found, performing manual world scan...");
             ServerWorld world = (ServerWorld) player.getWorld();
             int scannedVillagers = 0;
             
@@ -58,54 +98,47 @@ public class RequestVillagerListPacket implements CustomPayload {
                         // Create VillagerData if it doesn't exist
                         data = new VillagerData();
                         villager.setAttached(Villagersreborn.VILLAGER_DATA, data);
-                        Villagersreborn.LOGGER.info("[RequestVillagerListPacket] Created VillagerData for villager at {}", villager.getBlockPos());
+                        Villagersreborn.LOGGER.debug("[RequestVillagerListPacket] Created VillagerData for villager at {}", villager.getBlockPos());
                     }
                     // Track the villager
                     ServerVillagerManager.getInstance().trackVillager(villager);
                 }
             }
             
-            Villagersreborn.LOGGER.info("[RequestVillagerListPacket] Manual scan complete. Found {} villagers in world.", scannedVillagers);
+            Villagersreborn.LOGGER.debug("[RequestVillagerListPacket] Manual scan complete. Found {} villagers in world.", scannedVillagers);
         }
         
-        // Get all tracked villagers from the ServerVillagerManager
-        int sameWorldCount = 0;
-        int withDataCount = 0;
-        for (VillagerEntity villager : ServerVillagerManager.getInstance().getAllTrackedVillagers()) {
-            // Only include villagers in the same world as the player
-            if (villager.getWorld() != player.getWorld()) continue;
-            sameWorldCount++;
-            
-            VillagerData data = villager.getAttached(Villagersreborn.VILLAGER_DATA);
-            if (data != null) {
-                withDataCount++;
-                villagerDataList.add(new VillagerDataPacket(
-                    villager.getId(),
-                    data.getName(),
-                    villager.getBlockPos(),
-                    data.getProfessionHistory().isEmpty() ? "None" : data.getProfessionHistory().get(0),
-                    data.getHappiness()
-                ));
-                Villagersreborn.LOGGER.debug("[RequestVillagerListPacket] Including villager: {} at {}", 
-                    data.getName(), villager.getBlockPos());
-            }
-        }
+        long snapshotStart = System.nanoTime();
+        int pageSize = MathHelper.clamp(request.getPageSize(), 1, MAX_PAGE_SIZE);
+        int page = Math.max(request.getPage(), 0);
+        VillagerJournalIndex.Page journalPage = VillagerJournalIndex.get((ServerWorld) player.getWorld())
+            .page(page, pageSize, request.getIndexId(), request.getSinceVersion());
         
-        Villagersreborn.LOGGER.info("[RequestVillagerListPacket] Found {} villagers in same world, {} with data. Sending {} villagers to client.", 
-            sameWorldCount, withDataCount, villagerDataList.size());
+        Villagersreborn.LOGGER.debug("[RequestVillagerListPacket] Page {} for {}: {} of {} villagers changed since version {}",
+            page, player.getName().getString(), journalPage.rows().size(), journalPage.total(), request.getSinceVersion());
         
-        ServerPlayNetworking.send(player, new ResponsePacket(villagerDataList));
+        ResponseEncoder.send(player, toResponse(journalPage, false), ResponsePacket.CODEC, snapshotStart);
+    }
+    
+    // Copies the rows, which the index keeps updating, into immutable packet rows
+    private static ResponsePacket toResponse(VillagerJournalIndex.Page page, boolean update) {
+        List<VillagerDataPacket> rows = new ArrayList<>(page.rows().size());
+        for (VillagerJournalIndex.Row row : page.rows()) {
+            rows.add(new VillagerDataPacket(row.uuid, row.name, row.pos, row.profession, row.happiness));
+        }
+        return new ResponsePacket(page.indexId(), page.version(), page.total(), page.page(), page.pageSize(),
+            page.reset(), update, page.ids(), rows, page.removed());
     }
 
     public static class VillagerDataPacket {
-        private final int entityId;
+        private final UUID uuid;
         private final String name;
         private final int x, y, z;
         private final String profession;
         private final int happiness;
 
-        public VillagerDataPacket(int entityId, String name, int x, int y, int z, String profession, int happiness) {
-            this.entityId = entityId;
+        public VillagerDataPacket(UUID uuid, String name, int x, int y, int z, String profession, int happiness) {
+            this.uuid = uuid;
             this.name = name;
             this.x = x;
             this.y = y;
@@ -114,34 +147,34 @@ public class RequestVillagerListPacket implements CustomPayload {
             this.happiness = happiness;
         }
         
-        public VillagerDataPacket(int entityId, String name, net.minecraft.util.math.BlockPos pos, String profession, int happiness) {
-            this(entityId, name, pos.getX(), pos.getY(), pos.getZ(), profession, happiness);
+        public VillagerDataPacket(UUID uuid, String name, net.minecraft.util.math.BlockPos pos, String profession, int happiness) {
+            this(uuid, name, pos.getX(), pos.getY(), pos.getZ(), profession, happiness);
         }
 
-        public void toPacket(RegistryByteBuf buf) {
-            buf.writeInt(entityId);
+        public void toPacket(RegistryByteBuf buf, CompactCodec.Dictionary professions) {
+            buf.writeUuid(uuid);
             buf.writeString(name);
-            buf.writeInt(x);
-            buf.writeInt(y);
-            buf.writeInt(z);
-            buf.writeString(profession);
-            buf.writeInt(happiness);
+            CompactCodec.writeSignedVarInt(buf, x);
+            CompactCodec.writeSignedVarInt(buf, y);
+            CompactCodec.writeSignedVarInt(buf, z);
+            professions.write(buf, profession);
+            CompactCodec.writeSignedVarInt(buf, happiness);
         }
 
-        public static VillagerDataPacket fromPacket(RegistryByteBuf buf) {
-            int entityId = buf.readInt();
+        public static VillagerDataPacket fromPacket(RegistryByteBuf buf, CompactCodec.Dictionary professions) {
+            UUID uuid = buf.readUuid();
             String name = buf.readString();
-            int x = buf.readInt();
-            int y = buf.readInt();
-            int z = buf.readInt();
-            String profession = buf.readString();
-            int happiness = buf.readInt();
+            int x = CompactCodec.readSignedVarInt(buf);
+            int y = CompactCodec.readSignedVarInt(buf);
+            int z = CompactCodec.readSignedVarInt(buf);
+            String profession = professions.read(buf);
+            int happiness = CompactCodec.readSignedVarInt(buf);
             
-            return new VillagerDataPacket(entityId, name, x, y, z, profession, happiness);
+            return new VillagerDataPacket(uuid, name, x, y, z, profession, happiness);
         }
 
         // Getters
-        public int getEntityId() { return entityId; }
+        public UUID getUuid() { return uuid; }
         public String getName() { return name; }
         public int getX() { return x; }
         public int getY() { return y; }
@@ -150,29 +183,136 @@ public class RequestVillagerListPacket implements CustomPayload {
         public int getHappiness() { return happiness; }
     }
 
-    public static class ResponsePacket implements CustomPayload {
+    public static class ResponsePacket implements CustomPayload, ResponseEncoder.PreEncoded {
         public static final CustomPayload.Id<ResponsePacket> ID = new CustomPayload.Id<>(Identifier.of(Villagersreborn.MOD_ID, "villager_list_response"));
-        public static final PacketCodec<RegistryByteBuf, ResponsePacket> CODEC = PacketCodec.of(
+        private static final PacketCodec<RegistryByteBuf, ResponsePacket> FIELDS_CODEC = PacketCodec.of(
             (value, buf) -> {
-                buf.writeInt(value.villagerDataList.size());
+                buf.writeLong(value.indexId);
+                buf.writeVarLong(value.version);
+                buf.writeVarInt(value.total);
+                buf.writeVarInt(value.page);
+                buf.writeVarInt(value.pageSize);
+                buf.writeBoolean(value.reset);
+                buf.writeBoolean(value.update);
+                buf.writeBoolean(value.pageIds != null);
+                if (value.pageIds != null) {
+                    buf.writeVarInt(value.pageIds.size());
+                    value.pageIds.forEach(buf::writeUuid);
+                }
+                buf.writeVarInt(value.villagerDataList.size());
+                CompactCodec.Dictionary professions = new CompactCodec.Dictionary();
                 for (VillagerDataPacket villagerData : value.villagerDataList) {
-                    villagerData.toPacket(buf);
+                    villagerData.toPacket(buf, professions);
                 }
+                buf.writeVarInt(value.removed.size());
+                value.removed.forEach(buf::writeUuid);
             },
             buf -> {
-                int size = buf.readInt();
-                List<VillagerDataPacket> list = new ArrayList<>();
+                long indexId = buf.readLong();
+                long version = buf.readVarLong();
+                int total = buf.readVarInt();
+                int page = buf.readVarInt();
+                int pageSize = buf.readVarInt();
+                boolean reset = buf.readBoolean();
+                boolean update = buf.readBoolean();
+                List<UUID> pageIds = null;
+                if (buf.readBoolean()) {
+                    int count = buf.readVarInt();
+                    pageIds = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        pageIds.add(buf.readUuid());
+                    }
+                }
+                int size = buf.readVarInt();
+                List<VillagerDataPacket> list = new ArrayList<>(size);
+                CompactCodec.Dictionary professions = new CompactCodec.Dictionary();
                 for (int i = 0; i < size; i++) {
-                    list.add(VillagerDataPacket.fromPacket(buf));
+                    list.add(VillagerDataPacket.fromPacket(buf, professions));
+                }
+                int removedCount = buf.readVarInt();
+                List<UUID> removed = new ArrayList<>(removedCount);
+                for (int i = 0; i < removedCount; i++) {
+                    removed.add(buf.readUuid());
                 }
-                return new ResponsePacket(list);
+                return new ResponsePacket(indexId, version, total, page, pageSize, reset, update, pageIds, list, removed);
             }
         );
+        public static final PacketCodec<RegistryByteBuf, ResponsePacket> CODEC = ResponseEncoder.preEncoded(FIELDS_CODEC);
 
+        private final long indexId;
+        private final long version;
+        private final int total;
+        private final int page;
+        private final int pageSize;
+        private final boolean reset;
+        private final boolean update;
+        private final List<UUID> pageIds;
         private final List<VillagerDataPacket> villagerDataList;
+        private final List<UUID> removed;
+        private byte[] encoded;
 
-        public ResponsePacket(List<VillagerDataPacket> villagerDataList) {
+        public ResponsePacket(long indexId, long version, int total, int page, int pageSize, boolean reset, boolean update,
+                              List<UUID> pageIds, List<VillagerDataPacket> villagerDataList, List<UUID> removed) {
+            this.indexId = indexId;
+            this.version = version;
+            this.total = total;
+            this.page = page;
+            this.pageSize = pageSize;
+            this.reset = reset;
+            this.update = update;
+            this.pageIds = pageIds;
             this.villagerDataList = villagerDataList;
+            this.removed = removed;
+        }
+
+        @Override
+        public CustomPayload.Id<? extends CustomPayload> getId() {
+            return ID;
+        }
+
+        public long getIndexId() { return indexId; }
+        public long getVersion() { return version; }
+        public int getTotal() { return total; }
+        public int getPage() { return page; }
+        public int getPageSize() { return pageSize; }
+        @Override
+        public byte[] getEncoded() { return encoded; }
+        @Override
+        public void setEncoded(byte[] encoded) { this.encoded = encoded; }
+
+        public boolean isReset() { return reset; }
+        /** True for pushes to a subscribed journal, false for replies to a request. */
+        public boolean isUpdate() { return update; }
+        /** The page's villagers in order, or null when the membership is unchanged since the requested version. */
+        public List<UUID> getPageIds() { return pageIds; }
+        /** Only the villagers on the page that changed since the requested version. */
+        public List<VillagerDataPacket> getVillagerDataList() { return villagerDataList; }
+        public List<UUID> getRemoved() { return removed; }
+    }
+
+    /** Sent while a journal screen shows a page, so the server pushes that page's changes. */
+    public static class SubscribePacket implements CustomPayload {
+        public static final CustomPayload.Id<SubscribePacket> ID = new CustomPayload.Id<>(Identifier.of(Villagersreborn.MOD_ID, "villager_list_subscribe"));
+        public static final PacketCodec<RegistryByteBuf, SubscribePacket> CODEC = PacketCodec.of(
+            (value, buf) -> {
+                buf.writeVarInt(value.page);
+                buf.writeVarInt(value.pageSize);
+                buf.writeLong(value.indexId);
+                buf.writeVarLong(value.version);
+            },
+            buf -> new SubscribePacket(buf.readVarInt(), buf.readVarInt(), buf.readLong(), buf.readVarLong())
+        );
+
+        private final int page;
+        private final int pageSize;
+        private final long indexId;
+        private final long version;
+
+        public SubscribePacket(int page, int pageSize, long indexId, long version) {
+            this.page = page;
+            this.pageSize = pageSize;
+            this.indexId = indexId;
+            this.version = version;
         }
 
         @Override
@@ -180,8 +320,20 @@ public class RequestVillagerListPacket implements CustomPayload {
             return ID;
         }
 
-        public List<VillagerDataPacket> getVillagerDataList() {
-            return villagerDataList;
+        public int getPage() { return page; }
+        public int getPageSize() { return pageSize; }
+        public long getIndexId() { return indexId; }
+        public long getVersion() { return version; }
+    }
+
+    /** Sent when the journal screen closes. */
+    public static class UnsubscribePacket implements CustomPayload {
+        public static final CustomPayload.Id<UnsubscribePacket> ID = new CustomPayload.Id<>(Identifier.of(Villagersreborn.MOD_ID, "villager_list_unsubscribe"));
+        public static final PacketCodec<RegistryByteBuf, UnsubscribePacket> CODEC = PacketCodec.of((value, buf) -> {}, buf -> new UnsubscribePacket());
+
+        @Override
+        public CustomPayload.Id<? extends CustomPayload> getId() {
+            return ID;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,124 @@
+package com.beeny.network;
+
+import com.beeny.Villagersreborn;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Sends large responses in two steps: the caller builds an immutable snapshot on the server thread, a worker
+ * encodes it to bytes, and the send is scheduled back on the server thread. The payload's codec then only
+ * copies the finished bytes, so neither the server thread nor the network thread pays for the encoding.
+ * One worker keeps responses to the same player in the order they were requested.
+ */
+public class ResponseEncoder {
+    private static final ExecutorService WORKER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "VillagersReborn-Encoder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final Map<String, Timing> TIMINGS = new ConcurrentSkipListMap<>();
+
+    /** Implemented by payloads that can carry their bytes encoded ahead of the send. */
+    public interface PreEncoded {
+        byte[] getEncoded();
+
+        void setEncoded(byte[] encoded);
+    }
+
+    /** Wraps a payload codec so bytes produced by {@link #send} are written as they are. */
+    public static <P extends CustomPayload & PreEncoded> PacketCodec<RegistryByteBuf, P> preEncoded(PacketCodec<RegistryByteBuf, P> codec) {
+        return PacketCodec.of(
+            (value, buf) -> {
+                byte[] encoded = value.getEncoded();
+                if (encoded != null) {
+                    buf.writeBytes(encoded);
+                } else {
+                    codec.encode(buf, value);
+                }
+            },
+            codec::decode
+        );
+    }
+
+    public static final class Timing {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder snapshotNanos = new LongAdder();
+        private final LongAdder encodeNanos = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAccumulator maxSnapshotNanos = new LongAccumulator(Math::max, 0);
+        private final LongAccumulator maxEncodeNanos = new LongAccumulator(Math::max, 0);
+
+        public long getCount() { return count.sum(); }
+        public long getSnapshotNanos() { return snapshotNanos.sum(); }
+        public long getEncodeNanos() { return encodeNanos.sum(); }
+        public long getBytes() { return bytes.sum(); }
+        public long getMaxSnapshotNanos() { return maxSnapshotNanos.get(); }
+        public long getMaxEncodeNanos() { return maxEncodeNanos.get(); }
+    }
+
+    /**
+     * Must be called on the server thread with a payload that is already a snapshot: it must not share mutable
+     * state with the world. {@code snapshotStart} is when the caller started building it, from {@link System#nanoTime}.
+     */
+    public static <P extends CustomPayload & PreEncoded> void send(ServerPlayerEntity player, P payload,
+                                                                  PacketCodec<RegistryByteBuf, P> codec, long snapshotStart) {
+        MinecraftServer server = player.getServer();
+        if (server == null) return;
+
+        Timing timing = TIMINGS.computeIfAbsent(payload.getId().id().toString(), key -> new Timing());
+        long snapshotNanos = System.nanoTime() - snapshotStart;
+        timing.snapshotNanos.add(snapshotNanos);
+        timing.maxSnapshotNanos.accumulate(snapshotNanos);
+
+        UUID playerId = player.getUuid();
+        WORKER.execute(() -> {
+            long encodeStart = System.nanoTime();
+            RegistryByteBuf buf = new RegistryByteBuf(Unpooled.buffer(), server.getRegistryManager());
+            try {
+                codec.encode(buf, payload);
+                payload.setEncoded(ByteBufUtil.getBytes(buf));
+            } catch (RuntimeException e) {
+                Villagersreborn.LOGGER.error("Failed to encode {}", payload.getId().id(), e);
+                return;
+            } finally {
+                buf.release();
+            }
+            long encodeNanos = System.nanoTime() - encodeStart;
+            timing.encodeNanos.add(encodeNanos);
+            timing.maxEncodeNanos.accumulate(encodeNanos);
+            timing.bytes.add(payload.getEncoded().length);
+            timing.count.increment();
+
+            server.execute(() -> {
+                ServerPlayerEntity target = server.getPlayerManager().getPlayer(playerId);
+                if (target != null) {
+                    ServerPlayNetworking.send(target, payload);
+                }
+            });
+        });
+    }
+
+    /** Timings per payload id, sorted by id. */
+    public static Map<String, Timing> getTimings() {
+        return TIMINGS;
+    }
+
+    public static void resetTimings() {
+        TIMINGS.clear();
+    }
+}
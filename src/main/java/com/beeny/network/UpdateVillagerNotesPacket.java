@@ -4,9 +4,9 @@ import com.beeny.Villagersreborn;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.beeny.data.VillagerData;
+import com.beeny.system.ServerVillagerManager;
 import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
-import net.minecraft.entity.Entity;
 import net.minecraft.entity.passive.VillagerEntity;
 import net.minecraft.network.RegistryByteBuf;
 import net.minecraft.network.codec.PacketCodec;
@@ -15,7 +15,9 @@ import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.text.Text;
 import net.minecraft.util.Identifier;
 
-public record UpdateVillagerNotesPacket(int villagerId, String notes) implements CustomPayload {
+import java.util.UUID;
+
+public record UpdateVillagerNotesPacket(UUID villagerId, String notes) implements CustomPayload {
     private static final Logger LOGGER = LoggerFactory.getLogger(UpdateVillagerNotesPacket.class);
     
     public static final Id<UpdateVillagerNotesPacket> ID = new Id<>(
@@ -23,12 +25,12 @@ public record UpdateVillagerNotesPacket(int villagerId, String notes) implements
     
     public static final PacketCodec<RegistryByteBuf, UpdateVillagerNotesPacket> CODEC = PacketCodec.of(
         (value, buf) -> {
-            buf.writeInt(value.villagerId);
+            buf.writeUuid(value.villagerId);
             String notesToWrite = value.notes != null ? value.notes : "";
             buf.writeString(notesToWrite, 500);
         },
         buf -> {
-            int villagerId = buf.readInt();
+            UUID villagerId = buf.readUuid();
             String notes = buf.readString(500);
             String safeNotes = notes != null && !notes.isEmpty() ? notes : "";
             return new UpdateVillagerNotesPacket(villagerId, safeNotes);
@@ -42,32 +44,25 @@ public record UpdateVillagerNotesPacket(int villagerId, String notes) implements
     
     public static void register() {
         PayloadTypeRegistry.playC2S().register(ID, CODEC);
+        RequestThrottle.limit(ID, 3, 1);
         
         ServerPlayNetworking.registerGlobalReceiver(ID, (payload, context) -> {
-            ServerPlayerEntity player = context.player();
-            
-            context.server().execute(() -> {
-                
-                if (payload.villagerId() <= 0) {
-                    player.sendMessage(Text.literal("§cInvalid villager ID!"), false);
-                    return;
-                }
-                
+            RequestThrottle.handle(ID, context, null, player -> {
                 
                 if (player == null) {
                     LOGGER.warn("Player is null in UpdateVillagerNotesPacket");
                     return;
                 }
                 
-                Entity entity = player.getWorld().getEntityById(payload.villagerId());
-                
-                
-                if (!(entity instanceof VillagerEntity)) {
-                    player.sendMessage(Text.literal("§cEntity is not a villager!"), false);
+                VillagerEntity villager = ServerVillagerManager.getInstance().getLoadedVillager(payload.villagerId());
+                if (villager == null) {
+                    VillagerNotLoadedPacket.send(player, payload.villagerId());
+                    return;
+                }
+                if (villager.getWorld() != player.getWorld()) {
+                    player.sendMessage(Text.literal("§cYou are too far from the villager!"), false);
                     return;
                 }
-                
-                VillagerEntity villager = (VillagerEntity) entity;
                 
                 
                 double distance = player.getPos().distanceTo(villager.getPos());
@@ -0,0 +1,62 @@
+package com.beeny.network;
+
+import com.beeny.Villagersreborn;
+import com.beeny.system.FamilyGraphIndex;
+import com.beeny.system.ServerVillagerManager;
+import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+
+import java.util.UUID;
+
+/**
+ * Answer to a request for a villager that is not loaded. Carries where the villager was last seen when the
+ * server knows, so the client can say more than "not found".
+ */
+public record VillagerNotLoadedPacket(UUID villagerId, String name, Identifier world, BlockPos lastPos) implements CustomPayload {
+    public static final Id<VillagerNotLoadedPacket> ID = new Id<>(Identifier.of(Villagersreborn.MOD_ID, "villager_not_loaded"));
+
+    public static final PacketCodec<RegistryByteBuf, VillagerNotLoadedPacket> CODEC = PacketCodec.of(
+        (value, buf) -> {
+            buf.writeUuid(value.villagerId);
+            buf.writeString(value.name);
+            buf.writeBoolean(value.lastPos != null);
+            if (value.lastPos != null) {
+                buf.writeIdentifier(value.world);
+                buf.writeBlockPos(value.lastPos);
+            }
+        },
+        buf -> {
+            UUID villagerId = buf.readUuid();
+            String name = buf.readString();
+            if (!buf.readBoolean()) {
+                return new VillagerNotLoadedPacket(villagerId, name, null, null);
+            }
+            return new VillagerNotLoadedPacket(villagerId, name, buf.readIdentifier(), buf.readBlockPos());
+        }
+    );
+
+    @Override
+    public Id<? extends CustomPayload> getId() {
+        return ID;
+    }
+
+    public static void register() {
+        PayloadTypeRegistry.playS2C().register(ID, CODEC);
+    }
+
+    public static void send(ServerPlayerEntity player, UUID villagerId) {
+        ServerVillagerManager.LastSeen seen = ServerVillagerManager.getInstance().getLastSeen(villagerId);
+        if (seen != null) {
+            ServerPlayNetworking.send(player, new VillagerNotLoadedPacket(villagerId, seen.name(), seen.world().getValue(), seen.pos()));
+            return;
+        }
+        String name = FamilyGraphIndex.getName(villagerId.toString());
+        ServerPlayNetworking.send(player, new VillagerNotLoadedPacket(villagerId, name != null ? name : "", null, null));
+    }
+}
@@ -1,13 +1,12 @@
 package com.beeny.network;
 
+import com.beeny.system.ServerVillagerManager;
 import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
-import net.minecraft.entity.Entity;
 import net.minecraft.entity.passive.VillagerEntity;
 import net.minecraft.network.RegistryByteBuf;
 import net.minecraft.network.codec.PacketCodec;
 import net.minecraft.network.packet.CustomPayload;
-import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.CactusBlock;
 import net.minecraft.block.MagmaBlock;
@@ -20,15 +19,30 @@ import net.minecraft.util.Identifier;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.shape.VoxelShape;
+import net.minecraft.world.Heightmap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Set;
+import java.util.UUID;
 import net.minecraft.network.packet.s2c.play.PositionFlag;
 
-public record VillagerTeleportPacket(int villagerId) implements CustomPayload {
+public record VillagerTeleportPacket(UUID villagerId) implements CustomPayload {
     public static final Id<VillagerTeleportPacket> ID = new Id<>(Identifier.of("villagersreborn", "villager_teleport"));
     
+    private static final int SEARCH_RADIUS = 5;
+    // Feet heights relative to the villager, best first
+    private static final int[] SEARCH_HEIGHTS = {0, 1, -1, 2, -2, 3};
+    // How far the surface may be from the villager before it stops counting as "near", e.g. a roof overhead
+    private static final int MAX_SURFACE_DISTANCE = 3;
+    private static final int[][] SEARCH_COLUMNS = buildSearchColumns();
+    
     public static final PacketCodec<RegistryByteBuf, VillagerTeleportPacket> CODEC = PacketCodec.of(
-        (value, buf) -> buf.writeInt(value.villagerId),
-        buf -> new VillagerTeleportPacket(buf.readInt())
+        (value, buf) -> buf.writeUuid(value.villagerId),
+        buf -> new VillagerTeleportPacket(buf.readUuid())
     );
     
     @Override
@@ -36,159 +50,151 @@ public record VillagerTeleportPacket(int villagerId) implements CustomPayload {
         return ID;
     }
     
+    // Columns around the villager: two or three blocks away first, then closer, then further out
+    private static int[][] buildSearchColumns() {
+        List<int[]> columns = new ArrayList<>();
+        for (int dx = -SEARCH_RADIUS; dx <= SEARCH_RADIUS; dx++) {
+            for (int dz = -SEARCH_RADIUS; dz <= SEARCH_RADIUS; dz++) {
+                if (dx * dx + dz * dz <= SEARCH_RADIUS * SEARCH_RADIUS) {
+                    columns.add(new int[]{dx, dz});
+                }
+            }
+        }
+        columns.sort(Comparator.<int[]>comparingInt(column -> {
+            int distanceSquared = column[0] * column[0] + column[1] * column[1];
+            return distanceSquared < 4 ? 1 : distanceSquared <= 9 ? 0 : 2;
+        }).thenComparingInt(column -> column[0] * column[0] + column[1] * column[1]));
+        return columns.toArray(new int[0][]);
+    }
+    
     public static void register() {
         PayloadTypeRegistry.playC2S().register(ID, CODEC);
+        // The safe-spot search reads a few hundred block states, so keep it to a couple per second
+        RequestThrottle.limit(ID, 2, 0.5);
         
         ServerPlayNetworking.registerGlobalReceiver(ID, (payload, context) -> {
-            ServerPlayerEntity player = context.player();
-            int villagerId = payload.villagerId();
+            UUID villagerId = payload.villagerId();
             
-            context.server().execute(() -> {
-                Entity entity = player.getWorld().getEntityById(villagerId);
+            RequestThrottle.handle(ID, context, null, player -> {
+                // The journal only offers teleports in creative mode; don't take the client's word for it
+                if (!player.isCreative()) return;
                 
-                if (!(entity instanceof VillagerEntity)) {
-                    player.sendMessage(Text.literal("§cEntity is not a villager!"), false);
-                    return;
+                ServerWorld world;
+                BlockPos villagerPos;
+                String villagerName;
+                VillagerEntity villager = ServerVillagerManager.getInstance().getLoadedVillager(villagerId);
+                if (villager != null) {
+                    world = (ServerWorld) villager.getWorld();
+                    villagerPos = villager.getBlockPos();
+                    villagerName = villager.hasCustomName() ? villager.getCustomName().getString() : "Unnamed Villager";
+                } else {
+                    ServerVillagerManager.LastSeen seen = ServerVillagerManager.getInstance().getLastSeen(villagerId);
+                    world = seen != null ? player.getServer().getWorld(seen.world()) : null;
+                    if (world == null) {
+                        VillagerNotLoadedPacket.send(player, villagerId);
+                        return;
+                    }
+                    villagerPos = seen.pos();
+                    villagerName = seen.name().isEmpty() ? "Unnamed Villager" : seen.name();
                 }
                 
-                VillagerEntity villager = (VillagerEntity) entity;
+                // Loading the chunk would stall the server thread; the client is told where the villager was instead
+                if (!world.isChunkLoaded(villagerPos)) {
+                    VillagerNotLoadedPacket.send(player, villagerId);
+                    return;
+                }
                 
-                if (!villager.isRemoved()) {
-                    Vec3d villagerPos = villager.getPos();
-                    
-                    
-                    Vec3d safePos = findSafePosition(villagerPos, player);
-                    player.teleport((ServerWorld)player.getWorld(), safePos.x, safePos.y, safePos.z, Set.<PositionFlag>of(), 0.0f, 0.0f, false);
-                    
-                    
-                    player.getWorld().playSound(null, safePos.x, safePos.y, safePos.z, 
-                        SoundEvents.ENTITY_ENDERMAN_TELEPORT, SoundCategory.PLAYERS, 1.0f, 1.0f);
-                    
-                    String villagerName = villager.hasCustomName() ? 
-                        villager.getCustomName().getString() : "Unnamed Villager";
-                    player.sendMessage(Text.literal("§aTeleported to " + villagerName + "!"), false);
-                } else {
-                    player.sendMessage(Text.literal("§cVillager not found or has moved away!"), false);
+                Vec3d safePos = findSafePosition(world, villagerPos);
+                if (safePos == null) {
+                    player.sendMessage(Text.literal("§cNo safe spot to stand near that villager!"), false);
+                    return;
                 }
+                player.teleport(world, safePos.x, safePos.y, safePos.z, Set.<PositionFlag>of(), 0.0f, 0.0f, false);
+                
+                
+                world.playSound(null, safePos.x, safePos.y, safePos.z, 
+                    SoundEvents.ENTITY_ENDERMAN_TELEPORT, SoundCategory.PLAYERS, 1.0f, 1.0f);
+                
+                player.sendMessage(Text.literal(villager != null ? "§aTeleported to " + villagerName + "!"
+                    : "§aTeleported to where " + villagerName + " was last seen!"), false);
             });
         });
     }
     
-    private static Vec3d findSafePosition(Vec3d villagerPos, ServerPlayerEntity player) {
-        
-        Vec3d[] offsets = {
-            new Vec3d(2, 0, 0),   
-            new Vec3d(-2, 0, 0),  
-            new Vec3d(0, 0, 2),   
-            new Vec3d(0, 0, -2),  
-            new Vec3d(1, 0, 1),   
-            new Vec3d(-1, 0, 1),  
-            new Vec3d(1, 0, -1),  
-            new Vec3d(-1, 0, -1), 
-            new Vec3d(3, 0, 0),   
-            new Vec3d(-3, 0, 0),  
-            new Vec3d(0, 0, 3),   
-            new Vec3d(0, 0, -3),  
-            new Vec3d(2, 1, 0),   
-            new Vec3d(-2, 1, 0),  
-            new Vec3d(0, 1, 2),   
-            new Vec3d(0, 1, -2),  
-        };
-        
-        for (Vec3d offset : offsets) {
-            Vec3d testPos = villagerPos.add(offset);
-            if (isSafePosition(testPos, player)) {
-                return testPos;
-            }
-        }
-        
-        
-        Vec3d safeFallback = findSafeFallbackPosition(villagerPos, player);
-        if (safeFallback != null) {
-            return safeFallback;
-        }
-        
-        
-        if (isSafePosition(villagerPos, player)) {
-            return villagerPos;
-        }
-        
-        
-        return findEmergencySafePosition(villagerPos, player);
-    }
-    
-    private static Vec3d findSafeFallbackPosition(Vec3d centerPos, ServerPlayerEntity player) {
-        
-        for (int x = -3; x <= 3; x++) {
-            for (int z = -3; z <= 3; z++) {
-                for (int y = 0; y <= 2; y++) {
-                    Vec3d testPos = centerPos.add(x, y, z);
-                    if (isSafePosition(testPos, player)) {
-                        return testPos;
-                    }
+    /**
+     * Closest safe spot around the villager, preferring two or three blocks away so the player does not land
+     * inside it. Each column only tests heights up to its heightmap surface, every block state is read once,
+     * and columns in unloaded chunks are skipped instead of loaded. Returns null when nothing is safe.
+     */
+    private static Vec3d findSafePosition(ServerWorld world, BlockPos villagerPos) {
+        BlockStateCache blocks = new BlockStateCache(world);
+        BlockPos.Mutable feet = new BlockPos.Mutable();
+        
+        for (int[] column : SEARCH_COLUMNS) {
+            int x = villagerPos.getX() + column[0];
+            int z = villagerPos.getZ() + column[1];
+            if (!world.isChunkLoaded(ChunkSectionPos.getSectionCoord(x), ChunkSectionPos.getSectionCoord(z))) continue;
+            
+            // Anything above the surface is open air, so the surface is the only standable height up there
+            int surface = world.getTopY(Heightmap.Type.MOTION_BLOCKING_NO_LEAVES, x, z);
+            boolean surfaceTested = false;
+            for (int dy : SEARCH_HEIGHTS) {
+                int y = villagerPos.getY() + dy;
+                if (y >= surface) {
+                    if (surfaceTested) continue;
+                    surfaceTested = true;
+                    y = surface;
+                    if (Math.abs(y - villagerPos.getY()) > MAX_SURFACE_DISTANCE) continue;
+                }
+                if (isSafePosition(blocks, feet.set(x, y, z))) {
+                    return Vec3d.ofBottomCenter(feet);
                 }
             }
         }
         return null;
     }
     
-    private static Vec3d findEmergencySafePosition(Vec3d centerPos, ServerPlayerEntity player) {
-        
-        double bestDistance = Double.MAX_VALUE;
-        Vec3d bestPos = null;
-        
-        for (int x = -5; x <= 5; x++) {
-            for (int z = -5; z <= 5; z++) {
-                for (int y = -2; y <= 3; y++) {
-                    Vec3d testPos = centerPos.add(x, y, z);
-                    if (isSafePosition(testPos, player)) {
-                        double distance = testPos.distanceTo(centerPos);
-                        if (distance < bestDistance) {
-                            bestDistance = distance;
-                            bestPos = testPos;
-                        }
-                    }
-                }
-            }
-        }
-        
-        
-        return bestPos != null ? bestPos : player.getPos();
+    private static boolean isSafePosition(BlockStateCache blocks, BlockPos feetPos) {
+        BlockPos groundPos = feetPos.down();
+        BlockPos headPos = feetPos.up();
+        BlockState ground = blocks.get(groundPos);
+        if (ground.isAir()) return false;
+        
+        VoxelShape groundShape = ground.getCollisionShape(blocks.world, groundPos);
+        boolean hasSolidGround = !groundShape.isEmpty() && groundShape.getBoundingBox().getLengthY() >= 0.0625;
+        if (!hasSolidGround) return false;
+        
+        BlockState feetState = blocks.get(feetPos);
+        BlockState headState = blocks.get(headPos);
+        boolean feetClear = feetState.isAir() || !feetState.shouldSuffocate(blocks.world, feetPos);
+        boolean headClear = headState.isAir() || !headState.shouldSuffocate(blocks.world, headPos);
+        if (!feetClear || !headClear) return false;
+        
+        boolean isLava = feetState.getFluidState().isIn(FluidTags.LAVA) || headState.getFluidState().isIn(FluidTags.LAVA)
+            || ground.getFluidState().isIn(FluidTags.LAVA);
+        boolean isDangerous = feetState.isIn(BlockTags.FIRE) || headState.isIn(BlockTags.FIRE) || ground.isIn(BlockTags.FIRE)
+            || feetState.getBlock() instanceof MagmaBlock || ground.getBlock() instanceof MagmaBlock
+            || feetState.getBlock() instanceof CactusBlock || headState.getBlock() instanceof CactusBlock;
+        return !isLava && !isDangerous;
     }
     
-    private static boolean isSafePosition(Vec3d pos, ServerPlayerEntity player) {
+    /** Block states read during one search; neighbouring candidates share most of their blocks. */
+    private static final class BlockStateCache {
+        private final ServerWorld world;
+        private final Long2ObjectOpenHashMap<BlockState> states = new Long2ObjectOpenHashMap<>();
         
-        BlockPos blockPos = BlockPos.ofFloored(pos);
-        
-        
-        BlockPos groundPos = blockPos.down();
-        BlockState groundState = player.getWorld().getBlockState(groundPos);
-        boolean hasSolidGround = !groundState.isAir() && groundState.getCollisionShape(player.getWorld(), groundPos).getBoundingBox().getLengthY() >= 0.0625;
-        
-        
-        BlockState feetState = player.getWorld().getBlockState(blockPos);
-        BlockState headState = player.getWorld().getBlockState(blockPos.up());
-        
-        boolean feetClear = feetState.isAir() || !feetState.shouldSuffocate(player.getWorld(), blockPos);
-        boolean headClear = headState.isAir() || !headState.shouldSuffocate(player.getWorld(), blockPos.up());
-        
-        
-        boolean isLava = player.getWorld().getBlockState(blockPos).getFluidState().isIn(FluidTags.LAVA) ||
-                        player.getWorld().getBlockState(blockPos.up()).getFluidState().isIn(FluidTags.LAVA) ||
-                        player.getWorld().getBlockState(groundPos).getFluidState().isIn(FluidTags.LAVA);
-        
-        boolean isWater = player.getWorld().getBlockState(blockPos).getFluidState().isIn(FluidTags.WATER) ||
-                         player.getWorld().getBlockState(blockPos.up()).getFluidState().isIn(FluidTags.WATER);
-        
-        
-        boolean isDangerous = player.getWorld().getBlockState(blockPos).isIn(BlockTags.FIRE) ||
-                             player.getWorld().getBlockState(blockPos.up()).isIn(BlockTags.FIRE) ||
-                             player.getWorld().getBlockState(groundPos).isIn(BlockTags.FIRE) ||
-                             player.getWorld().getBlockState(blockPos).getBlock() instanceof MagmaBlock ||
-                             player.getWorld().getBlockState(groundPos).getBlock() instanceof MagmaBlock ||
-                             player.getWorld().getBlockState(blockPos).getBlock() instanceof CactusBlock ||
-                             player.getWorld().getBlockState(blockPos.up()).getBlock() instanceof CactusBlock;
+        private BlockStateCache(ServerWorld world) {
+            this.world = world;
+        }
         
-        return hasSolidGround && feetClear && headClear && !isLava && !isDangerous;
+        private BlockState get(BlockPos pos) {
+            long key = pos.asLong();
+            BlockState state = states.get(key);
+            if (state == null) {
+                state = world.getBlockState(pos);
+                states.put(key, state);
+            }
+            return state;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,108 @@
+package com.beeny.system;
+
+import com.beeny.Villagersreborn;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import net.minecraft.entity.passive.VillagerEntity;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Generates ancestry trees on a small worker pool. World inputs are captured on the server thread,
+ * results are handed back through {@link MinecraftServer#execute}. Each player has at most one pending request.
+ */
+public class AncestryService {
+    private static final int WORKER_THREADS = 2;
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private static final ExecutorService WORKERS = Executors.newFixedThreadPool(WORKER_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "VillagersReborn-Ancestry-" + THREAD_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final Map<UUID, PendingRequest> PENDING = new ConcurrentHashMap<>();
+
+    private static final class PendingRequest {
+        private final UUID tag;
+        private volatile boolean cancelled;
+
+        private PendingRequest(UUID tag) {
+            this.tag = tag;
+        }
+    }
+
+    public static void register() {
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> cancel(handler.getPlayer().getUuid()));
+    }
+
+    /**
+     * Must be called on the server thread. Replaces any request the player already has in flight;
+     * {@code onComplete} runs on the server thread unless the request was cancelled or the player left.
+     * The tag identifies the request for {@link #cancel(UUID, UUID)}, normally the villager's UUID.
+     */
+    public static void requestAncestors(ServerPlayerEntity player, VillagerEntity villager, int generations, UUID tag,
+                                        BiConsumer<ServerPlayerEntity, List<VillagerAncestryManager.Ancestor>> onComplete) {
+        MinecraftServer server = player.getServer();
+        if (server == null) return;
+
+        // Biome and descendant traits are read here, the worker only sees this immutable snapshot
+        VillagerAncestryManager.AncestryRoot root = VillagerAncestryManager.AncestryRoot.of(villager);
+        UUID playerId = player.getUuid();
+
+        PendingRequest request = new PendingRequest(tag);
+        PendingRequest previous = PENDING.put(playerId, request);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+
+        WORKERS.execute(() -> {
+            if (request.cancelled) return;
+
+            List<VillagerAncestryManager.Ancestor> ancestors;
+            try {
+                ancestors = VillagerAncestryManager.expand(root, generations);
+            } catch (RuntimeException e) {
+                Villagersreborn.LOGGER.error("Failed to generate ancestry for villager {}", root.villagerId(), e);
+                PENDING.remove(playerId, request);
+                return;
+            }
+
+            server.execute(() -> {
+                if (!PENDING.remove(playerId, request) || request.cancelled) return;
+
+                ServerPlayerEntity target = server.getPlayerManager().getPlayer(playerId);
+                if (target != null) {
+                    onComplete.accept(target, ancestors);
+                }
+            });
+        });
+    }
+
+    public static void cancel(UUID playerId) {
+        PendingRequest request = PENDING.remove(playerId);
+        if (request != null) {
+            request.cancelled = true;
+        }
+    }
+
+    /** Cancels the player's pending request only if it is still the one with this tag. */
+    public static void cancel(UUID playerId, UUID tag) {
+        PendingRequest request = PENDING.get(playerId);
+        if (request != null && request.tag.equals(tag) && PENDING.remove(playerId, request)) {
+            request.cancelled = true;
+        }
+    }
+
+    public static int getPendingRequestCount() {
+        return PENDING.size();
+    }
+}
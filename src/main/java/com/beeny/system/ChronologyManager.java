@@ -0,0 +1,85 @@
+package com.beeny.system;
+
+import com.beeny.data.VillagerData;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.World;
+
+/**
+ * In-game calendar based on the world's game time. Game time only ever moves forward, is saved with the
+ * level and is not touched by /time set, so dates stay stable across restarts and time changes.
+ * The current date is recomputed once per tick and shared by everything that formats dates.
+ */
+public class ChronologyManager {
+    public static final long TICKS_PER_DAY = 24000L;
+    public static final int DAYS_PER_YEAR = 12;
+    public static final long TICKS_PER_YEAR = TICKS_PER_DAY * DAYS_PER_YEAR;
+
+    public static final long UNKNOWN_TIME = VillagerData.UNKNOWN_TIME;
+
+    /** A point on the calendar. Year 1, day 1 starts at tick 0; dates before that have years below 1. */
+    public record CalendarDate(long tick, long year, int dayOfYear) {
+        public static CalendarDate of(long tick) {
+            long year = Math.floorDiv(tick, TICKS_PER_YEAR);
+            int day = (int) (Math.floorMod(tick, TICKS_PER_YEAR) / TICKS_PER_DAY);
+            return new CalendarDate(tick, year + 1, day + 1);
+        }
+
+        public String format() {
+            return "Day " + dayOfYear + ", Year " + year;
+        }
+    }
+
+    private static volatile CalendarDate current = CalendarDate.of(0L);
+
+
+    public static void onServerTick(MinecraftServer server) {
+        update(server.getOverworld().getTime());
+    }
+
+    /** Called from the server tick, or from the client tick when connected to a remote server. */
+    public static void update(long worldTime) {
+        if (current.tick() != worldTime) {
+            current = CalendarDate.of(worldTime);
+        }
+    }
+
+    public static CalendarDate getCurrentDate() {
+        return current;
+    }
+
+    public static long getCurrentTick() {
+        return current.tick();
+    }
+
+    /** The time to stamp on a birth or death happening now in the given world. */
+    public static long now(World world) {
+        return world.getTime();
+    }
+
+    public static boolean isKnown(long time) {
+        return time != UNKNOWN_TIME;
+    }
+
+
+    public static long yearsBetween(long from, long to) {
+        return Math.floorDiv(to - from, TICKS_PER_YEAR);
+    }
+
+    public static long yearsAgo(long time) {
+        return yearsBetween(time, current.tick());
+    }
+
+    /** True on every anniversary of the given time, not counting the day itself. */
+    public static boolean isAnniversary(long time) {
+        if (!isKnown(time)) return false;
+
+        CalendarDate today = current;
+        long daysSince = Math.floorDiv(today.tick(), TICKS_PER_DAY) - Math.floorDiv(time, TICKS_PER_DAY);
+        return daysSince > 0 && daysSince % DAYS_PER_YEAR == 0;
+    }
+
+    public static String formatDate(long time) {
+        if (!isKnown(time)) return "Unknown";
+        return CalendarDate.of(time).format();
+    }
+}
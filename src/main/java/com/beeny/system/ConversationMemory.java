@@ -0,0 +1,111 @@
+package com.beeny.system;
+
+import com.beeny.Villagersreborn;
+import net.fabricmc.fabric.api.entity.event.v1.ServerPlayerEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import net.minecraft.entity.passive.VillagerEntity;
+import net.minecraft.entity.player.PlayerEntity;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * What each villager last said to each player, so repeated right-clicks reuse the conversation context
+ * for a few seconds and do not hear the same lines again. At most {@link #MAX_CONVERSATIONS} pairs are
+ * kept; the least recently used one is forgotten first.
+ */
+public class ConversationMemory {
+    private static final int MAX_CONVERSATIONS = 512;
+    private static final int RECENT_LINES = 8;
+    // Weather, biome, reputation and nearby names are reused this long before being looked up again
+    private static final long CONTEXT_TTL_TICKS = 200;
+
+    private record Key(UUID player, UUID villager) {}
+
+    public static final class Conversation {
+        private VillagerDialogueSystem.DialogueContext context;
+        private long contextTick;
+        private final DialogueTemplate[] recentLines = new DialogueTemplate[RECENT_LINES];
+        private int nextLine;
+
+        private Conversation() {}
+
+        public VillagerDialogueSystem.DialogueContext getContext() {
+            return context;
+        }
+
+        /** True if this villager said the line to this player within the last few lines. */
+        public boolean recentlySaid(DialogueTemplate line) {
+            for (DialogueTemplate recent : recentLines) {
+                if (recent == line) return true;
+            }
+            return false;
+        }
+
+        public void remember(DialogueTemplate line) {
+            recentLines[nextLine] = line;
+            nextLine = (nextLine + 1) % RECENT_LINES;
+        }
+    }
+
+    private static final Map<Key, Conversation> CONVERSATIONS = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Conversation> eldest) {
+            return size() > MAX_CONVERSATIONS;
+        }
+    };
+
+    /**
+     * Contexts hold the villager and player entities, so a conversation is dropped as soon as either entity is
+     * replaced or gone rather than when it ages out of the cache.
+     */
+    public static void register() {
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> forgetPlayer(handler.getPlayer().getUuid()));
+        ServerPlayerEvents.AFTER_RESPAWN.register((oldPlayer, newPlayer, alive) -> forgetPlayer(oldPlayer.getUuid()));
+    }
+
+    /** The conversation between the two, with a context no older than the TTL. */
+    public static synchronized Conversation get(VillagerEntity villager, PlayerEntity player) {
+        Conversation conversation = CONVERSATIONS.computeIfAbsent(new Key(player.getUuid(), villager.getUuid()), key -> new Conversation());
+
+        long now = villager.getWorld().getTime();
+        VillagerDialogueSystem.DialogueContext context = conversation.context;
+        // Entities are replaced when chunks reload and the data attachment can be swapped, so check identity too
+        if (context == null || now - conversation.contextTick >= CONTEXT_TTL_TICKS || now < conversation.contextTick
+            || context.villager != villager || context.player != player
+            || context.villagerData != villager.getAttached(Villagersreborn.VILLAGER_DATA)) {
+            conversation.context = new VillagerDialogueSystem.DialogueContext(villager, player);
+            conversation.contextTick = now;
+        }
+        return conversation;
+    }
+
+    public static synchronized void forgetPlayer(UUID playerId) {
+        Iterator<Key> keys = CONVERSATIONS.keySet().iterator();
+        while (keys.hasNext()) {
+            if (keys.next().player().equals(playerId)) {
+                keys.remove();
+            }
+        }
+    }
+
+    /** Called when the villager is untracked: it died, was discarded or its chunk unloaded. */
+    public static synchronized void forgetVillager(UUID villagerId) {
+        Iterator<Key> keys = CONVERSATIONS.keySet().iterator();
+        while (keys.hasNext()) {
+            if (keys.next().villager().equals(villagerId)) {
+                keys.remove();
+            }
+        }
+    }
+
+    public static synchronized void clear() {
+        CONVERSATIONS.clear();
+    }
+
+    public static synchronized int size() {
+        return CONVERSATIONS.size();
+    }
+}
@@ -0,0 +1,89 @@
+package com.beeny.system;
+
+import net.minecraft.entity.passive.VillagerEntity;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.util.Identifier;
+import net.minecraft.village.VillagerProfession;
+
+import java.util.*;
+
+/**
+ * Every (personality, profession, category) combination mapped to its merged array of dialogue options,
+ * so picking a line is a lookup plus an array index. Instances are immutable; a reload builds a new
+ * index and swaps it in whole.
+ */
+public final class DialogueIndex {
+    private static final DialogueTemplate[] NONE = new DialogueTemplate[0];
+    private static final VillagerDialogueSystem.DialogueCategory[] CATEGORIES = VillagerDialogueSystem.DialogueCategory.values();
+
+    // Row 0 is the default personality and column 0 "no profession lines", so unknown keys land on them
+    private final Map<String, Integer> personalityIndex;
+    private final Map<Identifier, Integer> professionIndex;
+    private final int professions;
+    private final DialogueTemplate[][] options; // [personality][profession][category], flattened
+
+    private DialogueIndex(Map<String, Integer> personalityIndex, Map<Identifier, Integer> professionIndex,
+                          int professions, DialogueTemplate[][] options) {
+        this.personalityIndex = personalityIndex;
+        this.professionIndex = professionIndex;
+        this.professions = professions;
+        this.options = options;
+    }
+
+    /**
+     * Merges personality lines with profession lines. Profession lines are only added to the given
+     * categories, and personalities without lines of their own use the default personality's.
+     */
+    public static DialogueIndex build(Map<String, Map<VillagerDialogueSystem.DialogueCategory, List<DialogueTemplate>>> personalityLines,
+                                      String defaultPersonality,
+                                      Map<Identifier, Map<VillagerDialogueSystem.DialogueCategory, List<DialogueTemplate>>> professionLines,
+                                      Set<VillagerDialogueSystem.DialogueCategory> professionCategories) {
+        List<Map<VillagerDialogueSystem.DialogueCategory, List<DialogueTemplate>>> personalityRows = new ArrayList<>();
+        Map<String, Integer> personalityIndex = new HashMap<>();
+        personalityRows.add(personalityLines.getOrDefault(defaultPersonality, Map.of()));
+        for (Map.Entry<String, Map<VillagerDialogueSystem.DialogueCategory, List<DialogueTemplate>>> entry : personalityLines.entrySet()) {
+            personalityIndex.put(entry.getKey(), personalityRows.size());
+            personalityRows.add(entry.getValue());
+        }
+
+        List<Map<VillagerDialogueSystem.DialogueCategory, List<DialogueTemplate>>> professionColumns = new ArrayList<>();
+        Map<Identifier, Integer> professionIndex = new HashMap<>();
+        professionColumns.add(Map.of());
+        for (Map.Entry<Identifier, Map<VillagerDialogueSystem.DialogueCategory, List<DialogueTemplate>>> entry : professionLines.entrySet()) {
+            professionIndex.put(entry.getKey(), professionColumns.size());
+            professionColumns.add(entry.getValue());
+        }
+
+        int professions = professionColumns.size();
+        DialogueTemplate[][] options = new DialogueTemplate[personalityRows.size() * professions * CATEGORIES.length][];
+        for (int personality = 0; personality < personalityRows.size(); personality++) {
+            for (int profession = 0; profession < professions; profession++) {
+                for (VillagerDialogueSystem.DialogueCategory category : CATEGORIES) {
+                    List<DialogueTemplate> merged = new ArrayList<>(personalityRows.get(personality).getOrDefault(category, List.of()));
+                    if (professionCategories.contains(category)) {
+                        merged.addAll(professionColumns.get(profession).getOrDefault(category, List.of()));
+                    }
+                    options[(personality * professions + profession) * CATEGORIES.length + category.ordinal()] =
+                        merged.isEmpty() ? NONE : merged.toArray(NONE);
+                }
+            }
+        }
+
+        return new DialogueIndex(Map.copyOf(personalityIndex), Map.copyOf(professionIndex), professions, options);
+    }
+
+    /** The merged options for this villager; an empty array when there are none. Callers must not modify it. */
+    public DialogueTemplate[] getOptions(String personality, VillagerEntity villager, VillagerDialogueSystem.DialogueCategory category) {
+        int personalityRow = personality != null ? personalityIndex.getOrDefault(personality, 0) : 0;
+        return options[(personalityRow * professions + professionColumn(villager)) * CATEGORIES.length + category.ordinal()];
+    }
+
+    private int professionColumn(VillagerEntity villager) {
+        RegistryEntry<VillagerProfession> profession = villager.getVillagerData().profession();
+        if (profession instanceof RegistryEntry.Reference<VillagerProfession> reference) {
+            Integer index = professionIndex.get(reference.registryKey().getValue());
+            if (index != null) return index;
+        }
+        return 0;
+    }
+}
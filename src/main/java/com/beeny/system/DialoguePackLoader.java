@@ -0,0 +1,153 @@
+package com.beeny.system;
+
+import com.beeny.Villagersreborn;
+import com.beeny.util.StringTable;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import net.fabricmc.fabric.api.resource.ResourceManagerHelper;
+import net.fabricmc.fabric.api.resource.SimpleSynchronousResourceReloadListener;
+import net.minecraft.resource.Resource;
+import net.minecraft.resource.ResourceManager;
+import net.minecraft.resource.ResourceType;
+import net.minecraft.util.Identifier;
+
+import java.io.Reader;
+import java.util.*;
+
+/**
+ * Loads dialogue packs from {@code data/<namespace>/villager_dialogue/*.json} and hands them to
+ * {@link VillagerDialogueSystem}. A pack is written for a personality or for a list of professions:
+ * <pre>
+ * {
+ *   "personality": "Friendly",
+ *   "lines": {
+ *     "greeting": [
+ *       { "key": "dialogue.villagersreborn.friendly.greeting.0", "args": ["player", "timeOfDay"] },
+ *       "Nice to see you, {player}!"
+ *     ]
+ *   }
+ * }
+ * </pre>
+ * Keyed lines are translated on the client with "args" filling %1$s, %2$s and so on. Plain strings are
+ * sent as they are, with {placeholders} filled in. Packs for the same personality or profession add to each other.
+ */
+public class DialoguePackLoader implements SimpleSynchronousResourceReloadListener {
+    private static final String DIRECTORY = "villager_dialogue";
+    private static final Identifier ID = Identifier.of(Villagersreborn.MOD_ID, DIRECTORY);
+
+    public static void register() {
+        ResourceManagerHelper.get(ResourceType.SERVER_DATA).registerReloadListener(new DialoguePackLoader());
+    }
+
+    @Override
+    public Identifier getFabricId() {
+        return ID;
+    }
+
+    @Override
+    public void reload(ResourceManager manager) {
+        Map<String, Map<VillagerDialogueSystem.DialogueCategory, List<DialogueTemplate>>> personalities = new HashMap<>();
+        Map<Identifier, Map<VillagerDialogueSystem.DialogueCategory, List<DialogueTemplate>>> professions = new HashMap<>();
+        StringTable strings = new StringTable();
+        int lines = 0;
+
+        // Sorted so that lines from several packs always merge in the same order
+        Map<Identifier, Resource> resources = new TreeMap<>(manager.findResources(DIRECTORY, id -> id.getPath().endsWith(".json")));
+        for (Map.Entry<Identifier, Resource> entry : resources.entrySet()) {
+            try (Reader reader = entry.getValue().getReader()) {
+                JsonObject json = JsonParser.parseReader(reader).getAsJsonObject();
+                Map<VillagerDialogueSystem.DialogueCategory, List<DialogueTemplate>> parsed = parseLines(entry.getKey(), json, strings);
+                if (parsed == null) continue;
+
+                if (json.has("personality")) {
+                    merge(personalities.computeIfAbsent(json.get("personality").getAsString(), key -> new EnumMap<>(VillagerDialogueSystem.DialogueCategory.class)), parsed);
+                } else if (json.has("professions")) {
+                    for (JsonElement element : json.getAsJsonArray("professions")) {
+                        Identifier profession = Identifier.tryParse(element.getAsString());
+                        if (profession == null) {
+                            Villagersreborn.LOGGER.warn("Invalid profession id '{}' in dialogue pack {}", element.getAsString(), entry.getKey());
+                            continue;
+                        }
+                        merge(professions.computeIfAbsent(profession, key -> new EnumMap<>(VillagerDialogueSystem.DialogueCategory.class)), parsed);
+                    }
+                } else {
+                    Villagersreborn.LOGGER.warn("Dialogue pack {} names neither a personality nor professions, skipping", entry.getKey());
+                    continue;
+                }
+                for (List<DialogueTemplate> templates : parsed.values()) {
+                    lines += templates.size();
+                }
+            } catch (Exception e) {
+                Villagersreborn.LOGGER.error("Failed to load dialogue pack {}", entry.getKey(), e);
+            }
+        }
+
+        VillagerDialogueSystem.applyDialoguePacks(personalities, professions);
+        Villagersreborn.LOGGER.info("Loaded {} dialogue lines from {} packs ({} unique strings)", lines, resources.size(), strings.size());
+    }
+
+    private static Map<VillagerDialogueSystem.DialogueCategory, List<DialogueTemplate>> parseLines(Identifier source, JsonObject json, StringTable strings) {
+        if (!json.has("lines")) {
+            Villagersreborn.LOGGER.warn("Dialogue pack {} has no lines, skipping", source);
+            return null;
+        }
+
+        Map<VillagerDialogueSystem.DialogueCategory, List<DialogueTemplate>> parsed = new EnumMap<>(VillagerDialogueSystem.DialogueCategory.class);
+        for (Map.Entry<String, JsonElement> entry : json.getAsJsonObject("lines").entrySet()) {
+            VillagerDialogueSystem.DialogueCategory category = parseCategory(entry.getKey());
+            if (category == null) {
+                Villagersreborn.LOGGER.warn("Unknown dialogue category '{}' in {}", entry.getKey(), source);
+                continue;
+            }
+
+            List<DialogueTemplate> templates = new ArrayList<>();
+            for (JsonElement line : entry.getValue().getAsJsonArray()) {
+                DialogueTemplate template = parseLine(source, line, strings);
+                if (template != null) {
+                    templates.add(template);
+                }
+            }
+            parsed.put(category, templates);
+        }
+        return parsed;
+    }
+
+    private static DialogueTemplate parseLine(Identifier source, JsonElement line, StringTable strings) {
+        if (line.isJsonPrimitive()) {
+            return DialogueTemplate.parse(line.getAsString(), strings);
+        }
+
+        JsonObject object = line.getAsJsonObject();
+        if (!object.has("key")) {
+            Villagersreborn.LOGGER.warn("Ignoring dialogue line without a key in {}: {}", source, line);
+            return null;
+        }
+
+        List<DialogueTemplate.Placeholder> arguments = new ArrayList<>();
+        if (object.has("args")) {
+            for (JsonElement arg : object.getAsJsonArray("args")) {
+                DialogueTemplate.Placeholder placeholder = DialogueTemplate.Placeholder.byToken(arg.getAsString());
+                if (placeholder == null) {
+                    Villagersreborn.LOGGER.warn("Ignoring dialogue line with unknown argument '{}' in {}", arg.getAsString(), source);
+                    return null;
+                }
+                arguments.add(placeholder);
+            }
+        }
+        return DialogueTemplate.translatable(object.get("key").getAsString(), arguments.toArray(new DialogueTemplate.Placeholder[0]), strings);
+    }
+
+    private static void merge(Map<VillagerDialogueSystem.DialogueCategory, List<DialogueTemplate>> target,
+                              Map<VillagerDialogueSystem.DialogueCategory, List<DialogueTemplate>> lines) {
+        lines.forEach((category, templates) -> target.computeIfAbsent(category, key -> new ArrayList<>()).addAll(templates));
+    }
+
+    private static VillagerDialogueSystem.DialogueCategory parseCategory(String name) {
+        try {
+            return VillagerDialogueSystem.DialogueCategory.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.beeny.system;
+
+import com.beeny.util.StringTable;
+import net.minecraft.text.MutableText;
+import net.minecraft.text.Text;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A dialogue line parsed once into literal and placeholder segments. Rendering is a single pass over
+ * the segments, so only placeholders that actually appear in the line are ever resolved.
+ * Lines from the built-in packs are translation keys instead; those are sent as the key plus the
+ * resolved arguments and the client's language file supplies the text.
+ */
+public final class DialogueTemplate {
+    public enum Placeholder {
+        PLAYER("player"),
+        TIME_OF_DAY("timeOfDay"),
+        WEATHER("weather"),
+        BIOME("biome"),
+        PROFESSION("profession"),
+        ACTIVITY("activity"),
+        HOBBY("hobby"),
+        SPOUSE("spouse"),
+        CHILD("child"),
+        FAMILY_MEMBER("familyMember"),
+        VILLAGER1("villager1"),
+        VILLAGER2("villager2"),
+        LOCATION("location");
+
+        public final String token;
+
+        Placeholder(String token) {
+            this.token = token;
+        }
+
+        public static Placeholder byToken(String token) {
+            for (Placeholder placeholder : values()) {
+                if (placeholder.token.equals(token)) {
+                    return placeholder;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final Object[] NO_SEGMENTS = new Object[0];
+
+    // Each segment is either a literal String or a Placeholder
+    private final Object[] segments;
+    private final String source;
+    // Set for translatable lines, whose arguments are the placeholders in %n$s order
+    private final String translationKey;
+    private final Placeholder[] arguments;
+
+    private DialogueTemplate(Object[] segments, String source, String translationKey, Placeholder[] arguments) {
+        this.segments = segments;
+        this.source = source;
+        this.translationKey = translationKey;
+        this.arguments = arguments;
+    }
+
+    /** A line rendered on the client from its language file. */
+    public static DialogueTemplate translatable(String translationKey, Placeholder[] arguments, StringTable strings) {
+        String key = strings.intern(translationKey);
+        return new DialogueTemplate(NO_SEGMENTS, key, key, arguments.clone());
+    }
+
+    /** Unknown {tags} are kept as literal text, like the old string replacement did. */
+    public static DialogueTemplate parse(String source, StringTable strings) {
+        List<Object> segments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < source.length()) {
+            int open = source.indexOf('{', i);
+            int close = open >= 0 ? source.indexOf('}', open + 1) : -1;
+            if (open < 0 || close < 0) {
+                literal.append(source, i, source.length());
+                break;
+            }
+
+            Placeholder placeholder = Placeholder.byToken(source.substring(open + 1, close));
+            if (placeholder == null) {
+                // Not a tag; keep the brace and look for the next one right after it
+                literal.append(source, i, open + 1);
+                i = open + 1;
+                continue;
+            }
+
+            literal.append(source, i, open);
+            if (!literal.isEmpty()) {
+                segments.add(strings.intern(literal.toString()));
+                literal.setLength(0);
+            }
+            segments.add(placeholder);
+            i = close + 1;
+        }
+        if (!literal.isEmpty()) {
+            segments.add(strings.intern(literal.toString()));
+        }
+        return new DialogueTemplate(segments.toArray(), strings.intern(source), null, null);
+    }
+
+    /** Appends the rendered line (empty for translatable lines). A resolver returning null leaves the placeholder's {token} in place. */
+    public void render(StringBuilder out, Function<Placeholder, String> resolver) {
+        for (Object segment : segments) {
+            if (segment instanceof Placeholder placeholder) {
+                String value = resolver.apply(placeholder);
+                if (value != null) {
+                    out.append(value);
+                } else {
+                    out.append('{').append(placeholder.token).append('}');
+                }
+            } else {
+                out.append((String) segment);
+            }
+        }
+    }
+
+    public String render(Function<Placeholder, String> resolver) {
+        StringBuilder out = new StringBuilder(source.length() + 32);
+        render(out, resolver);
+        return out.toString();
+    }
+
+    /** The line as chat text: a translatable component for keyed lines, a literal one otherwise. */
+    public MutableText toText(Function<Placeholder, String> resolver) {
+        if (translationKey == null) {
+            return Text.literal(render(resolver));
+        }
+
+        Object[] values = new Object[arguments.length];
+        for (int i = 0; i < arguments.length; i++) {
+            String value = resolver.apply(arguments[i]);
+            values[i] = value != null ? value : "{" + arguments[i].token + "}";
+        }
+        return Text.translatable(translationKey, values);
+    }
+
+    public boolean isTranslatable() {
+        return translationKey != null;
+    }
+
+    /** The raw line, or the translation key for translatable lines. */
+    public String getSource() {
+        return source;
+    }
+}
@@ -0,0 +1,218 @@
+package com.beeny.system;
+
+import com.beeny.Villagersreborn;
+import com.beeny.data.VillagerData;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerWorldEvents;
+import net.minecraft.entity.passive.VillagerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.world.PersistentState;
+import net.minecraft.world.PersistentStateType;
+import net.minecraft.world.World;
+
+import java.util.*;
+
+/**
+ * Parent/child graph of every villager the server has seen.
+ * Villagers only store their direct edges; siblings, grandparents and cousins are derived from here on demand.
+ * Edges and names are kept after a villager unloads or dies and are saved with the overworld, so lineages
+ * through dead villagers stay connected across restarts.
+ */
+public class FamilyGraphIndex {
+    // How many generations up two villagers may share an ancestor and still count as related (2 = first cousins)
+    public static final int KINSHIP_DEPTH = 2;
+
+    private static final Map<String, Set<String>> PARENTS = new HashMap<>();
+    private static final Map<String, Set<String>> CHILDREN = new HashMap<>();
+    private static final Map<String, String> NAMES = new HashMap<>();
+    private static SavedGraph saved;
+
+    /** The saved form: each child's parents and every known name. Children are rebuilt from the parents on load. */
+    private static final class SavedGraph extends PersistentState {
+        private static final Codec<SavedGraph> CODEC = RecordCodecBuilder.create(instance ->
+            instance.group(
+                Codec.unboundedMap(Codec.STRING, Codec.list(Codec.STRING)).fieldOf("parents").forGetter(graph -> snapshotParents()),
+                Codec.unboundedMap(Codec.STRING, Codec.STRING).fieldOf("names").forGetter(graph -> new HashMap<>(NAMES))
+            ).apply(instance, SavedGraph::new)
+        );
+        private static final PersistentStateType<SavedGraph> TYPE = new PersistentStateType<>(
+            Villagersreborn.MOD_ID + "_family_graph", SavedGraph::new, CODEC, null);
+
+        // Only set between decoding and load(); afterwards the graph is saved straight from the live index
+        private Map<String, List<String>> loadedParents;
+        private Map<String, String> loadedNames;
+
+        private SavedGraph() {
+            this(Map.of(), Map.of());
+        }
+
+        private SavedGraph(Map<String, List<String>> parents, Map<String, String> names) {
+            this.loadedParents = parents;
+            this.loadedNames = names;
+        }
+    }
+
+    public static void register() {
+        // The overworld loads before any entity, so villagers indexed afterwards join the saved graph
+        ServerWorldEvents.LOAD.register((server, world) -> {
+            if (world.getRegistryKey() == World.OVERWORLD) {
+                load(world);
+            }
+        });
+        // Not on SERVER_STOPPING: the worlds, and this graph with them, are saved after that
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> clear());
+    }
+
+    private static void load(ServerWorld overworld) {
+        saved = overworld.getPersistentStateManager().getOrCreate(SavedGraph.TYPE);
+        saved.loadedParents.forEach((childId, parentIds) -> parentIds.forEach(parentId -> addEdge(parentId, childId)));
+        saved.loadedNames.forEach(NAMES::putIfAbsent);
+        saved.loadedParents = null;
+        saved.loadedNames = null;
+        saved.markDirty();
+    }
+
+    private static Map<String, List<String>> snapshotParents() {
+        Map<String, List<String>> parents = new HashMap<>(PARENTS.size());
+        PARENTS.forEach((childId, parentIds) -> parents.put(childId, List.copyOf(parentIds)));
+        return parents;
+    }
+
+    private static void markDirty() {
+        if (saved != null) {
+            saved.markDirty();
+        }
+    }
+
+
+    public static void index(VillagerEntity villager) {
+        VillagerData data = villager.getAttached(Villagersreborn.VILLAGER_DATA);
+        if (data != null) {
+            index(villager.getUuidAsString(), data);
+        }
+    }
+
+    public static void index(String uuid, VillagerData data) {
+        if (!data.getName().isEmpty() && !data.getName().equals(NAMES.put(uuid, data.getName()))) {
+            markDirty();
+        }
+        for (String parentId : data.getParentIds()) {
+            addEdge(parentId, uuid);
+        }
+        for (String childId : data.getChildrenIds()) {
+            addEdge(uuid, childId);
+        }
+
+        // A legacy candidate only becomes a parent when its own childrenIds list this villager; a parent that is
+        // indexed later adds the edge through those childrenIds anyway, so unconfirmed candidates are dropped
+        for (String candidate : data.getLegacyParentCandidates()) {
+            if (CHILDREN.getOrDefault(candidate, Set.of()).contains(uuid)) {
+                data.addParent(candidate);
+            }
+        }
+        data.clearLegacyParentCandidates();
+
+        // Parents that were only known through their own children lists get written back to the child
+        Set<String> parents = PARENTS.get(uuid);
+        if (parents != null && parents.size() > data.getParentIds().size()) {
+            parents.forEach(data::addParent);
+        }
+    }
+
+    public static void addEdge(String parentId, String childId) {
+        if (parentId.isEmpty() || childId.isEmpty() || parentId.equals(childId)) return;
+        if (PARENTS.computeIfAbsent(childId, k -> new HashSet<>(2)).add(parentId)) {
+            markDirty();
+        }
+        CHILDREN.computeIfAbsent(parentId, k -> new HashSet<>()).add(childId);
+    }
+
+    public static void clear() {
+        PARENTS.clear();
+        CHILDREN.clear();
+        NAMES.clear();
+        saved = null;
+    }
+
+
+    public static Set<String> getParents(String uuid) {
+        return Collections.unmodifiableSet(PARENTS.getOrDefault(uuid, Set.of()));
+    }
+
+    public static Set<String> getChildren(String uuid) {
+        return Collections.unmodifiableSet(CHILDREN.getOrDefault(uuid, Set.of()));
+    }
+
+    public static Set<String> getSiblings(String uuid) {
+        Set<String> siblings = new LinkedHashSet<>();
+        for (String parentId : PARENTS.getOrDefault(uuid, Set.of())) {
+            siblings.addAll(CHILDREN.getOrDefault(parentId, Set.of()));
+        }
+        siblings.remove(uuid);
+        return siblings;
+    }
+
+    public static Set<String> getGrandparents(String uuid) {
+        Set<String> grandparents = new LinkedHashSet<>();
+        for (String parentId : PARENTS.getOrDefault(uuid, Set.of())) {
+            grandparents.addAll(PARENTS.getOrDefault(parentId, Set.of()));
+        }
+        return grandparents;
+    }
+
+    public static Set<String> getGrandchildren(String uuid) {
+        Set<String> grandchildren = new LinkedHashSet<>();
+        for (String childId : CHILDREN.getOrDefault(uuid, Set.of())) {
+            grandchildren.addAll(CHILDREN.getOrDefault(childId, Set.of()));
+        }
+        return grandchildren;
+    }
+
+    /** All known ancestors up to the given number of generations, nearest generation first. */
+    public static Set<String> getAncestors(String uuid, int generations) {
+        Set<String> ancestors = new LinkedHashSet<>();
+        Set<String> frontier = Set.of(uuid);
+        for (int generation = 0; generation < generations && !frontier.isEmpty(); generation++) {
+            Set<String> next = new HashSet<>();
+            for (String member : frontier) {
+                for (String parentId : PARENTS.getOrDefault(member, Set.of())) {
+                    if (ancestors.add(parentId)) {
+                        next.add(parentId);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return ancestors;
+    }
+
+    /** True for parents, children, siblings, grandparents, aunts/uncles and cousins up to {@link #KINSHIP_DEPTH}. */
+    public static boolean areRelated(String uuid1, String uuid2) {
+        if (uuid1.equals(uuid2)) return true;
+
+        Set<String> ancestors1 = getAncestors(uuid1, KINSHIP_DEPTH);
+        if (ancestors1.contains(uuid2)) return true;
+
+        Set<String> ancestors2 = getAncestors(uuid2, KINSHIP_DEPTH);
+        if (ancestors2.contains(uuid1)) return true;
+
+        for (String ancestor : ancestors2) {
+            if (ancestors1.contains(ancestor)) return true;
+        }
+        return false;
+    }
+
+    public static String getName(String uuid) {
+        return NAMES.get(uuid);
+    }
+
+    public static int getIndexedEdgeCount() {
+        int edges = 0;
+        for (Set<String> parents : PARENTS.values()) {
+            edges += parents.size();
+        }
+        return edges;
+    }
+}
@@ -0,0 +1,223 @@
+package com.beeny.system;
+
+import com.beeny.Villagersreborn;
+import com.beeny.data.VillagerData;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import net.minecraft.entity.passive.VillagerEntity;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.text.Text;
+import net.minecraft.util.Formatting;
+import net.minecraft.util.WorldSavePath;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Exports the genealogy of every loaded villager in a dimension to JSON Lines and CSV files.
+ * Villager data is copied into immutable records on the server thread, the files are written on a background thread.
+ */
+public class GenealogyExporter {
+    private static final Gson GSON = new Gson();
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final int PROGRESS_STEPS = 4;
+
+    private static final String[] CSV_HEADER = {
+        "uuid", "name", "gender", "age", "personality", "happiness", "hobby", "favoriteFood",
+        "birthTime", "birthPlace", "alive", "deathTime", "spouseId", "spouseName",
+        "parentIds", "childrenIds", "childrenNames", "professionHistory", "totalTrades", "x", "y", "z", "notes"
+    };
+
+    private static final ExecutorService EXPORT_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "VillagersReborn-GenealogyExport");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final AtomicBoolean EXPORT_RUNNING = new AtomicBoolean(false);
+
+    /** Immutable copy of everything the export needs from one villager. */
+    public record VillagerRecord(
+        String uuid, String name, String gender, int age, String personality, int happiness,
+        String hobby, String favoriteFood, long birthTime, String birthPlace, boolean alive, long deathTime,
+        String spouseId, String spouseName, List<String> parentIds, List<String> childrenIds,
+        List<String> childrenNames, List<String> professionHistory, int totalTrades,
+        int x, int y, int z, String notes
+    ) {}
+
+    public static boolean isExportRunning() {
+        return EXPORT_RUNNING.get();
+    }
+
+    /**
+     * Snapshots all tracked villagers in the source's dimension and writes them to disk in the background.
+     * Must be called on the server thread. Returns the number of villagers queued, or -1 if an export is already running.
+     */
+    public static int exportDimension(ServerCommandSource source) {
+        if (!EXPORT_RUNNING.compareAndSet(false, true)) {
+            return -1;
+        }
+
+        ServerWorld world = source.getWorld();
+        MinecraftServer server = source.getServer();
+        List<VillagerRecord> records;
+        try {
+            records = snapshot(world);
+        } catch (RuntimeException e) {
+            EXPORT_RUNNING.set(false);
+            throw e;
+        }
+
+        String dimensionName = world.getRegistryKey().getValue().toString().replace(':', '_').replace('/', '_');
+        String baseName = "genealogy-" + dimensionName + "-" + LocalDateTime.now().format(FILE_TIMESTAMP);
+        Path exportDir = server.getSavePath(WorldSavePath.ROOT).resolve("villagersreborn").resolve("exports");
+
+        EXPORT_EXECUTOR.execute(() -> {
+            try {
+                Files.createDirectories(exportDir);
+                Path jsonlPath = exportDir.resolve(baseName + ".jsonl");
+                Path csvPath = exportDir.resolve(baseName + ".csv");
+                writeFiles(records, jsonlPath, csvPath, server, source);
+
+                server.execute(() -> source.sendFeedback(() -> Text.literal(
+                    "Exported " + records.size() + " villagers to " + jsonlPath.toAbsolutePath() + " and " + csvPath.getFileName())
+                    .formatted(Formatting.GREEN), true));
+            } catch (IOException e) {
+                Villagersreborn.LOGGER.error("Failed to export villager genealogy", e);
+                server.execute(() -> source.sendError(Text.literal("Genealogy export failed: " + e.getMessage())
+                    .formatted(Formatting.RED)));
+            } finally {
+                EXPORT_RUNNING.set(false);
+            }
+        });
+
+        return records.size();
+    }
+
+    private static List<VillagerRecord> snapshot(ServerWorld world) {
+        List<VillagerEntity> villagers = new ArrayList<>();
+        for (VillagerEntity villager : ServerVillagerManager.getInstance().getAllTrackedVillagers()) {
+            if (villager.getWorld() == world && villager.hasAttached(Villagersreborn.VILLAGER_DATA)) {
+                villagers.add(villager);
+            }
+        }
+
+        List<VillagerRecord> records = new ArrayList<>(villagers.size());
+        for (VillagerEntity villager : villagers) {
+            VillagerData data = villager.getAttached(Villagersreborn.VILLAGER_DATA);
+            String uuid = villager.getUuidAsString();
+            records.add(new VillagerRecord(
+                uuid, data.getName(), data.getGender(), data.getAge(), data.getPersonality(), data.getHappiness(),
+                data.getHobby(), data.getFavoriteFood(), data.getBirthTime(), data.getBirthPlace(),
+                data.isAlive(), data.getDeathTime(), data.getSpouseId(), data.getSpouseName(),
+                List.copyOf(FamilyGraphIndex.getParents(uuid)),
+                List.copyOf(data.getChildrenIds()), List.copyOf(data.getChildrenNames()),
+                List.copyOf(data.getProfessionHistory()), data.getTotalTrades(),
+                villager.getBlockX(), villager.getBlockY(), villager.getBlockZ(), data.getNotes()
+            ));
+        }
+        return records;
+    }
+
+    private static void writeFiles(List<VillagerRecord> records, Path jsonlPath, Path csvPath,
+                                   MinecraftServer server, ServerCommandSource source) throws IOException {
+        int total = records.size();
+        int progressInterval = Math.max(1, total / PROGRESS_STEPS);
+
+        try (BufferedWriter jsonl = Files.newBufferedWriter(jsonlPath, StandardCharsets.UTF_8);
+             BufferedWriter csv = Files.newBufferedWriter(csvPath, StandardCharsets.UTF_8)) {
+            csv.write(String.join(",", CSV_HEADER));
+            csv.newLine();
+
+            int written = 0;
+            for (VillagerRecord record : records) {
+                jsonl.write(GSON.toJson(toJson(record)));
+                jsonl.newLine();
+                writeCsvRow(csv, record);
+                written++;
+
+                if (written % progressInterval == 0 && written < total) {
+                    int done = written;
+                    server.execute(() -> source.sendFeedback(() -> Text.literal(
+                        "Genealogy export: " + done + "/" + total + " villagers written").formatted(Formatting.YELLOW), false));
+                }
+            }
+        }
+    }
+
+    private static JsonObject toJson(VillagerRecord record) {
+        JsonObject json = new JsonObject();
+        json.addProperty("uuid", record.uuid());
+        json.addProperty("name", record.name());
+        json.addProperty("gender", record.gender());
+        json.addProperty("age", record.age());
+        json.addProperty("personality", record.personality());
+        json.addProperty("happiness", record.happiness());
+        json.addProperty("hobby", record.hobby());
+        json.addProperty("favoriteFood", record.favoriteFood());
+        json.addProperty("birthTime", record.birthTime());
+        json.addProperty("birthPlace", record.birthPlace());
+        json.addProperty("alive", record.alive());
+        json.addProperty("deathTime", record.deathTime());
+        json.addProperty("spouseId", record.spouseId());
+        json.addProperty("spouseName", record.spouseName());
+        json.add("parentIds", toJsonArray(record.parentIds()));
+        json.add("childrenIds", toJsonArray(record.childrenIds()));
+        json.add("childrenNames", toJsonArray(record.childrenNames()));
+        json.add("professionHistory", toJsonArray(record.professionHistory()));
+        json.addProperty("totalTrades", record.totalTrades());
+
+        JsonObject position = new JsonObject();
+        position.addProperty("x", record.x());
+        position.addProperty("y", record.y());
+        position.addProperty("z", record.z());
+        json.add("position", position);
+
+        json.addProperty("notes", record.notes());
+        return json;
+    }
+
+    private static JsonArray toJsonArray(List<String> values) {
+        JsonArray array = new JsonArray(values.size());
+        values.forEach(array::add);
+        return array;
+    }
+
+    private static void writeCsvRow(BufferedWriter csv, VillagerRecord record) throws IOException {
+        String[] fields = {
+            record.uuid(), record.name(), record.gender(), String.valueOf(record.age()), record.personality(),
+            String.valueOf(record.happiness()), record.hobby(), record.favoriteFood(), String.valueOf(record.birthTime()),
+            record.birthPlace(), String.valueOf(record.alive()), String.valueOf(record.deathTime()),
+            record.spouseId(), record.spouseName(), String.join(";", record.parentIds()),
+            String.join(";", record.childrenIds()), String.join(";", record.childrenNames()),
+            String.join(";", record.professionHistory()), String.valueOf(record.totalTrades()),
+            String.valueOf(record.x()), String.valueOf(record.y()), String.valueOf(record.z()), record.notes()
+        };
+
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) csv.write(',');
+            csv.write(escapeCsv(fields[i]));
+        }
+        csv.newLine();
+    }
+
+    private static String escapeCsv(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
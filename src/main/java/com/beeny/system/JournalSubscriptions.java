@@ -0,0 +1,108 @@
+package com.beeny.system;
+
+import com.beeny.Villagersreborn;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Players with an open journal and the page they are looking at. Every {@link #PUSH_INTERVAL_TICKS} the page
+ * is diffed against the version the player last received and only non-empty changes are pushed, so any
+ * number of changes in between arrive as one update. Server thread only.
+ */
+public class JournalSubscriptions {
+    public static final int PUSH_INTERVAL_TICKS = 20;
+
+    private static final class Subscription {
+        private final int page;
+        private final int pageSize;
+        private long indexId;
+        private long version;
+        private int total = -1;
+
+        private Subscription(int page, int pageSize, long indexId, long version) {
+            this.page = page;
+            this.pageSize = pageSize;
+            this.indexId = indexId;
+            this.version = version;
+        }
+    }
+
+    private static final Map<UUID, Subscription> SUBSCRIPTIONS = new HashMap<>();
+    private static BiConsumer<ServerPlayerEntity, VillagerJournalIndex.Page> sender = (player, page) -> {};
+
+    /** The sender turns a changed page into a packet; the network layer owns the format. */
+    public static void register(BiConsumer<ServerPlayerEntity, VillagerJournalIndex.Page> pageSender) {
+        sender = pageSender;
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) ->
+            server.execute(() -> unsubscribe(handler.getPlayer().getUuid())));
+    }
+
+    /**
+     * Replaces the player's subscription. The version is what the client already has for this page. A page past
+     * the end of the journal is not subscribed to.
+     */
+    public static void subscribe(ServerPlayerEntity player, int page, int pageSize, long indexId, long version) {
+        int pageCount = Math.max(1, (VillagerJournalIndex.get((ServerWorld) player.getWorld()).size() + pageSize - 1) / pageSize);
+        if (page < 0 || pageSize <= 0 || page >= pageCount) {
+            SUBSCRIPTIONS.remove(player.getUuid());
+            return;
+        }
+        SUBSCRIPTIONS.put(player.getUuid(), new Subscription(page, pageSize, indexId, version));
+    }
+
+    public static void unsubscribe(UUID playerId) {
+        SUBSCRIPTIONS.remove(playerId);
+    }
+
+    public static void tick(MinecraftServer server) {
+        if (SUBSCRIPTIONS.isEmpty() || server.getTicks() % PUSH_INTERVAL_TICKS != 0) return;
+
+        Iterator<Map.Entry<UUID, Subscription>> it = SUBSCRIPTIONS.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<UUID, Subscription> entry = it.next();
+            ServerPlayerEntity player = server.getPlayerManager().getPlayer(entry.getKey());
+            if (player == null) {
+                it.remove();
+                continue;
+            }
+
+            Subscription subscription = entry.getValue();
+            VillagerJournalIndex.Page page;
+            try {
+                page = VillagerJournalIndex.get((ServerWorld) player.getWorld())
+                    .page(subscription.page, subscription.pageSize, subscription.indexId, subscription.version);
+            } catch (RuntimeException e) {
+                // One bad subscription must not take the tick down with it
+                Villagersreborn.LOGGER.error("Dropping journal subscription of {}", player.getName().getString(), e);
+                it.remove();
+                continue;
+            }
+
+            // The first round only learns the total; the page itself was just sent as a reply
+            boolean changed = page.reset() || page.ids() != null || !page.rows().isEmpty() || !page.removed().isEmpty()
+                || (subscription.total >= 0 && page.total() != subscription.total);
+            subscription.indexId = page.indexId();
+            subscription.version = page.version();
+            subscription.total = page.total();
+            if (changed) {
+                sender.accept(player, page);
+            }
+        }
+    }
+
+    public static int getSubscriberCount() {
+        return SUBSCRIPTIONS.size();
+    }
+
+    public static void clear() {
+        SUBSCRIPTIONS.clear();
+    }
+}
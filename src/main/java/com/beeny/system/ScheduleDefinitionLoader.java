@@ -0,0 +1,121 @@
+package com.beeny.system;
+
+import com.beeny.Villagersreborn;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import net.fabricmc.fabric.api.resource.ResourceManagerHelper;
+import net.fabricmc.fabric.api.resource.SimpleSynchronousResourceReloadListener;
+import net.minecraft.resource.Resource;
+import net.minecraft.resource.ResourceManager;
+import net.minecraft.resource.ResourceType;
+import net.minecraft.util.Identifier;
+
+import java.io.Reader;
+import java.util.*;
+
+/**
+ * Loads profession schedules from {@code data/<namespace>/villager_schedules/*.json} and hands them to
+ * {@link VillagerScheduleManager}, which compiles them into its runtime tables. A file looks like:
+ * <pre>
+ * {
+ *   "professions": ["minecraft:librarian"],
+ *   "schedule": { "morning": "study", "noon": "work" },
+ *   "activity_weights": { "study": 2.0 }
+ * }
+ * </pre>
+ * Times missing from "schedule" keep the default schedule, "activity_weights" multiplies the base weights.
+ */
+public class ScheduleDefinitionLoader implements SimpleSynchronousResourceReloadListener {
+    private static final String DIRECTORY = "villager_schedules";
+    private static final Identifier ID = Identifier.of(Villagersreborn.MOD_ID, DIRECTORY);
+
+    public record ScheduleDefinition(Identifier source, List<Identifier> professions,
+                                     Map<VillagerScheduleManager.TimeOfDay, VillagerScheduleManager.Activity> schedule,
+                                     Map<VillagerScheduleManager.Activity, Float> activityWeights) {}
+
+    public static void register() {
+        ResourceManagerHelper.get(ResourceType.SERVER_DATA).registerReloadListener(new ScheduleDefinitionLoader());
+    }
+
+    @Override
+    public Identifier getFabricId() {
+        return ID;
+    }
+
+    @Override
+    public void reload(ResourceManager manager) {
+        List<ScheduleDefinition> definitions = new ArrayList<>();
+        // Sorted so that when two files claim a profession the winner does not depend on pack iteration order
+        Map<Identifier, Resource> resources = new TreeMap<>(manager.findResources(DIRECTORY, id -> id.getPath().endsWith(".json")));
+
+        for (Map.Entry<Identifier, Resource> entry : resources.entrySet()) {
+            try (Reader reader = entry.getValue().getReader()) {
+                ScheduleDefinition definition = parse(entry.getKey(), JsonParser.parseReader(reader).getAsJsonObject());
+                if (definition != null) {
+                    definitions.add(definition);
+                }
+            } catch (Exception e) {
+                Villagersreborn.LOGGER.error("Failed to load villager schedule {}", entry.getKey(), e);
+            }
+        }
+
+        VillagerScheduleManager.applyScheduleDefinitions(definitions);
+        Villagersreborn.LOGGER.info("Loaded {} villager schedule definitions", definitions.size());
+    }
+
+    private static ScheduleDefinition parse(Identifier source, JsonObject json) {
+        List<Identifier> professions = new ArrayList<>();
+        if (json.has("professions")) {
+            for (JsonElement element : json.getAsJsonArray("professions")) {
+                Identifier profession = Identifier.tryParse(element.getAsString());
+                if (profession == null) {
+                    Villagersreborn.LOGGER.warn("Invalid profession id '{}' in villager schedule {}", element.getAsString(), source);
+                    continue;
+                }
+                professions.add(profession);
+            }
+        }
+        if (professions.isEmpty()) {
+            Villagersreborn.LOGGER.warn("Villager schedule {} does not list any professions, skipping", source);
+            return null;
+        }
+
+        Map<VillagerScheduleManager.TimeOfDay, VillagerScheduleManager.Activity> schedule =
+            new EnumMap<>(VillagerScheduleManager.TimeOfDay.class);
+        if (json.has("schedule")) {
+            for (Map.Entry<String, JsonElement> entry : json.getAsJsonObject("schedule").entrySet()) {
+                VillagerScheduleManager.TimeOfDay time = parseEnum(VillagerScheduleManager.TimeOfDay.class, entry.getKey());
+                VillagerScheduleManager.Activity activity = parseEnum(VillagerScheduleManager.Activity.class, entry.getValue().getAsString());
+                if (time == null || activity == null) {
+                    Villagersreborn.LOGGER.warn("Ignoring schedule entry '{}: {}' in {}", entry.getKey(), entry.getValue(), source);
+                    continue;
+                }
+                schedule.put(time, activity);
+            }
+        }
+
+        Map<VillagerScheduleManager.Activity, Float> activityWeights = new EnumMap<>(VillagerScheduleManager.Activity.class);
+        if (json.has("activity_weights")) {
+            for (Map.Entry<String, JsonElement> entry : json.getAsJsonObject("activity_weights").entrySet()) {
+                VillagerScheduleManager.Activity activity = parseEnum(VillagerScheduleManager.Activity.class, entry.getKey());
+                float weight = entry.getValue().getAsFloat();
+                if (activity == null || !Float.isFinite(weight) || weight < 0) {
+                    Villagersreborn.LOGGER.warn("Ignoring activity weight '{}: {}' in {}", entry.getKey(), entry.getValue(), source);
+                    continue;
+                }
+                activityWeights.put(activity, weight);
+            }
+        }
+
+        return new ScheduleDefinition(source, List.copyOf(professions), schedule, activityWeights);
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String name) {
+        try {
+            return Enum.valueOf(type, name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
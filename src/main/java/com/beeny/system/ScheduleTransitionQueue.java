@@ -0,0 +1,79 @@
+package com.beeny.system;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+/**
+ * Villagers of one world ordered by the game tick of their next schedule transition.
+ * Rescheduling does not search the heap: the newest due tick per villager is remembered and
+ * older heap entries are skipped when they surface.
+ */
+public class ScheduleTransitionQueue {
+    private record Entry(long dueTick, UUID villagerId) implements Comparable<Entry> {
+        @Override
+        public int compareTo(Entry other) {
+            return Long.compare(dueTick, other.dueTick);
+        }
+    }
+
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>();
+    private final Map<UUID, Long> scheduled = new HashMap<>();
+
+
+    public void schedule(UUID villagerId, long dueTick) {
+        Long previous = scheduled.put(villagerId, dueTick);
+        if (previous == null || previous != dueTick) {
+            queue.add(new Entry(dueTick, villagerId));
+        }
+
+        // Drop superseded entries once they make up most of the heap
+        if (queue.size() > scheduled.size() * 2 + 64) {
+            rebuild();
+        }
+    }
+
+    private void rebuild() {
+        queue.clear();
+        for (Map.Entry<UUID, Long> entry : scheduled.entrySet()) {
+            queue.add(new Entry(entry.getValue(), entry.getKey()));
+        }
+    }
+
+    public void remove(UUID villagerId) {
+        scheduled.remove(villagerId);
+    }
+
+    /** Next villager due at or before the given tick, or null. The villager is no longer scheduled afterwards. */
+    public UUID pollDue(long now) {
+        while (!queue.isEmpty() && queue.peek().dueTick() <= now) {
+            Entry entry = queue.poll();
+            Long due = scheduled.get(entry.villagerId());
+            if (due != null && due == entry.dueTick()) {
+                scheduled.remove(entry.villagerId());
+                return entry.villagerId();
+            }
+        }
+        return null;
+    }
+
+    /** Makes every scheduled villager due now, e.g. after the time of day jumped. */
+    public void rescheduleAll(long now) {
+        scheduled.replaceAll((villagerId, dueTick) -> now);
+        rebuild();
+    }
+
+    public void clear() {
+        queue.clear();
+        scheduled.clear();
+    }
+
+    public int size() {
+        return scheduled.size();
+    }
+
+    public int heapSize() {
+        return queue.size();
+    }
+}
@@ -2,12 +2,17 @@ package com.beeny.system;
 
 import com.beeny.Villagersreborn;
 import com.beeny.data.VillagerData;
+import com.beeny.util.NameRegionTable;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerEntityEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.passive.VillagerEntity;
 import net.minecraft.server.MinecraftServer;
+import net.minecraft.registry.RegistryKey;
 import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
 import net.minecraft.world.chunk.WorldChunk;
 
 import java.util.Map;
@@ -17,8 +22,12 @@ import java.util.concurrent.ConcurrentHashMap;
 public class ServerVillagerManager {
     private static ServerVillagerManager instance;
     private final Map<UUID, VillagerEntity> trackedVillagers = new ConcurrentHashMap<>();
+    // Villagers that unloaded, so packets addressing them by UUID can say where they are
+    private final Map<UUID, LastSeen> lastSeen = new ConcurrentHashMap<>();
     private MinecraftServer server;
 
+    public record LastSeen(RegistryKey<World> world, BlockPos pos, String name) {}
+
     private ServerVillagerManager() {
     }
 
@@ -39,6 +48,18 @@ public class ServerVillagerManager {
         // Track when chunks are loaded/unloaded
         ServerChunkEvents.CHUNK_LOAD.register(this::onChunkLoad);
         ServerChunkEvents.CHUNK_UNLOAD.register(this::onChunkUnload);
+        // The constructor hook tracks villagers before their saved data is read; this sees the saved name and position
+        ServerEntityEvents.ENTITY_LOAD.register((entity, world) -> {
+            if (entity instanceof VillagerEntity villager) {
+                trackVillager(villager);
+            }
+        });
+        ServerEntityEvents.ENTITY_UNLOAD.register((entity, world) -> {
+            // A villager changing dimension is unloaded here and loaded again as a new entity
+            if (entity instanceof VillagerEntity villager && trackedVillagers.get(villager.getUuid()) == villager) {
+                untrackVillager(villager.getUuid());
+            }
+        });
 
         // Clear tracked villagers when server stops
         ServerLifecycleEvents.SERVER_STOPPING.register(this::onServerStopping);
@@ -49,10 +70,7 @@ public class ServerVillagerManager {
             for (ServerWorld world : s.getWorlds()) {
                 for (Entity entity : world.iterateEntities()) {
                     if (entity instanceof VillagerEntity villager) {
-                        VillagerData data = villager.getAttached(Villagersreborn.VILLAGER_DATA);
-                        if (data != null) {
-                            trackedVillagers.put(villager.getUuid(), villager);
-                        }
+                        trackVillager(villager);
                     }
                 }
             }
@@ -69,25 +87,35 @@ public class ServerVillagerManager {
         // When a chunk unloads, clean up any dead references
         trackedVillagers.entrySet().removeIf(entry -> {
             VillagerEntity villager = entry.getValue();
-            return villager == null || villager.isRemoved() || villager.getWorld() != world;
+            boolean stale = villager == null || villager.isRemoved() || villager.getWorld() != world;
+            if (stale && villager != null) {
+                remember(villager);
+                ConversationMemory.forgetVillager(villager.getUuid());
+            }
+            return stale;
         });
     }
     
     private void scanWorldForVillagers(ServerWorld world) {
         // Scan for villagers in the world
         for (Entity entity : world.iterateEntities()) {
-            if (entity instanceof VillagerEntity villager) {
-                VillagerData data = villager.getAttached(Villagersreborn.VILLAGER_DATA);
-                if (data != null && !trackedVillagers.containsKey(villager.getUuid())) {
-                    trackedVillagers.put(villager.getUuid(), villager);
-                    Villagersreborn.LOGGER.debug("Tracking villager: {} ({})", data.getName(), villager.getUuid());
-                }
+            if (entity instanceof VillagerEntity villager && !trackedVillagers.containsKey(villager.getUuid())) {
+                trackVillager(villager);
             }
         }
     }
 
     private void onServerStopping(MinecraftServer server) {
         trackedVillagers.clear();
+        lastSeen.clear();
+        VillagerScheduleManager.clearQueues();
+        VillagerActivityBehavior.clear();
+        ConversationMemory.clear();
+        NameRegionTable.clear();
+        VillageNameAllocator.clear();
+        VillagerJournalIndex.clear();
+        JournalSubscriptions.clear();
+        VillagerEditQueue.clear();
         Villagersreborn.LOGGER.info("Cleared tracked villagers on server stop");
     }
 
@@ -95,6 +123,10 @@ public class ServerVillagerManager {
         VillagerData data = villager.getAttached(Villagersreborn.VILLAGER_DATA);
         if (data != null) {
             trackedVillagers.put(villager.getUuid(), villager);
+            lastSeen.remove(villager.getUuid());
+            FamilyGraphIndex.index(villager.getUuidAsString(), data);
+            VillagerScheduleManager.enqueue(villager);
+            VillageNameAllocator.claim(villager, data.getName());
             Villagersreborn.LOGGER.debug("Tracking new villager: {} ({})", data.getName(), villager.getUuid());
         }
     }
@@ -102,6 +134,9 @@ public class ServerVillagerManager {
     public void untrackVillager(UUID villagerUuid) {
         VillagerEntity removed = trackedVillagers.remove(villagerUuid);
         if (removed != null) {
+            remember(removed);
+            ConversationMemory.forgetVillager(villagerUuid);
+            VillagerScheduleManager.dequeue(removed);
             VillagerData data = removed.getAttached(Villagersreborn.VILLAGER_DATA);
             if (data != null) {
                 Villagersreborn.LOGGER.debug("Untracking villager: {} ({})", data.getName(), villagerUuid);
@@ -109,10 +144,34 @@ public class ServerVillagerManager {
         }
     }
 
+    private void remember(VillagerEntity villager) {
+        // Dead or discarded villagers are gone for good; anything else is just unloaded
+        Entity.RemovalReason reason = villager.getRemovalReason();
+        boolean gone = reason != null ? reason.shouldDestroy() : villager.isDead();
+        if (gone) {
+            lastSeen.remove(villager.getUuid());
+            return;
+        }
+        VillagerData data = villager.getAttached(Villagersreborn.VILLAGER_DATA);
+        lastSeen.put(villager.getUuid(), new LastSeen(villager.getWorld().getRegistryKey(), villager.getBlockPos(),
+            data != null ? data.getName() : ""));
+    }
+
     public VillagerEntity getVillager(UUID uuid) {
         return trackedVillagers.get(uuid);
     }
 
+    /** The villager if it is loaded right now; otherwise {@link #getLastSeen} may know where it went. */
+    public VillagerEntity getLoadedVillager(UUID uuid) {
+        VillagerEntity villager = trackedVillagers.get(uuid);
+        return villager != null && !villager.isRemoved() ? villager : null;
+    }
+
+    /** Where an unloaded villager was when it was last tracked, or null. */
+    public LastSeen getLastSeen(UUID uuid) {
+        return lastSeen.get(uuid);
+    }
+
     public Iterable<VillagerEntity> getAllTrackedVillagers() {
         return trackedVillagers.values();
     }
@@ -0,0 +1,153 @@
+package com.beeny.system;
+
+import com.beeny.util.VillagerNames;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import net.minecraft.entity.passive.VillagerEntity;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+
+import java.util.*;
+
+/**
+ * Hands out villager names that are unique within a village. Names in use are kept per 128-block cell as
+ * 64-bit hashes, so checking a candidate is one hash lookup. When every first name and surname combination
+ * of a region is taken, names get a middle initial ("John B. Smith"), which keeps first name and surname
+ * parsing intact. Server thread only.
+ */
+public class VillageNameAllocator {
+    private static final int CELL_SHIFT = 7; // 128x128 block cells, about one village
+    private static final int RANDOM_ATTEMPTS = 8;
+
+    private record CellKey(RegistryKey<World> world, long cell) {}
+
+    private record Claim(CellKey cell, long hash) {}
+
+    private static final class Cell {
+        // Name hash -> number of villagers using it; loaded saves may already contain duplicates
+        private final Long2IntOpenHashMap names = new Long2IntOpenHashMap();
+        private int nextInitial;
+    }
+
+    private static final Map<CellKey, Cell> CELLS = new HashMap<>();
+    private static final Map<UUID, Claim> CLAIMS = new HashMap<>();
+    private static final Random RANDOM = new Random();
+
+
+    /** Picks an unused name for the villager's village and claims it. A non-empty surname is kept as given. */
+    public static String allocate(VillagerEntity villager, boolean isMale, String inheritedSurname) {
+        release(villager.getUuid());
+        World world = villager.getWorld();
+        BlockPos pos = villager.getBlockPos();
+        CellKey cellKey = cellKey(world, pos);
+        Cell cell = CELLS.computeIfAbsent(cellKey, key -> new Cell());
+
+        String region = VillagerNames.getRegionKey(world, pos);
+        List<String> firstNames = VillagerNames.getFirstNames(region, isMale);
+        List<String> surnames = inheritedSurname != null && !inheritedSurname.isBlank()
+            ? List.of(inheritedSurname.trim()) : VillagerNames.getSurnames(region);
+
+        String name = pickUnused(cell, firstNames, surnames);
+        claim(villager.getUuid(), cellKey, name);
+        return name;
+    }
+
+    private static String pickUnused(Cell cell, List<String> firstNames, List<String> surnames) {
+        int combinations = firstNames.size() * surnames.size();
+        if (combinations == 0) return "Unnamed Villager";
+
+        // Plenty of free names in a normal village, so a few random draws almost always succeed
+        for (int attempt = 0; attempt < RANDOM_ATTEMPTS; attempt++) {
+            int combination = RANDOM.nextInt(combinations);
+            String candidate = combine(firstNames, surnames, combination, null);
+            if (!cell.names.containsKey(hash(candidate))) return candidate;
+        }
+
+        int offset = RANDOM.nextInt(combinations);
+        for (int i = 0; i < combinations; i++) {
+            String candidate = combine(firstNames, surnames, (offset + i) % combinations, null);
+            if (!cell.names.containsKey(hash(candidate))) return candidate;
+        }
+
+        // Pool exhausted: the per-cell counter moves on, so this is usually the first candidate
+        while (true) {
+            String candidate = combine(firstNames, surnames, RANDOM.nextInt(combinations), initials(cell.nextInitial++));
+            if (!cell.names.containsKey(hash(candidate))) return candidate;
+        }
+    }
+
+    private static String combine(List<String> firstNames, List<String> surnames, int combination, String initial) {
+        String firstName = firstNames.get(combination / surnames.size());
+        String surname = surnames.get(combination % surnames.size());
+        return initial == null ? firstName + " " + surname : firstName + " " + initial + ". " + surname;
+    }
+
+    /** A, B, ..., Z, AA, AB, ... */
+    private static String initials(int index) {
+        StringBuilder letters = new StringBuilder();
+        int remaining = index;
+        do {
+            letters.insert(0, (char) ('A' + remaining % 26));
+            remaining = remaining / 26 - 1;
+        } while (remaining >= 0);
+        return letters.toString();
+    }
+
+    /** Records a name the villager already has, e.g. when it is loaded or renamed. */
+    public static void claim(VillagerEntity villager, String name) {
+        if (name == null || name.isEmpty()) return;
+
+        CellKey cellKey = cellKey(villager.getWorld(), villager.getBlockPos());
+        Claim existing = CLAIMS.get(villager.getUuid());
+        // Already claimed under this name; keep the original cell even if the villager wandered off
+        if (existing != null && existing.hash() == hash(name)) return;
+
+        claim(villager.getUuid(), cellKey, name);
+    }
+
+    private static void claim(UUID villagerId, CellKey cellKey, String name) {
+        // Release first: it may drop the cell when this villager was its only resident
+        release(villagerId);
+        long hash = hash(name);
+        CELLS.computeIfAbsent(cellKey, key -> new Cell()).names.addTo(hash, 1);
+        CLAIMS.put(villagerId, new Claim(cellKey, hash));
+    }
+
+    public static void release(UUID villagerId) {
+        Claim claim = CLAIMS.remove(villagerId);
+        if (claim == null) return;
+
+        Cell cell = CELLS.get(claim.cell());
+        if (cell == null) return;
+        if (cell.names.addTo(claim.hash(), -1) <= 1) {
+            cell.names.remove(claim.hash());
+        }
+        if (cell.names.isEmpty()) {
+            CELLS.remove(claim.cell());
+        }
+    }
+
+    public static void clear() {
+        CELLS.clear();
+        CLAIMS.clear();
+    }
+
+    public static int getClaimCount() {
+        return CLAIMS.size();
+    }
+
+    private static CellKey cellKey(World world, BlockPos pos) {
+        return new CellKey(world.getRegistryKey(), ChunkPos.toLong(pos.getX() >> CELL_SHIFT, pos.getZ() >> CELL_SHIFT));
+    }
+
+    // FNV-1a over the lowercased name, matching the case-insensitive /villager find
+    private static long hash(String name) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < name.length(); i++) {
+            hash ^= Character.toLowerCase(name.charAt(i));
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,171 @@
+package com.beeny.system;
+
+import net.minecraft.entity.ai.brain.MemoryModuleType;
+import net.minecraft.entity.ai.brain.WalkTarget;
+import net.minecraft.entity.passive.VillagerEntity;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.registry.tag.PointOfInterestTypeTags;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.GlobalPos;
+import net.minecraft.village.VillagerProfession;
+import net.minecraft.world.World;
+import net.minecraft.world.poi.PointOfInterest;
+import net.minecraft.world.poi.PointOfInterestStorage;
+import net.minecraft.world.poi.PointOfInterestType;
+import net.minecraft.world.poi.PointOfInterestTypes;
+
+import java.util.*;
+
+/**
+ * Turns schedule activities into walk targets: beds for SLEEP, job sites for WORK and the meeting point for SOCIALIZE.
+ * A villager's own brain memories are used first. Otherwise one POI query per village cell fills a cache
+ * that every villager in the cell shares until the world's time slot changes. Vanilla brain tasks replace the
+ * walk target on their next update, so the schedule applies it again every {@link #TARGET_REFRESH_TICKS}
+ * until the villager arrives.
+ */
+public class VillagerActivityBehavior {
+    private static final int CELL_SHIFT = 6; // 64x64 block cells
+    private static final int QUERY_RADIUS = 80; // Reaches every corner of the cell plus a margin
+    private static final float WALK_SPEED = 0.6f;
+    public static final long TARGET_REFRESH_TICKS = 40;
+
+    private record JobSite(BlockPos pos, RegistryEntry<PointOfInterestType> type) {}
+
+    private record CellPois(List<BlockPos> beds, List<BlockPos> meetingPoints, List<JobSite> jobSites) {}
+
+    private static final class WorldPoiCache {
+        private long slot = Long.MIN_VALUE;
+        private final Map<Long, CellPois> cells = new HashMap<>();
+    }
+
+    private static final Map<RegistryKey<World>, WorldPoiCache> CACHES = new HashMap<>();
+    private static int queryCount;
+
+
+    /** Points the villager at its activity's target and returns whether it is still on its way there. */
+    public static boolean apply(VillagerEntity villager, VillagerScheduleManager.Activity activity) {
+        if (!(villager.getWorld() instanceof ServerWorld world)) return false;
+
+        BlockPos target = switch (activity) {
+            case SLEEP -> findTarget(villager, world, MemoryModuleType.HOME, activity);
+            case WORK -> findTarget(villager, world, MemoryModuleType.JOB_SITE, activity);
+            case SOCIALIZE -> findTarget(villager, world, MemoryModuleType.MEETING_POINT, activity);
+            default -> null;
+        };
+
+        if (target == null) return false;
+
+        int completionRange = activity == VillagerScheduleManager.Activity.SOCIALIZE ? 3 : 1;
+        // Once there, leave the villager to its vanilla tasks (sleeping, working the job site, gossiping)
+        if (villager.isSleeping() || villager.getBlockPos().isWithinDistance(target, completionRange + 2)) return false;
+
+        Optional<WalkTarget> current = villager.getBrain().getOptionalRegisteredMemory(MemoryModuleType.WALK_TARGET);
+        if (current == null || current.isEmpty() || !current.get().getLookTarget().getBlockPos().equals(target)) {
+            villager.getBrain().remember(MemoryModuleType.WALK_TARGET, new WalkTarget(target, WALK_SPEED, completionRange));
+        }
+        return true;
+    }
+
+    private static BlockPos findTarget(VillagerEntity villager, ServerWorld world,
+                                       MemoryModuleType<GlobalPos> memory, VillagerScheduleManager.Activity activity) {
+        Optional<GlobalPos> remembered = villager.getBrain().getOptionalRegisteredMemory(memory);
+        if (remembered != null && remembered.isPresent() && remembered.get().dimension() == world.getRegistryKey()) {
+            return remembered.get().pos();
+        }
+
+        CellPois pois = getCellPois(world, villager.getBlockPos());
+        return switch (activity) {
+            case SLEEP -> nearest(pois.beds(), villager.getBlockPos());
+            case SOCIALIZE -> nearest(pois.meetingPoints(), villager.getBlockPos());
+            case WORK -> nearestJobSite(pois.jobSites(), villager);
+            default -> null;
+        };
+    }
+
+    private static CellPois getCellPois(ServerWorld world, BlockPos pos) {
+        WorldPoiCache cache = CACHES.computeIfAbsent(world.getRegistryKey(), key -> new WorldPoiCache());
+
+        // POIs barely change within a time slot, so each cell is queried at most once per slot
+        long timeOfDay = world.getTimeOfDay();
+        long slot = Math.floorDiv(timeOfDay, 24000L) * VillagerScheduleManager.TimeOfDay.values().length
+            + VillagerScheduleManager.TimeOfDay.fromWorldTime(timeOfDay).ordinal();
+        if (cache.slot != slot) {
+            cache.slot = slot;
+            cache.cells.clear();
+        }
+
+        int cellX = pos.getX() >> CELL_SHIFT;
+        int cellZ = pos.getZ() >> CELL_SHIFT;
+        return cache.cells.computeIfAbsent(ChunkPos.toLong(cellX, cellZ), key -> queryCell(world, cellX, cellZ, pos.getY()));
+    }
+
+    private static CellPois queryCell(ServerWorld world, int cellX, int cellZ, int y) {
+        queryCount++;
+        int half = 1 << (CELL_SHIFT - 1);
+        BlockPos center = new BlockPos((cellX << CELL_SHIFT) + half, y, (cellZ << CELL_SHIFT) + half);
+
+        List<BlockPos> beds = new ArrayList<>();
+        List<BlockPos> meetingPoints = new ArrayList<>();
+        List<JobSite> jobSites = new ArrayList<>();
+        world.getPointOfInterestStorage().getInCircle(
+            type -> type.matchesKey(PointOfInterestTypes.MEETING) || type.isIn(PointOfInterestTypeTags.ACQUIRABLE_JOB_SITE),
+            center, QUERY_RADIUS, PointOfInterestStorage.OccupationStatus.ANY
+        ).forEach(poi -> sort(poi, meetingPoints, jobSites));
+        // Beds other villagers have claimed are off limits; job sites and meeting points are only visited
+        world.getPointOfInterestStorage().getInCircle(
+            type -> type.matchesKey(PointOfInterestTypes.HOME),
+            center, QUERY_RADIUS, PointOfInterestStorage.OccupationStatus.HAS_SPACE
+        ).forEach(poi -> beds.add(poi.getPos()));
+
+        return new CellPois(beds, meetingPoints, jobSites);
+    }
+
+    private static void sort(PointOfInterest poi, List<BlockPos> meetingPoints, List<JobSite> jobSites) {
+        RegistryEntry<PointOfInterestType> type = poi.getType();
+        if (type.matchesKey(PointOfInterestTypes.MEETING)) {
+            meetingPoints.add(poi.getPos());
+        } else {
+            jobSites.add(new JobSite(poi.getPos(), type));
+        }
+    }
+
+    private static BlockPos nearest(List<BlockPos> candidates, BlockPos from) {
+        BlockPos best = null;
+        double bestDistance = Double.MAX_VALUE;
+        for (BlockPos candidate : candidates) {
+            double distance = candidate.getSquaredDistance(from);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    private static BlockPos nearestJobSite(List<JobSite> jobSites, VillagerEntity villager) {
+        VillagerProfession profession = villager.getVillagerData().profession().value();
+        BlockPos from = villager.getBlockPos();
+        BlockPos best = null;
+        double bestDistance = Double.MAX_VALUE;
+        for (JobSite site : jobSites) {
+            if (!profession.acquirableWorkstation().test(site.type())) continue;
+            double distance = site.pos().getSquaredDistance(from);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = site.pos();
+            }
+        }
+        return best;
+    }
+
+    public static void clear() {
+        CACHES.clear();
+    }
+
+    public static int getQueryCount() {
+        return queryCount;
+    }
+}
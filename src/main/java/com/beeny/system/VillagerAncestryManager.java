@@ -3,11 +3,8 @@ package com.beeny.system;
 import com.beeny.data.VillagerData;
 import com.beeny.util.VillagerNames;
 import net.minecraft.entity.passive.VillagerEntity;
-import net.minecraft.util.math.BlockPos;
-import net.minecraft.world.World;
 
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
 
 public class VillagerAncestryManager {
     
@@ -33,202 +30,177 @@ public class VillagerAncestryManager {
         "The Unity Pact of", "Golden Season of", "Peace Treaty of"
     };
     
-    /**
-     * Generate fictional ancestors for a villager up to a specified number of generations
-     */
-    public static Map<String, VillagerData> generateAncestors(VillagerEntity villager, int generations) {
-        Map<String, VillagerData> ancestors = new HashMap<>();
-        VillagerData villagerData = villager.getAttached(com.beeny.Villagersreborn.VILLAGER_DATA);
-        
-        if (villagerData == null || generations <= 0) return ancestors;
-        
-        // Generate parents first
-        List<VillagerData> parents = generateParents(villager, villagerData);
-        for (VillagerData parent : parents) {
-            ancestors.put(parent.getName(), parent);
-        }
-        
-        // Generate grandparents and beyond
-        if (generations > 1) {
-            for (VillagerData parent : parents) {
-                Map<String, VillagerData> parentAncestors = generateAncestorsRecursive(parent, generations - 1);
-                ancestors.putAll(parentAncestors);
+    public static final int MAX_GENERATIONS = 8;
+    private static final int MAX_CACHED_ANCESTORS = 1024;
+    private static final long NAME_SALT = 0x5DEECE66DL;
+    
+    // Ancestors are addressed by a heap-style path: 1 is the villager, 2n is the mother of n, 2n + 1 the father.
+    // Surnames and first names come from the villager's name and region, so a rename starts a new history.
+    private record AncestorKey(UUID descendantId, String name, String regionKey, long path) {}
+    
+    /** The living villager an ancestry tree hangs from. */
+    public record AncestryRoot(UUID villagerId, String name, String personality, long birthTime, String birthPlace, String regionKey) {
+        public static AncestryRoot of(VillagerEntity villager) {
+            VillagerData data = villager.getAttached(com.beeny.Villagersreborn.VILLAGER_DATA);
+            String name = data != null ? data.getName() : "";
+            String region = VillagerNames.getRegionForSurname(VillagerNames.extractSurname(name));
+            if (region == null) {
+                region = VillagerNames.getRegionKey(villager.getWorld(), villager.getBlockPos());
             }
+            long birthTime = data != null ? data.getBirthTime() : ChronologyManager.UNKNOWN_TIME;
+            return new AncestryRoot(
+                villager.getUuid(), name,
+                data != null ? data.getPersonality() : "Friendly",
+                ChronologyManager.isKnown(birthTime) ? birthTime : ChronologyManager.now(villager.getWorld()),
+                data != null ? data.getBirthPlace() : "",
+                region
+            );
         }
-        
-        return ancestors;
     }
     
-    private static Map<String, VillagerData> generateAncestorsRecursive(VillagerData child, int remainingGenerations) {
-        Map<String, VillagerData> ancestors = new HashMap<>();
-        
-        if (remainingGenerations <= 0) return ancestors;
-        
-        // Generate parents for this child
-        List<VillagerData> parents = generateParentsFromData(child);
-        for (VillagerData parent : parents) {
-            ancestors.put(parent.getName(), parent);
+    /** A generated ancestor. The data is shared through the cache and must be treated as read-only. */
+    public record Ancestor(UUID descendantId, long path, VillagerData data) {
+        public int generation() {
+            return 63 - Long.numberOfLeadingZeros(path);
         }
         
-        // Continue recursively
-        if (remainingGenerations > 1) {
-            for (VillagerData parent : parents) {
-                Map<String, VillagerData> parentAncestors = generateAncestorsRecursive(parent, remainingGenerations - 1);
-                ancestors.putAll(parentAncestors);
-            }
+        public boolean isMaternal() {
+            return (path & 1L) == 0;
         }
         
-        return ancestors;
+        public String getId() {
+            return ancestorId(descendantId, path);
+        }
     }
     
-    private static List<VillagerData> generateParents(VillagerEntity villager, VillagerData villagerData) {
-        List<VillagerData> parents = new ArrayList<>();
-        World world = villager.getWorld();
-        BlockPos pos = villager.getBlockPos();
-        
-        // Generate mother
-        VillagerData mother = generateAncestor(villagerData, "female", 1, world, pos);
-        parents.add(mother);
-        
-        // Generate father
-        VillagerData father = generateAncestor(villagerData, "male", 1, world, pos);
-        parents.add(father);
-        
-        // Make them married to each other
-        mother.marry(father.getName(), "ancestor_" + father.getName().hashCode());
-        father.marry(mother.getName(), "ancestor_" + mother.getName().hashCode());
-        
-        // Add child relationship
-        mother.addChild(villager.getUuidAsString());
-        father.addChild(villager.getUuidAsString());
-        
-        return parents;
+    private static final Map<AncestorKey, Ancestor> ANCESTOR_CACHE = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<AncestorKey, Ancestor> eldest) {
+            return size() > MAX_CACHED_ANCESTORS;
+        }
+    };
+    
+    /**
+     * Ancestors of a villager up to the given number of generations, nearest generation first.
+     * Nodes are generated on first access and the same villager always gets the same history.
+     */
+    public static List<Ancestor> generateAncestors(VillagerEntity villager, int generations) {
+        return expand(AncestryRoot.of(villager), generations);
     }
     
-    private static List<VillagerData> generateParentsFromData(VillagerData child) {
-        List<VillagerData> parents = new ArrayList<>();
-        
-        // Calculate generation level based on birth time
-        // Use a fixed time reference for consistency
-        long currentTime = System.currentTimeMillis(); // In a real implementation, this would use world.getTime()
-        long childAge = currentTime - child.getBirthTime();
-        int generationLevel = (int)(childAge / (1000L * 60 * 60 * 24 * 365 * 25)) + 1; // 25 years per generation
-        
-        // Generate mother
-        VillagerData mother = generateAncestorFromChild(child, "female", generationLevel);
-        parents.add(mother);
-        
-        // Generate father  
-        VillagerData father = generateAncestorFromChild(child, "male", generationLevel);
-        parents.add(father);
-        
-        // Make them married
-        mother.marry(father.getName(), "ancestor_" + father.getName().hashCode());
-        father.marry(mother.getName(), "ancestor_" + mother.getName().hashCode());
-        
-        return parents;
+    public static List<Ancestor> expand(AncestryRoot root, int generations) {
+        int depth = Math.min(generations, MAX_GENERATIONS);
+        if (depth <= 0) return List.of();
+        
+        List<Ancestor> ancestors = new ArrayList<>((1 << (depth + 1)) - 2);
+        long end = 1L << (depth + 1);
+        for (long path = 2; path < end; path++) {
+            ancestors.add(getAncestor(root, path));
+        }
+        return ancestors;
     }
     
-    private static VillagerData generateAncestor(VillagerData descendant, String gender, int generationsBack, World world, BlockPos pos) {
-        Random random = ThreadLocalRandom.current();
-        
-        // Generate name based on region
-        String name = VillagerNames.generateNameForProfession(world, pos);
-        if (gender.equals("female")) {
-            // Simple way to feminize names - could be enhanced
-            name = generateFeminineName(name, world, pos);
+    public static List<Ancestor> getParents(AncestryRoot root, long path) {
+        if (path >= (1L << MAX_GENERATIONS)) return List.of();
+        return List.of(getAncestor(root, path << 1), getAncestor(root, (path << 1) | 1L));
+    }
+    
+    public static Ancestor getAncestor(AncestryRoot root, long path) {
+        if (path < 2 || path >= (1L << (MAX_GENERATIONS + 1))) {
+            throw new IllegalArgumentException("Invalid ancestor path: " + path);
         }
         
-        // Calculate birth time (years ago)
-        long yearsAgoMin = generationsBack * 20 + random.nextInt(10);
-        long yearsAgoMax = generationsBack * 35 + random.nextInt(15);
-        long yearsAgo = yearsAgoMin + random.nextInt((int)(yearsAgoMax - yearsAgoMin + 1));
-        // Use a fixed time reference for consistency
-        long birthTime = System.currentTimeMillis() - (yearsAgo * 365L * 24 * 60 * 60 * 1000); // In a real implementation, this would use world.getTime()
-        
-        // Generate personality influenced by descendant
-        String personality = generateInheritedPersonality(descendant.getPersonality(), random);
-        
-        // Age and other attributes
-        int age = (int)(yearsAgo * 365 + random.nextInt(365 * 5)); // Add some variation
-        int happiness = 40 + random.nextInt(60); // Ancestors were generally content
-        
-        // Historical profession
-        String profession = getHistoricalProfession(generationsBack, random);
-        List<String> professionHistory = List.of(profession);
+        AncestorKey key = new AncestorKey(root.villagerId(), root.name(), root.regionKey(), path);
+        synchronized (ANCESTOR_CACHE) {
+            Ancestor cached = ANCESTOR_CACHE.get(key);
+            if (cached != null) return cached;
+        }
         
-        // Generate historical birth place
-        String birthPlace = generateHistoricalBirthPlace(generationsBack, world, pos, random);
-        
-        // Create ancestor data
-        VillagerData ancestor = new VillagerData(
-            name, age, gender, personality, happiness, 
-            random.nextInt(50), "", professionHistory,
-            new HashMap<>(), new ArrayList<>(), "", "",
-            new ArrayList<>(), new ArrayList<>(), 
-            "", getHistoricalHobby(random), birthTime, birthPlace,
-            generateHistoricalNotes(generationsBack, random), 
-            birthTime + (65L + random.nextInt(20)) * 365 * 24 * 60 * 60 * 1000, // Death time (lived 65-85 years)
-            false // Ancestors are not alive
-        );
+        // The child is generated (or fetched) first so traits flow down the same path every time
+        long childPath = path >> 1;
+        VillagerData child = childPath == 1 ? null : getAncestor(root, childPath).data();
+        Ancestor ancestor = new Ancestor(root.villagerId(), path, generateAncestor(root, child, path));
         
+        synchronized (ANCESTOR_CACHE) {
+            ANCESTOR_CACHE.putIfAbsent(key, ancestor);
+        }
         return ancestor;
     }
     
-    private static VillagerData generateAncestorFromChild(VillagerData child, String gender, int generationLevel) {
-        Random random = ThreadLocalRandom.current();
-        
-        // Generate name with similar cultural background
-        String name = generateCulturalName(child.getName(), gender, random);
-        
-        // Calculate birth time based on generation
-        long parentAgeAtBirth = 20 + random.nextInt(15); // Parents were 20-35 when child was born
-        long birthTime = child.getBirthTime() - (parentAgeAtBirth * 365L * 24 * 60 * 60 * 1000);
-        
-        // Inherit some personality traits
-        String personality = generateInheritedPersonality(child.getPersonality(), random);
-        
-        int age = (int)((System.currentTimeMillis() - birthTime) / (1000L * 60 * 60 * 24 * 365));
+    public static int getCachedAncestorCount() {
+        synchronized (ANCESTOR_CACHE) {
+            return ANCESTOR_CACHE.size();
+        }
+    }
+    
+    public static String ancestorId(UUID descendantId, long path) {
+        return "ancestor:" + descendantId + ":" + path;
+    }
+    
+    private static long seedFor(UUID villagerId, long path) {
+        long seed = villagerId.getMostSignificantBits() ^ Long.rotateLeft(villagerId.getLeastSignificantBits(), 29);
+        seed ^= path * 0x9E3779B97F4A7C15L;
+        seed ^= seed >>> 31;
+        return seed * 0xBF58476D1CE4E5B9L;
+    }
+    
+    // Names come from their own stream so a node can name its partner without generating the partner
+    private static String generateAncestorName(AncestryRoot root, String childName, long path) {
+        Random random = new Random(seedFor(root.villagerId(), path) ^ NAME_SALT);
+        boolean isMale = (path & 1L) == 1;
+        String firstName = VillagerNames.generateFirstName(root.regionKey(), isMale, random);
+        
+        String childSurname = VillagerNames.extractSurname(childName);
+        String surname = isMale && !childSurname.isEmpty()
+            ? childSurname
+            : VillagerNames.generateSurname(root.regionKey(), random);
+        return firstName + " " + surname;
+    }
+    
+    private static VillagerData generateAncestor(AncestryRoot root, VillagerData child, long path) {
+        Random random = new Random(seedFor(root.villagerId(), path));
+        int generation = 63 - Long.numberOfLeadingZeros(path);
+        boolean isMale = (path & 1L) == 1;
+        
+        String childName = child != null ? child.getName() : root.name();
+        String childPersonality = child != null ? child.getPersonality() : root.personality();
+        long childBirthTime = child != null ? child.getBirthTime() : root.birthTime();
+        String childBirthPlace = child != null ? child.getBirthPlace() : root.birthPlace();
+        String childId = childIdFor(root, path);
+        
+        String name = generateAncestorName(root, childName, path);
+        String spouseName = generateAncestorName(root, childName, path ^ 1L);
+        
+        // Parents were 20-35 when the child was born and lived 60-85 years
+        long parentAgeAtBirth = 20 + random.nextInt(16);
+        long lifespan = 60 + random.nextInt(26);
+        long birthTime = childBirthTime - parentAgeAtBirth * ChronologyManager.TICKS_PER_YEAR;
+        long deathTime = birthTime + lifespan * ChronologyManager.TICKS_PER_YEAR;
+        
+        String personality = generateInheritedPersonality(childPersonality, random);
         int happiness = 40 + random.nextInt(60);
-        
-        String profession = getHistoricalProfession(generationLevel, random);
-        String birthPlace = generateAncestralBirthPlace(child.getBirthPlace(), generationLevel, random);
+        String profession = getHistoricalProfession(generation, random);
+        String birthPlace = childBirthPlace.isEmpty()
+            ? generateHistoricalBirthPlace(generation, random)
+            : generateAncestralBirthPlace(childBirthPlace, generation, random);
         
         VillagerData ancestor = new VillagerData(
-            name, age, gender, personality, happiness,
+            name, (int) lifespan, isMale ? "Male" : "Female", personality, happiness,
             random.nextInt(100), "", List.of(profession),
-            new HashMap<>(), new ArrayList<>(), "", "",
-            new ArrayList<>(), new ArrayList<>(),
+            new HashMap<>(), new ArrayList<>(), spouseName, ancestorId(root.villagerId(), path ^ 1L),
+            List.of(childId), List.of(childName),
             "", getHistoricalHobby(random), birthTime, birthPlace,
-            generateHistoricalNotes(generationLevel, random),
-            birthTime + (60L + random.nextInt(25)) * 365 * 24 * 60 * 60 * 1000,
-            false
+            generateHistoricalNotes(generation, random),
+            deathTime,
+            false // Ancestors are not alive
         );
         
         return ancestor;
     }
     
-    private static String generateFeminineName(String baseName, World world, BlockPos pos) {
-        // Extract surname and generate feminine first name
-        String[] parts = baseName.split(" ");
-        if (parts.length > 1) {
-            return VillagerNames.generateNameForProfession(world, pos).split(" ")[0] + " " + parts[parts.length - 1];
-        }
-        return baseName + "a"; // Simple feminization
-    }
-    
-    private static String generateCulturalName(String childName, String gender, Random random) {
-        String[] parts = childName.split(" ");
-        String surname = parts.length > 1 ? parts[parts.length - 1] : "Ancestor";
-        
-        String[] maleNames = {"Aldric", "Bran", "Cedric", "Dorian", "Edmund", "Finn", "Gareth", "Harold"};
-        String[] femaleNames = {"Aria", "Beatrice", "Clara", "Diana", "Elena", "Fiona", "Grace", "Helena"};
-        
-        String firstName = gender.equals("female") ? 
-            femaleNames[random.nextInt(femaleNames.length)] :
-            maleNames[random.nextInt(maleNames.length)];
-            
-        return firstName + " " + surname;
+    private static String childIdFor(AncestryRoot root, long path) {
+        long childPath = path >> 1;
+        return childPath == 1 ? root.villagerId().toString() : ancestorId(root.villagerId(), childPath);
     }
     
     private static String generateInheritedPersonality(String childPersonality, Random random) {
@@ -250,7 +222,7 @@ public class VillagerAncestryManager {
         return recentProfessions[random.nextInt(recentProfessions.length)];
     }
     
-    private static String generateHistoricalBirthPlace(int generationsBack, World world, BlockPos pos, Random random) {
+    private static String generateHistoricalBirthPlace(int generationsBack, Random random) {
         String period = getHistoricalPeriod(generationsBack);
         String[] locations = {"Old Village", "Ancient Settlement", "Trading Post", "Sacred Grove", "Stone Circle", "River Crossing"};
         return locations[random.nextInt(locations.length)] + " (" + period + ")";
@@ -288,17 +260,15 @@ public class VillagerAncestryManager {
     }
     
     /**
-     * Format a timestamp into a readable date for the family tree
+     * Format a world time into a readable date for the family tree
      */
-    public static String formatHistoricalDate(long timestamp) {
-        if (timestamp == 0) return "Unknown";
+    public static String formatHistoricalDate(long time) {
+        if (!ChronologyManager.isKnown(time)) return "Unknown";
         
-        // Use a fixed time reference for consistency
-        long currentTime = System.currentTimeMillis(); // In a real implementation, this would use world.getTime()
-        long yearsAgo = (currentTime - timestamp) / (1000L * 60 * 60 * 24 * 365);
+        long yearsAgo = ChronologyManager.yearsAgo(time);
+        String date = ChronologyManager.formatDate(time);
         
-        if (yearsAgo < 1) return "This year";
-        if (yearsAgo < 5) return yearsAgo + " years ago";
+        if (yearsAgo < 1) return date;
         if (yearsAgo < 20) return yearsAgo + " years ago";
         if (yearsAgo < 50) return yearsAgo + " years ago (Recent Past)";
         if (yearsAgo < 100) return yearsAgo + " years ago (Classical Era)";
@@ -310,12 +280,10 @@ public class VillagerAncestryManager {
      * Get a user-friendly age description
      */
     public static String getAgeDescription(long birthTime, long deathTime, boolean isAlive) {
-        if (birthTime == 0) return "Unknown age";
+        if (!ChronologyManager.isKnown(birthTime)) return "Unknown age";
         
-        // Use a fixed time reference for consistency
-        long currentTime = System.currentTimeMillis(); // In a real implementation, this would use world.getTime()
-        long endTime = isAlive ? currentTime : deathTime;
-        long ageInYears = (endTime - birthTime) / (1000L * 60 * 60 * 24 * 365);
+        long endTime = isAlive || !ChronologyManager.isKnown(deathTime) ? ChronologyManager.getCurrentTick() : deathTime;
+        long ageInYears = Math.max(0, ChronologyManager.yearsBetween(birthTime, endTime));
         
         if (isAlive) {
             return ageInYears + " years old";
@@ -323,4 +291,4 @@ public class VillagerAncestryManager {
             return "Lived " + ageInYears + " years";
         }
     }
-}
\ No newline at end of file
+}
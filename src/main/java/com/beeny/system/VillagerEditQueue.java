@@ -0,0 +1,84 @@
+package com.beeny.system;
+
+import com.beeny.Villagersreborn;
+import com.beeny.data.VillagerData;
+import net.minecraft.entity.passive.VillagerEntity;
+import net.minecraft.server.MinecraftServer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Applies validated villager edits a few at a time so a large batch never stalls a tick. Batches run in the
+ * order they were submitted and share one budget of {@link #EDITS_PER_TICK}. A villager that unloads or dies
+ * between validation and its turn is reported back instead of applied. Server thread only.
+ */
+public class VillagerEditQueue {
+    public static final int EDITS_PER_TICK = 32;
+
+    /** One change to one villager. {@code index} is its position in the request, echoed in the result. */
+    public record Edit(int index, UUID villagerId, BiConsumer<VillagerEntity, VillagerData> change) {}
+
+    /** What happened to a batch: how many edits landed and the indexes of those whose villager was gone. */
+    public record Result(int applied, List<Integer> missing) {}
+
+    private static final class Batch {
+        private final List<Edit> edits;
+        private final Consumer<Result> onDone;
+        private final List<Integer> missing = new ArrayList<>();
+        private int next;
+        private int applied;
+
+        private Batch(List<Edit> edits, Consumer<Result> onDone) {
+            this.edits = edits;
+            this.onDone = onDone;
+        }
+    }
+
+    private static final Deque<Batch> BATCHES = new ArrayDeque<>();
+
+    public static void submit(List<Edit> edits, Consumer<Result> onDone) {
+        BATCHES.add(new Batch(List.copyOf(edits), onDone));
+    }
+
+    public static void tick(MinecraftServer server) {
+        int budget = EDITS_PER_TICK;
+        while (budget > 0 && !BATCHES.isEmpty()) {
+            Batch batch = BATCHES.peek();
+            while (budget > 0 && batch.next < batch.edits.size()) {
+                Edit edit = batch.edits.get(batch.next++);
+                budget--;
+
+                VillagerEntity villager = ServerVillagerManager.getInstance().getLoadedVillager(edit.villagerId());
+                VillagerData data = villager != null ? villager.getAttached(Villagersreborn.VILLAGER_DATA) : null;
+                if (data == null) {
+                    batch.missing.add(edit.index());
+                    continue;
+                }
+                edit.change().accept(villager, data);
+                batch.applied++;
+            }
+
+            if (batch.next < batch.edits.size()) return;
+            BATCHES.poll();
+            batch.onDone.accept(new Result(batch.applied, List.copyOf(batch.missing)));
+        }
+    }
+
+    public static int getPendingEdits() {
+        int pending = 0;
+        for (Batch batch : BATCHES) {
+            pending += batch.edits.size() - batch.next;
+        }
+        return pending;
+    }
+
+    public static void clear() {
+        BATCHES.clear();
+    }
+}
@@ -0,0 +1,197 @@
+package com.beeny.system;
+
+import com.beeny.Villagersreborn;
+import com.beeny.data.VillagerData;
+import net.minecraft.entity.passive.VillagerEntity;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+import java.util.*;
+
+/**
+ * The villager journal of one world as an ordered, versioned list. Every change to a row stamps it with a
+ * new version and removals leave a tombstone, so a client that says which version it last saw for a page
+ * only receives what changed since. Rows keep the order in which villagers were first indexed; new
+ * villagers go to the end, so earlier pages only shift when a villager is removed. Server thread only.
+ */
+public class VillagerJournalIndex {
+    private static final long REFRESH_INTERVAL_TICKS = 20;
+    // Wandering is not a change worth syncing; the journal only shows rough positions and distances
+    private static final int MOVE_THRESHOLD_SQUARED = 8 * 8;
+    private static final int MAX_TOMBSTONES = 1024;
+
+    private static final Map<RegistryKey<World>, VillagerJournalIndex> INDEXES = new HashMap<>();
+    private static final Random RANDOM = new Random();
+    // Shared by every world, so versions from different indexes never look related
+    private static long nextVersion = 1;
+
+    public static final class Row {
+        public final UUID uuid;
+        public String name;
+        public BlockPos pos;
+        public String profession;
+        public int happiness;
+        // Last change to the row's contents, and last change to its position in the list
+        private long version;
+        private long positionVersion;
+
+        private Row(UUID uuid) {
+            this.uuid = uuid;
+        }
+
+        private boolean update(VillagerEntity villager, VillagerData data) {
+            String currentProfession = data.getProfessionHistory().isEmpty() ? "None" : data.getProfessionHistory().get(0);
+            BlockPos currentPos = villager.getBlockPos();
+            boolean moved = pos == null || pos.getSquaredDistance(currentPos) > MOVE_THRESHOLD_SQUARED;
+            if (!moved && happiness == data.getHappiness()
+                && name.equals(data.getName()) && profession.equals(currentProfession)) {
+                return false;
+            }
+
+            name = data.getName();
+            if (moved) pos = currentPos;
+            profession = currentProfession;
+            happiness = data.getHappiness();
+            return true;
+        }
+    }
+
+    // Where the row stood when it was removed, so only the page it was on is told
+    private record Tombstone(UUID uuid, long version, int position) {}
+
+    /**
+     * One page of the journal for a client that last saw it at {@code since}. {@code ids} is the page's
+     * membership in order and is only sent when it may differ from what the client has; {@code rows} are the
+     * page's rows that changed. {@code reset} tells the client to drop everything it cached for this index.
+     */
+    public record Page(long indexId, long version, int total, int page, int pageSize, boolean reset,
+                       List<UUID> ids, List<Row> rows, List<UUID> removed) {}
+
+    private final long indexId = RANDOM.nextLong();
+    private final List<Row> order = new ArrayList<>();
+    private final Map<UUID, Row> rows = new HashMap<>();
+    private final ArrayDeque<Tombstone> tombstones = new ArrayDeque<>();
+    // Clients older than this may have missed pruned tombstones and must start over
+    private long prunedThrough;
+    private long version;
+    private long lastRefreshTick = Long.MIN_VALUE;
+
+
+    public static VillagerJournalIndex get(ServerWorld world) {
+        VillagerJournalIndex index = INDEXES.computeIfAbsent(world.getRegistryKey(), key -> new VillagerJournalIndex());
+        index.refresh(world);
+        return index;
+    }
+
+    public static void clear() {
+        INDEXES.clear();
+    }
+
+    private void refresh(ServerWorld world) {
+        long now = world.getTime();
+        if (lastRefreshTick != Long.MIN_VALUE && now >= lastRefreshTick && now - lastRefreshTick < REFRESH_INTERVAL_TICKS) {
+            return;
+        }
+        lastRefreshTick = now;
+
+        Set<UUID> present = new HashSet<>();
+        for (VillagerEntity villager : ServerVillagerManager.getInstance().getAllTrackedVillagers()) {
+            if (villager.getWorld() != world) continue;
+            VillagerData data = villager.getAttached(Villagersreborn.VILLAGER_DATA);
+            if (data == null) continue;
+
+            present.add(villager.getUuid());
+            Row row = rows.get(villager.getUuid());
+            if (row == null) {
+                row = new Row(villager.getUuid());
+                row.update(villager, data);
+                row.version = row.positionVersion = bump();
+                rows.put(row.uuid, row);
+                order.add(row);
+            } else if (row.update(villager, data)) {
+                row.version = bump();
+            }
+        }
+
+        if (present.size() < rows.size()) {
+            removeMissing(present);
+        }
+    }
+
+    private void removeMissing(Set<UUID> present) {
+        long removedVersion = bump();
+        int firstRemoved = -1;
+        int kept = 0;
+        for (int i = 0; i < order.size(); i++) {
+            Row row = order.get(i);
+            if (present.contains(row.uuid)) {
+                order.set(kept++, row);
+                continue;
+            }
+            if (firstRemoved < 0) firstRemoved = i;
+            rows.remove(row.uuid);
+            tombstones.addLast(new Tombstone(row.uuid, removedVersion, i));
+        }
+        order.subList(kept, order.size()).clear();
+
+        // Everything after the first hole moved up, so those pages have new members
+        for (int i = Math.max(firstRemoved, 0); i < order.size(); i++) {
+            order.get(i).positionVersion = removedVersion;
+        }
+
+        while (tombstones.size() > MAX_TOMBSTONES) {
+            prunedThrough = tombstones.removeFirst().version();
+        }
+    }
+
+    private long bump() {
+        version = nextVersion++;
+        return version;
+    }
+
+    public int size() {
+        return order.size();
+    }
+
+    public Page page(int page, int pageSize, long clientIndexId, long since) {
+        boolean reset = clientIndexId != indexId || since > version || since < prunedThrough;
+        if (reset) since = 0;
+
+        // Both come from the client, so the offset may not fit an int; a page past the end is simply empty
+        long offset = (long) page * pageSize;
+        int from = (int) Math.min(offset, order.size());
+        int to = (int) Math.min(offset + pageSize, order.size());
+
+        // A page that is empty now may have had members before, so its membership is always sent
+        boolean membershipChanged = since == 0 || from == to;
+        List<Row> changed = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            Row row = order.get(i);
+            if (row.positionVersion > since) membershipChanged = true;
+            if (Math.max(row.version, row.positionVersion) > since) changed.add(row);
+        }
+
+        List<UUID> ids = null;
+        if (membershipChanged) {
+            ids = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                ids.add(order.get(i).uuid);
+            }
+        }
+
+        List<UUID> removed = new ArrayList<>();
+        if (!reset) {
+            for (Iterator<Tombstone> it = tombstones.descendingIterator(); it.hasNext(); ) {
+                Tombstone tombstone = it.next();
+                if (tombstone.version() <= since) break;
+                if (tombstone.position() >= offset && tombstone.position() < offset + pageSize) {
+                    removed.add(tombstone.uuid());
+                }
+            }
+        }
+
+        return new Page(indexId, version, order.size(), page, pageSize, reset, ids, changed, removed);
+    }
+}
@@ -111,9 +111,6 @@ public class VillagerRelationshipManager {
         data2.marry(data1.getName(), villager1.getUuidAsString());
         
         
-        data1.addFamilyMember(villager2.getUuidAsString());
-        data2.addFamilyMember(villager1.getUuidAsString());
-        
         
         if (villager1.getWorld() instanceof ServerWorld serverWorld) {
             
@@ -159,20 +156,11 @@ public class VillagerRelationshipManager {
         parentData2.addChild(childUuid);
         
         
-        childData.addFamilyMember(parentUuid1);
-        childData.addFamilyMember(parentUuid2);
-        
-        
-        for (String memberUuid : parentData1.getFamilyMembers()) {
-            if (!memberUuid.equals(childUuid)) {
-                childData.addFamilyMember(memberUuid);
-            }
-        }
-        for (String memberUuid : parentData2.getFamilyMembers()) {
-            if (!memberUuid.equals(childUuid)) {
-                childData.addFamilyMember(memberUuid);
-            }
-        }
+        // Only direct edges are stored; grandparents and cousins come from FamilyGraphIndex
+        childData.addParent(parentUuid1);
+        childData.addParent(parentUuid2);
+        FamilyGraphIndex.addEdge(parentUuid1, childUuid);
+        FamilyGraphIndex.addEdge(parentUuid2, childUuid);
         
         
         BlockPos pos = child.getBlockPos();
@@ -205,27 +193,12 @@ public class VillagerRelationshipManager {
     
     private static boolean areRelated(VillagerData data1, VillagerData data2, String uuid1, String uuid2) {
         
-        for (String memberUuid : data1.getFamilyMembers()) {
-            if (data2.getFamilyMembers().contains(memberUuid)) {
-                return true;
-            }
-        }
-        
-        
-        if (data1.getChildrenIds().contains(uuid2) ||
-            data2.getChildrenIds().contains(uuid1)) {
+        if (data1.getChildrenIds().contains(uuid2) || data2.getChildrenIds().contains(uuid1) ||
+            data1.getParentIds().contains(uuid2) || data2.getParentIds().contains(uuid1)) {
             return true;
         }
         
-        
-        Set<String> parents1 = new HashSet<>(data1.getFamilyMembers());
-        Set<String> parents2 = new HashSet<>(data2.getFamilyMembers());
-        parents1.retainAll(parents2);
-        if (!parents1.isEmpty()) {
-            return true;
-        }
-        
-        return false;
+        return FamilyGraphIndex.areRelated(uuid1, uuid2);
     }
     
     
@@ -322,11 +295,11 @@ public class VillagerRelationshipManager {
                 tree.add(Text.literal("  - " + child).formatted(Formatting.GREEN)));
         }
         
-        if (!data.getFamilyMembers().isEmpty()) {
-            tree.add(Text.literal("Family Members:").formatted(Formatting.BLUE));
-            data.getFamilyMembers().forEach(member -> 
-                tree.add(Text.literal("  - " + member).formatted(Formatting.BLUE)));
-        }
+        String uuid = villager.getUuidAsString();
+        addKinLines(tree, "Parents:", FamilyGraphIndex.getParents(uuid), Formatting.BLUE);
+        addKinLines(tree, "Siblings:", FamilyGraphIndex.getSiblings(uuid), Formatting.AQUA);
+        addKinLines(tree, "Grandparents:", FamilyGraphIndex.getGrandparents(uuid), Formatting.DARK_AQUA);
+        addKinLines(tree, "Grandchildren:", FamilyGraphIndex.getGrandchildren(uuid), Formatting.DARK_GREEN);
         
         if (!data.getBirthPlace().isEmpty()) {
             tree.add(Text.literal("Birth Place: " + data.getBirthPlace()).formatted(Formatting.YELLOW));
@@ -336,6 +309,17 @@ public class VillagerRelationshipManager {
     }
     
     
+    private static void addKinLines(List<Text> tree, String header, Set<String> kin, Formatting color) {
+        if (kin.isEmpty()) return;
+        
+        tree.add(Text.literal(header).formatted(color));
+        for (String memberUuid : kin) {
+            String name = FamilyGraphIndex.getName(memberUuid);
+            tree.add(Text.literal("  - " + (name != null ? name : memberUuid)).formatted(color));
+        }
+    }
+    
+    
     public static List<VillagerEntity> findPotentialPartners(VillagerEntity villager) {
         if (villager.getWorld() == null) return List.of();
         
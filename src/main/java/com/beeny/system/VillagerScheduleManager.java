@@ -3,14 +3,19 @@ package com.beeny.system;
 import com.beeny.Villagersreborn;
 import com.beeny.data.VillagerData;
 import com.beeny.system.ServerVillagerManager;
-import net.minecraft.entity.ai.goal.Goal;
+import com.beeny.util.AliasTable;
 import net.minecraft.entity.passive.VillagerEntity;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.entry.RegistryEntry;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.text.Text;
 import net.minecraft.util.Formatting;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.Identifier;
 import net.minecraft.util.math.Box;
 import net.minecraft.village.VillagerProfession;
+import net.minecraft.world.World;
 import net.minecraft.world.poi.PointOfInterestTypes;
 
 import java.util.*;
@@ -36,9 +41,11 @@ public class VillagerScheduleManager {
             this.name = name;
         }
         
+        private static final TimeOfDay[] VALUES = values();
+        
         public static TimeOfDay fromWorldTime(long worldTime) {
-            long dayTime = worldTime % 24000;
-            for (TimeOfDay time : values()) {
+            long dayTime = Math.floorMod(worldTime, 24000L);
+            for (TimeOfDay time : VALUES) {
                 if (dayTime >= time.startTime && dayTime < time.endTime) {
                     return time;
                 }
@@ -47,29 +54,6 @@ public class VillagerScheduleManager {
         }
     }
     
-    public static class Schedule {
-        private final Map<TimeOfDay, Activity> activities = new EnumMap<>(TimeOfDay.class);
-        
-        public Schedule() {
-            
-            activities.put(TimeOfDay.DAWN, Activity.WAKE_UP);
-            activities.put(TimeOfDay.MORNING, Activity.WORK);
-            activities.put(TimeOfDay.NOON, Activity.SOCIALIZE);
-            activities.put(TimeOfDay.AFTERNOON, Activity.WORK);
-            activities.put(TimeOfDay.DUSK, Activity.RELAX);
-            activities.put(TimeOfDay.NIGHT, Activity.SLEEP);
-            activities.put(TimeOfDay.MIDNIGHT, Activity.SLEEP);
-        }
-        
-        public Activity getActivity(TimeOfDay time) {
-            return activities.getOrDefault(time, Activity.WANDER);
-        }
-        
-        public void setActivity(TimeOfDay time, Activity activity) {
-            activities.put(time, activity);
-        }
-    }
-    
     public enum Activity {
         WAKE_UP("Waking up", 0xFF87CEEB),
         WORK("Working", 0xFFFFD700),
@@ -93,316 +77,482 @@ public class VillagerScheduleManager {
         }
     }
     
-    private static final Map<String, Schedule> PROFESSION_SCHEDULES = new HashMap<>();
+    // A villager keeps its activity at least this long, even if the clock jumps to another slot
+    public static final long MIN_ACTIVITY_DWELL_TICKS = 600;
     
-    static {
-        
-        initializeProfessionSchedules();
+    /**
+     * The villager's committed activity. Only the schedule queue rolls a new one, see {@link #tickSchedules},
+     * so every reader sees the same value between transitions and the nameplate and behaviour never lag it.
+     */
+    public static Activity getCurrentActivity(VillagerEntity villager) {
+        VillagerData data = villager.getAttached(Villagersreborn.VILLAGER_DATA);
+        Activity cached = data != null ? parseActivity(data.getActivity()) : null;
+        return cached != null ? cached : Activity.WANDER;
     }
     
-    private static void initializeProfessionSchedules() {
-        
-        Schedule farmerSchedule = new Schedule();
-        farmerSchedule.setActivity(TimeOfDay.DAWN, Activity.WAKE_UP);
-        farmerSchedule.setActivity(TimeOfDay.MORNING, Activity.WORK);
-        farmerSchedule.setActivity(TimeOfDay.NOON, Activity.EAT);
-        farmerSchedule.setActivity(TimeOfDay.AFTERNOON, Activity.WORK);
-        farmerSchedule.setActivity(TimeOfDay.DUSK, Activity.RELAX);
-        farmerSchedule.setActivity(TimeOfDay.NIGHT, Activity.SLEEP);
-        PROFESSION_SCHEDULES.put("minecraft:farmer", farmerSchedule);
-        
-        
-        Schedule librarianSchedule = new Schedule();
-        librarianSchedule.setActivity(TimeOfDay.DAWN, Activity.WAKE_UP);
-        librarianSchedule.setActivity(TimeOfDay.MORNING, Activity.STUDY);
-        librarianSchedule.setActivity(TimeOfDay.NOON, Activity.WORK);
-        librarianSchedule.setActivity(TimeOfDay.AFTERNOON, Activity.STUDY);
-        librarianSchedule.setActivity(TimeOfDay.DUSK, Activity.SOCIALIZE);
-        librarianSchedule.setActivity(TimeOfDay.NIGHT, Activity.SLEEP);
-        PROFESSION_SCHEDULES.put("minecraft:librarian", librarianSchedule);
-        
-        
-        Schedule clericSchedule = new Schedule();
-        clericSchedule.setActivity(TimeOfDay.DAWN, Activity.PRAY);
-        clericSchedule.setActivity(TimeOfDay.MORNING, Activity.WORK);
-        clericSchedule.setActivity(TimeOfDay.NOON, Activity.PRAY);
-        clericSchedule.setActivity(TimeOfDay.AFTERNOON, Activity.SOCIALIZE);
-        clericSchedule.setActivity(TimeOfDay.DUSK, Activity.PRAY);
-        clericSchedule.setActivity(TimeOfDay.NIGHT, Activity.SLEEP);
-        PROFESSION_SCHEDULES.put("minecraft:cleric", clericSchedule);
-        
-        
-        Schedule blacksmithSchedule = new Schedule();
-        blacksmithSchedule.setActivity(TimeOfDay.DAWN, Activity.WAKE_UP);
-        blacksmithSchedule.setActivity(TimeOfDay.MORNING, Activity.WORK);
-        blacksmithSchedule.setActivity(TimeOfDay.NOON, Activity.EAT);
-        blacksmithSchedule.setActivity(TimeOfDay.AFTERNOON, Activity.WORK);
-        blacksmithSchedule.setActivity(TimeOfDay.DUSK, Activity.EXERCISE);
-        blacksmithSchedule.setActivity(TimeOfDay.NIGHT, Activity.SLEEP);
-        PROFESSION_SCHEDULES.put("minecraft:armorer", blacksmithSchedule);
-        PROFESSION_SCHEDULES.put("minecraft:weaponsmith", blacksmithSchedule);
-        PROFESSION_SCHEDULES.put("minecraft:toolsmith", blacksmithSchedule);
+    /**
+     * Rolls a new activity once the villager's schedule slot (day and time of day, shifted by its personal
+     * offset) changes and the minimum dwell time has passed; otherwise keeps the committed one.
+     */
+    private static Activity advanceActivity(VillagerEntity villager, VillagerData data) {
+        int personality = personalityIndex(data.getPersonality());
+        long adjustedTime = getAdjustedTimeOfDay(villager, personality);
+        long slot = getSlot(adjustedTime);
+        
+        Activity cached = parseActivity(data.getActivity());
+        long now = villager.getWorld().getTime();
+        if (cached != null && (slot == data.getActivitySlot() || now - data.getActivitySince() < MIN_ACTIVITY_DWELL_TICKS)) {
+            return cached;
+        }
         
+        Activity activity = evaluateActivity(villager, data, personality, TimeOfDay.fromWorldTime(adjustedTime));
+        data.setActivity(activity.name(), slot, now);
+        return activity;
+    }
+    
+    private static long getSlot(long adjustedTime) {
+        return Math.floorDiv(adjustedTime, 24000L) * TimeOfDay.VALUES.length + TimeOfDay.fromWorldTime(adjustedTime).ordinal();
+    }
+    
+    private static long getAdjustedTimeOfDay(VillagerEntity villager, int personality) {
+        // Individual time preferences based on personality and villager ID
+        int individualOffset = Math.abs(villager.getUuid().hashCode()) % 4 - 2; // -2 to +1 hours variation
+        return villager.getWorld().getTimeOfDay() + (PERSONALITY_TIME_OFFSETS[personality] + individualOffset) * 1000L;
+    }
+    
+    private static Activity parseActivity(String name) {
+        if (name.isEmpty()) return null;
+        try {
+            return Activity.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
+    private static Activity evaluateActivity(VillagerEntity villager, VillagerData data, int personality, TimeOfDay timeOfDay) {
+        int happinessBand = data.getHappiness() < 20 ? 1 : data.getHappiness() > 80 ? 2 : 0;
+        int ageBand = data.getAge() < 20 ? 1 : data.getAge() > 300 ? 2 : 0;
+        WeightTables tables = weightTables;
+        AliasTable table = tables.getSampler(personality, tables.professionIndex(villager), timeOfDay,
+            happinessBand, ageBand, isSpecialDay(data));
         
-        Schedule nitwitSchedule = new Schedule();
-        nitwitSchedule.setActivity(TimeOfDay.DAWN, Activity.SLEEP);
-        nitwitSchedule.setActivity(TimeOfDay.MORNING, Activity.WAKE_UP);
-        nitwitSchedule.setActivity(TimeOfDay.NOON, Activity.EAT);
-        nitwitSchedule.setActivity(TimeOfDay.AFTERNOON, Activity.WANDER);
-        nitwitSchedule.setActivity(TimeOfDay.DUSK, Activity.SOCIALIZE);
-        nitwitSchedule.setActivity(TimeOfDay.NIGHT, Activity.SLEEP);
-        PROFESSION_SCHEDULES.put("minecraft:nitwit", nitwitSchedule);
+        // Select activity based on weighted probability
+        int index = table.sample(villager.getWorld().getRandom().nextDouble());
+        return index >= 0 ? ACTIVITIES[index] : Activity.WANDER;
     }
     
-    public static Activity getCurrentActivity(VillagerEntity villager) {
-        long worldTime = villager.getWorld().getTimeOfDay();
-        TimeOfDay timeOfDay = TimeOfDay.fromWorldTime(worldTime);
+    /** Name plus current activity, shared by every place that refreshes a villager's nameplate. */
+    public static Text getNameplate(VillagerData data, Activity activity) {
+        if (activity == Activity.WAKE_UP) {
+            return Text.literal(data.getName());
+        }
+        return Text.literal(data.getName())
+            .append(Text.literal(" [" + activity.description + "]").formatted(getActivityFormatting(activity)));
+    }
+    
+    public static void updateNameplate(VillagerEntity villager, VillagerData data) {
+        Text nameplate = getNameplate(data, getCurrentActivity(villager));
+        // Setting an equal name would still mark the tracked data dirty and resync it
+        if (!nameplate.equals(villager.getCustomName())) {
+            villager.setCustomName(nameplate);
+        }
+    }
+    
+    // Personality and profession buckets of the weight tables; index 0 is the unmodified default
+    private static final String[] WEIGHTED_PERSONALITIES = {
+        "", "Energetic", "Lazy", "Friendly", "Shy", "Curious", "Serious", "Cheerful", "Grumpy", "Nervous"
+    };
+    private static final int[] PERSONALITY_TIME_OFFSETS = {
+        0, -2, 3, 0, 0, 0, -1, -1, 2, 1 // Early risers are negative, late sleepers positive
+    };
+    private static final Map<String, Integer> PERSONALITY_INDEX = new HashMap<>();
+    
+    private static final Activity[] ACTIVITIES = Activity.values();
+    
+    private static volatile WeightTables weightTables;
+    
+    static {
+        for (int i = 0; i < WEIGHTED_PERSONALITIES.length; i++) {
+            PERSONALITY_INDEX.put(WEIGHTED_PERSONALITIES[i], i);
+        }
+        weightTables = WeightTables.compile(List.of());
+    }
+    
+    private static int personalityIndex(String personality) {
+        Integer index = PERSONALITY_INDEX.get(personality);
+        return index != null ? index : 0;
+    }
+    
+    /**
+     * Compiles datapack schedules into fresh tables and swaps them in with a single write, so
+     * evaluations running during a reload see either the old tables or the new ones.
+     */
+    public static void applyScheduleDefinitions(List<ScheduleDefinitionLoader.ScheduleDefinition> definitions) {
+        // A misspelled id would otherwise load fine and leave its profession on the default table
+        List<ScheduleDefinitionLoader.ScheduleDefinition> valid = new ArrayList<>(definitions.size());
+        for (ScheduleDefinitionLoader.ScheduleDefinition definition : definitions) {
+            List<Identifier> professions = new ArrayList<>(definition.professions().size());
+            for (Identifier profession : definition.professions()) {
+                if (Registries.VILLAGER_PROFESSION.containsId(profession)) {
+                    professions.add(profession);
+                } else {
+                    Villagersreborn.LOGGER.warn("Unknown villager profession '{}' in villager schedule {}", profession, definition.source());
+                }
+            }
+            if (professions.isEmpty()) {
+                Villagersreborn.LOGGER.warn("Villager schedule {} has no known professions, skipping", definition.source());
+                continue;
+            }
+            valid.add(professions.size() == definition.professions().size() ? definition
+                : new ScheduleDefinitionLoader.ScheduleDefinition(definition.source(), List.copyOf(professions),
+                    definition.schedule(), definition.activityWeights()));
+        }
+        weightTables = WeightTables.compile(valid);
+    }
+    
+    /**
+     * Time-of-day base weights with personality and profession multipliers already applied,
+     * flattened as [personality][profession][time of day][activity], plus an alias sampler per
+     * combination of those with the contextual bands, built the first time it is needed.
+     * Profession 0 is the default for professions without a schedule definition.
+     */
+    private static final class WeightTables {
+        private static final int TIMES = TimeOfDay.values().length;
+        private static final int CONTEXT_VARIANTS = 3 * 3 * 2; // happiness band, age band, special day
+        private static final Activity[] DEFAULT_SCHEDULE = {
+            Activity.WAKE_UP, Activity.WORK, Activity.SOCIALIZE, Activity.WORK, Activity.RELAX, Activity.SLEEP, Activity.SLEEP
+        };
         
-        VillagerData data = villager.getAttached(Villagersreborn.VILLAGER_DATA);
-        if (data == null) {
-            return Activity.WANDER;
+        private final Map<Identifier, Integer> professionIndex;
+        private final int professions;
+        private final Activity[] schedules; // [profession][time of day]
+        private final float[] weights;
+        // Racing threads may build the same sampler twice; both results are identical and immutable
+        private final AliasTable[] samplers;
+        
+        private WeightTables(Map<Identifier, Integer> professionIndex, int professions, Activity[] schedules, float[] weights) {
+            this.professionIndex = professionIndex;
+            this.professions = professions;
+            this.schedules = schedules;
+            this.weights = weights;
+            this.samplers = new AliasTable[weights.length / ACTIVITIES.length * CONTEXT_VARIANTS];
         }
         
-        // Get individual time preferences based on personality and villager ID
-        int personalityOffset = getPersonalityTimeOffset(data);
-        int individualOffset = Math.abs(villager.getUuid().hashCode()) % 4 - 2; // -2 to +1 hours variation
-        long adjustedTime = (worldTime + (personalityOffset + individualOffset) * 1000) % 24000;
-        TimeOfDay adjustedTimeOfDay = TimeOfDay.fromWorldTime(adjustedTime);
+        static WeightTables compile(List<ScheduleDefinitionLoader.ScheduleDefinition> definitions) {
+            int activities = ACTIVITIES.length;
+            int professions = definitions.size() + 1;
+            
+            Map<Identifier, Integer> professionIndex = new HashMap<>();
+            Activity[] schedules = new Activity[professions * TIMES];
+            float[] multipliers = new float[professions * activities];
+            Arrays.fill(multipliers, 1f);
+            System.arraycopy(DEFAULT_SCHEDULE, 0, schedules, 0, TIMES);
+            
+            for (int i = 0; i < definitions.size(); i++) {
+                ScheduleDefinitionLoader.ScheduleDefinition definition = definitions.get(i);
+                int profession = i + 1;
+                for (Identifier id : definition.professions()) {
+                    Integer previous = professionIndex.put(id, profession);
+                    if (previous != null) {
+                        Villagersreborn.LOGGER.warn("Villager schedule {} overrides an earlier schedule for {}", definition.source(), id);
+                    }
+                }
+                for (TimeOfDay time : TimeOfDay.values()) {
+                    schedules[profession * TIMES + time.ordinal()] =
+                        definition.schedule().getOrDefault(time, DEFAULT_SCHEDULE[time.ordinal()]);
+                }
+                definition.activityWeights().forEach((activity, multiplier) ->
+                    multipliers[profession * activities + activity.ordinal()] = multiplier);
+            }
+            
+            float[] weights = new float[WEIGHTED_PERSONALITIES.length * professions * TIMES * activities];
+            float[] base = new float[activities];
+            int offset = 0;
+            for (String personality : WEIGHTED_PERSONALITIES) {
+                for (int profession = 0; profession < professions; profession++) {
+                    for (TimeOfDay time : TimeOfDay.values()) {
+                        Arrays.fill(base, 0f);
+                        applyBaseWeights(base, time);
+                        applyPersonalityModifiers(base, personality);
+                        for (int activity = 0; activity < activities; activity++) {
+                            base[activity] *= multipliers[profession * activities + activity];
+                        }
+                        System.arraycopy(base, 0, weights, offset, activities);
+                        offset += activities;
+                    }
+                }
+            }
+            return new WeightTables(Map.copyOf(professionIndex), professions, schedules, weights);
+        }
         
-        // Get base activity probabilities for the time period
-        Map<Activity, Float> activityWeights = getActivityWeights(adjustedTimeOfDay, data, villager);
+        int professionIndex(VillagerEntity villager) {
+            RegistryEntry<VillagerProfession> profession = villager.getVillagerData().profession();
+            if (profession instanceof RegistryEntry.Reference<VillagerProfession> reference) {
+                Integer index = professionIndex.get(reference.registryKey().getValue());
+                if (index != null) return index;
+            }
+            return 0;
+        }
         
-        // Select activity based on weighted probability
-        return selectWeightedActivity(activityWeights, villager);
+        Activity getScheduledActivity(int profession, TimeOfDay time) {
+            return schedules[profession * TIMES + time.ordinal()];
+        }
+        
+        AliasTable getSampler(int personality, int profession, TimeOfDay time, int happinessBand, int ageBand, boolean specialDay) {
+            int row = (personality * professions + profession) * TIMES + time.ordinal();
+            int key = row * CONTEXT_VARIANTS + (happinessBand * 3 + ageBand) * 2 + (specialDay ? 1 : 0);
+            
+            AliasTable sampler = samplers[key];
+            if (sampler == null) {
+                float[] rowWeights = Arrays.copyOfRange(weights, row * ACTIVITIES.length, (row + 1) * ACTIVITIES.length);
+                applyContextualModifiers(rowWeights, happinessBand, ageBand, specialDay);
+                sampler = AliasTable.of(rowWeights);
+                samplers[key] = sampler;
+            }
+            return sampler;
+        }
+        
+        int getCachedSamplerCount() {
+            int count = 0;
+            for (AliasTable sampler : samplers) {
+                if (sampler != null) count++;
+            }
+            return count;
+        }
     }
     
-    private static int getPersonalityTimeOffset(VillagerData data) {
-        return switch (data.getPersonality()) {
-            case "Energetic" -> -2; // Early riser
-            case "Lazy" -> 3; // Late sleeper
-            case "Serious" -> -1; // Slightly early
-            case "Cheerful" -> -1; // Morning person
-            case "Grumpy" -> 2; // Not a morning person
-            case "Nervous" -> 1; // Irregular schedule
-            default -> 0; // Normal schedule
-        };
+    public static int getCachedSamplerCount() {
+        return weightTables.getCachedSamplerCount();
     }
     
-    private static Map<Activity, Float> getActivityWeights(TimeOfDay timeOfDay, VillagerData data, VillagerEntity villager) {
-        Map<Activity, Float> weights = new EnumMap<>(Activity.class);
-        
-        // Base weights for time of day
+    private static void applyBaseWeights(float[] weights, TimeOfDay timeOfDay) {
         switch (timeOfDay) {
             case DAWN -> {
-                weights.put(Activity.WAKE_UP, 0.3f);
-                weights.put(Activity.SLEEP, 0.4f);
-                weights.put(Activity.PRAY, 0.1f);
-                weights.put(Activity.WANDER, 0.2f);
+                weights[Activity.WAKE_UP.ordinal()] = 0.3f;
+                weights[Activity.SLEEP.ordinal()] = 0.4f;
+                weights[Activity.PRAY.ordinal()] = 0.1f;
+                weights[Activity.WANDER.ordinal()] = 0.2f;
             }
             case MORNING -> {
-                weights.put(Activity.WORK, 0.4f);
-                weights.put(Activity.EAT, 0.2f);
-                weights.put(Activity.SOCIALIZE, 0.1f);
-                weights.put(Activity.EXERCISE, 0.1f);
-                weights.put(Activity.STUDY, 0.1f);
-                weights.put(Activity.WANDER, 0.1f);
+                weights[Activity.WORK.ordinal()] = 0.4f;
+                weights[Activity.EAT.ordinal()] = 0.2f;
+                weights[Activity.SOCIALIZE.ordinal()] = 0.1f;
+                weights[Activity.EXERCISE.ordinal()] = 0.1f;
+                weights[Activity.STUDY.ordinal()] = 0.1f;
+                weights[Activity.WANDER.ordinal()] = 0.1f;
             }
             case NOON -> {
-                weights.put(Activity.EAT, 0.35f);
-                weights.put(Activity.WORK, 0.25f);
-                weights.put(Activity.SOCIALIZE, 0.2f);
-                weights.put(Activity.RELAX, 0.1f);
-                weights.put(Activity.SHOP, 0.1f);
+                weights[Activity.EAT.ordinal()] = 0.35f;
+                weights[Activity.WORK.ordinal()] = 0.25f;
+                weights[Activity.SOCIALIZE.ordinal()] = 0.2f;
+                weights[Activity.RELAX.ordinal()] = 0.1f;
+                weights[Activity.SHOP.ordinal()] = 0.1f;
             }
             case AFTERNOON -> {
-                weights.put(Activity.WORK, 0.35f);
-                weights.put(Activity.SOCIALIZE, 0.2f);
-                weights.put(Activity.HOBBY, 0.15f);
-                weights.put(Activity.STUDY, 0.1f);
-                weights.put(Activity.SHOP, 0.1f);
-                weights.put(Activity.WANDER, 0.1f);
+                weights[Activity.WORK.ordinal()] = 0.35f;
+                weights[Activity.SOCIALIZE.ordinal()] = 0.2f;
+                weights[Activity.HOBBY.ordinal()] = 0.15f;
+                weights[Activity.STUDY.ordinal()] = 0.1f;
+                weights[Activity.SHOP.ordinal()] = 0.1f;
+                weights[Activity.WANDER.ordinal()] = 0.1f;
             }
             case DUSK -> {
-                weights.put(Activity.RELAX, 0.3f);
-                weights.put(Activity.SOCIALIZE, 0.25f);
-                weights.put(Activity.EAT, 0.2f);
-                weights.put(Activity.HOBBY, 0.15f);
-                weights.put(Activity.WANDER, 0.1f);
+                weights[Activity.RELAX.ordinal()] = 0.3f;
+                weights[Activity.SOCIALIZE.ordinal()] = 0.25f;
+                weights[Activity.EAT.ordinal()] = 0.2f;
+                weights[Activity.HOBBY.ordinal()] = 0.15f;
+                weights[Activity.WANDER.ordinal()] = 0.1f;
             }
             case NIGHT -> {
-                weights.put(Activity.SLEEP, 0.6f);
-                weights.put(Activity.RELAX, 0.15f);
-                weights.put(Activity.SOCIALIZE, 0.1f);
-                weights.put(Activity.STUDY, 0.1f);
-                weights.put(Activity.WANDER, 0.05f);
+                weights[Activity.SLEEP.ordinal()] = 0.6f;
+                weights[Activity.RELAX.ordinal()] = 0.15f;
+                weights[Activity.SOCIALIZE.ordinal()] = 0.1f;
+                weights[Activity.STUDY.ordinal()] = 0.1f;
+                weights[Activity.WANDER.ordinal()] = 0.05f;
             }
             case MIDNIGHT -> {
-                weights.put(Activity.SLEEP, 0.85f);
-                weights.put(Activity.WANDER, 0.1f);
-                weights.put(Activity.STUDY, 0.05f);
+                weights[Activity.SLEEP.ordinal()] = 0.85f;
+                weights[Activity.WANDER.ordinal()] = 0.1f;
+                weights[Activity.STUDY.ordinal()] = 0.05f;
             }
         }
-        
-        // Apply personality modifiers
-        applyPersonalityModifiers(weights, data);
-        
-        // Apply profession modifiers
-        applyProfessionModifiers(weights, villager);
-        
-        // Apply contextual modifiers
-        applyContextualModifiers(weights, data, villager);
-        
-        return weights;
     }
     
-    private static void applyPersonalityModifiers(Map<Activity, Float> weights, VillagerData data) {
-        switch (data.getPersonality()) {
+    private static void scale(float[] weights, Activity activity, float factor) {
+        weights[activity.ordinal()] *= factor;
+    }
+    
+    private static void applyPersonalityModifiers(float[] weights, String personality) {
+        switch (personality) {
             case "Energetic" -> {
-                weights.replaceAll((k, v) -> k == Activity.EXERCISE || k == Activity.WORK ? v * 1.5f : v);
-                weights.replaceAll((k, v) -> k == Activity.SLEEP || k == Activity.RELAX ? v * 0.7f : v);
+                scale(weights, Activity.EXERCISE, 1.5f);
+                scale(weights, Activity.WORK, 1.5f);
+                scale(weights, Activity.SLEEP, 0.7f);
+                scale(weights, Activity.RELAX, 0.7f);
             }
             case "Lazy" -> {
-                weights.replaceAll((k, v) -> k == Activity.RELAX || k == Activity.SLEEP ? v * 1.4f : v);
-                weights.replaceAll((k, v) -> k == Activity.WORK || k == Activity.EXERCISE ? v * 0.6f : v);
-            }
-            case "Friendly" -> {
-                weights.replaceAll((k, v) -> k == Activity.SOCIALIZE ? v * 1.6f : v);
+                scale(weights, Activity.RELAX, 1.4f);
+                scale(weights, Activity.SLEEP, 1.4f);
+                scale(weights, Activity.WORK, 0.6f);
+                scale(weights, Activity.EXERCISE, 0.6f);
             }
+            case "Friendly" -> scale(weights, Activity.SOCIALIZE, 1.6f);
             case "Shy" -> {
-                weights.replaceAll((k, v) -> k == Activity.SOCIALIZE ? v * 0.5f : v);
-                weights.replaceAll((k, v) -> k == Activity.STUDY || k == Activity.HOBBY ? v * 1.3f : v);
+                scale(weights, Activity.SOCIALIZE, 0.5f);
+                scale(weights, Activity.STUDY, 1.3f);
+                scale(weights, Activity.HOBBY, 1.3f);
             }
             case "Curious" -> {
-                weights.replaceAll((k, v) -> k == Activity.STUDY || k == Activity.WANDER ? v * 1.4f : v);
+                scale(weights, Activity.STUDY, 1.4f);
+                scale(weights, Activity.WANDER, 1.4f);
             }
             case "Serious" -> {
-                weights.replaceAll((k, v) -> k == Activity.WORK || k == Activity.STUDY ? v * 1.3f : v);
-                weights.replaceAll((k, v) -> k == Activity.SOCIALIZE || k == Activity.HOBBY ? v * 0.8f : v);
+                scale(weights, Activity.WORK, 1.3f);
+                scale(weights, Activity.STUDY, 1.3f);
+                scale(weights, Activity.SOCIALIZE, 0.8f);
+                scale(weights, Activity.HOBBY, 0.8f);
             }
             case "Cheerful" -> {
-                weights.replaceAll((k, v) -> k == Activity.SOCIALIZE || k == Activity.HOBBY ? v * 1.3f : v);
+                scale(weights, Activity.SOCIALIZE, 1.3f);
+                scale(weights, Activity.HOBBY, 1.3f);
             }
             case "Grumpy" -> {
-                weights.replaceAll((k, v) -> k == Activity.SOCIALIZE ? v * 0.6f : v);
-                weights.replaceAll((k, v) -> k == Activity.WANDER ? v * 1.4f : v);
-            }
-        }
-    }
-    
-    private static void applyProfessionModifiers(Map<Activity, Float> weights, VillagerEntity villager) {
-        String professionKey = villager.getVillagerData().profession().getKey()
-            .map(key -> key.getValue().toString()).orElse("minecraft:none");
-            
-        switch (professionKey) {
-            case "minecraft:librarian" -> {
-                weights.replaceAll((k, v) -> k == Activity.STUDY ? v * 2.0f : v);
-            }
-            case "minecraft:cleric" -> {
-                weights.replaceAll((k, v) -> k == Activity.PRAY ? v * 3.0f : v);
+                scale(weights, Activity.SOCIALIZE, 0.6f);
+                scale(weights, Activity.WANDER, 1.4f);
             }
-            case "minecraft:farmer" -> {
-                weights.replaceAll((k, v) -> k == Activity.WORK ? v * 1.5f : v);
-            }
-            case "minecraft:nitwit" -> {
-                weights.replaceAll((k, v) -> k == Activity.WANDER || k == Activity.RELAX ? v * 1.8f : v);
-                weights.replaceAll((k, v) -> k == Activity.WORK ? v * 0.3f : v);
+            default -> {
             }
         }
     }
     
-    private static void applyContextualModifiers(Map<Activity, Float> weights, VillagerData data, VillagerEntity villager) {
+    // Happiness, age and birthdays change while a villager is loaded, so they are folded in per band
+    private static void applyContextualModifiers(float[] weights, int happinessBand, int ageBand, boolean specialDay) {
         // Happiness affects activity preferences
-        if (data.getHappiness() < 20) {
-            weights.replaceAll((k, v) -> k == Activity.WANDER ? v * 2.0f : v);
-            weights.replaceAll((k, v) -> k == Activity.WORK || k == Activity.SOCIALIZE ? v * 0.5f : v);
-        } else if (data.getHappiness() > 80) {
-            weights.replaceAll((k, v) -> k == Activity.SOCIALIZE || k == Activity.HOBBY ? v * 1.4f : v);
+        if (happinessBand == 1) {
+            scale(weights, Activity.WANDER, 2.0f);
+            scale(weights, Activity.WORK, 0.5f);
+            scale(weights, Activity.SOCIALIZE, 0.5f);
+        } else if (happinessBand == 2) {
+            scale(weights, Activity.SOCIALIZE, 1.4f);
+            scale(weights, Activity.HOBBY, 1.4f);
         }
         
         // Age affects activities
-        if (data.getAge() < 20) { // Young villagers
-            weights.replaceAll((k, v) -> k == Activity.SOCIALIZE || k == Activity.WANDER ? v * 1.5f : v);
-            weights.replaceAll((k, v) -> k == Activity.WORK ? v * 0.3f : v);
-        } else if (data.getAge() > 300) { // Elder villagers
-            weights.replaceAll((k, v) -> k == Activity.RELAX || k == Activity.STUDY ? v * 1.3f : v);
-            weights.replaceAll((k, v) -> k == Activity.EXERCISE ? v * 0.4f : v);
+        if (ageBand == 1) { // Young villagers
+            scale(weights, Activity.SOCIALIZE, 1.5f);
+            scale(weights, Activity.WANDER, 1.5f);
+            scale(weights, Activity.WORK, 0.3f);
+        } else if (ageBand == 2) { // Elder villagers
+            scale(weights, Activity.RELAX, 1.3f);
+            scale(weights, Activity.STUDY, 1.3f);
+            scale(weights, Activity.EXERCISE, 0.4f);
         }
         
         // Special day modifier
-        if (isSpecialDay(data, villager.getWorld().getTimeOfDay())) {
-            weights.replaceAll((k, v) -> k == Activity.SOCIALIZE ? v * 3.0f : v);
+        if (specialDay) {
+            scale(weights, Activity.SOCIALIZE, 3.0f);
         }
     }
     
-    private static Activity selectWeightedActivity(Map<Activity, Float> weights, VillagerEntity villager) {
-        float totalWeight = weights.values().stream().reduce(0f, Float::sum);
-        if (totalWeight <= 0) return Activity.WANDER;
-        
-        net.minecraft.util.math.random.Random random = villager.getWorld().getRandom();
-        float randomValue = random.nextFloat() * totalWeight;
-        
-        float currentWeight = 0;
-        for (Map.Entry<Activity, Float> entry : weights.entrySet()) {
-            currentWeight += entry.getValue();
-            if (randomValue <= currentWeight) {
-                return entry.getKey();
-            }
+    private static final class WorldSchedule {
+        private final ScheduleTransitionQueue queue = new ScheduleTransitionQueue();
+        private long lastTime = Long.MIN_VALUE;
+        private long lastTimeOfDay;
+    }
+    
+    private static final Map<RegistryKey<World>, WorldSchedule> WORLD_SCHEDULES = new HashMap<>();
+    
+    /** Queues a villager for an immediate schedule evaluation; later transitions are queued automatically. */
+    public static void enqueue(VillagerEntity villager) {
+        if (villager.getWorld() instanceof ServerWorld world) {
+            WORLD_SCHEDULES.computeIfAbsent(world.getRegistryKey(), key -> new WorldSchedule())
+                .queue.schedule(villager.getUuid(), world.getTime());
         }
-        
-        return Activity.WANDER;
     }
     
-    public static void updateSchedules(ServerWorld world) {
-        // Use ServerVillagerManager instead of scanning the entire world
-        for (VillagerEntity villager : ServerVillagerManager.getInstance().getAllTrackedVillagers()) {
-            // Only update villagers in the same world
-            if (villager.getWorld() != world) continue;
+    public static void dequeue(VillagerEntity villager) {
+        WorldSchedule schedule = WORLD_SCHEDULES.get(villager.getWorld().getRegistryKey());
+        if (schedule != null) {
+            schedule.queue.remove(villager.getUuid());
+        }
+    }
+    
+    public static void clearQueues() {
+        WORLD_SCHEDULES.clear();
+    }
+    
+    public static int getQueuedVillagerCount() {
+        int count = 0;
+        for (WorldSchedule schedule : WORLD_SCHEDULES.values()) {
+            count += schedule.queue.size();
+        }
+        return count;
+    }
+    
+    /** Runs every tick; only villagers whose next transition is due are touched. */
+    public static void tickSchedules(ServerWorld world) {
+        WorldSchedule schedule = WORLD_SCHEDULES.get(world.getRegistryKey());
+        if (schedule == null) return;
+        
+        long now = world.getTime();
+        long timeOfDay = world.getTimeOfDay();
+        
+        // Queued ticks assume the time of day advances with game time; /time set and sleeping break that
+        if (schedule.lastTime != Long.MIN_VALUE) {
+            long timeOfDayDelta = timeOfDay - schedule.lastTimeOfDay;
+            if (timeOfDayDelta != 0 && timeOfDayDelta != now - schedule.lastTime) {
+                schedule.queue.rescheduleAll(now);
+            }
+        }
+        schedule.lastTime = now;
+        schedule.lastTimeOfDay = timeOfDay;
+        
+        UUID villagerId;
+        while ((villagerId = schedule.queue.pollDue(now)) != null) {
+            VillagerEntity villager = ServerVillagerManager.getInstance().getVillager(villagerId);
+            // Entries queued from the constructor still carry the UUID the entity had before its save was read
+            if (villager == null || villager.isRemoved() || villager.getWorld() != world
+                || !villager.getUuid().equals(villagerId)) continue;
             
-            Activity currentActivity = getCurrentActivity(villager);
-            updateVillagerBehavior(villager, currentActivity);
+            VillagerData data = villager.getAttached(Villagersreborn.VILLAGER_DATA);
+            if (data == null) continue;
             
+            Activity currentActivity = advanceActivity(villager, data);
+            boolean walking = updateVillagerBehavior(villager, currentActivity);
+            updateNameplate(villager, data);
             
-            VillagerData data = villager.getAttached(Villagersreborn.VILLAGER_DATA);
-            if (data != null) {
-                if (currentActivity != Activity.WAKE_UP) {
-                    Text activityText = Text.literal(" [" + currentActivity.description + "]")
-                        .formatted(getActivityFormatting(currentActivity));
-                    Text fullName = Text.literal(data.getName()).append(activityText);
-                    villager.setCustomName(fullName);
-                } else {
-                    villager.setCustomName(Text.literal(data.getName()));
-                }
+            // Villagers still on their way come back early to re-assert their walk target; the slot check keeps the activity
+            long next = getNextTransitionTick(villager, data);
+            if (walking) {
+                next = Math.min(next, now + VillagerActivityBehavior.TARGET_REFRESH_TICKS);
             }
+            schedule.queue.schedule(villagerId, next);
         }
     }
     
-    private static void updateVillagerBehavior(VillagerEntity villager, Activity activity) {
-        
-        
-        
-        switch (activity) {
-            case SLEEP -> {
-                // Villager should go to bed - note: sleep behavior handled by Minecraft AI
-            }
-            case WORK -> {
-                
-            }
-            case SOCIALIZE -> {
-                
-            }
-            case EAT -> {
-                
-            }
-            default -> {
-                
-            }
+    /**
+     * Game tick at which the villager's schedule slot next changes, no earlier than its minimum dwell. When the
+     * dwell held back a slot change, the villager is already late and is due as soon as the dwell ends.
+     */
+    private static long getNextTransitionTick(VillagerEntity villager, VillagerData data) {
+        long adjustedTime = getAdjustedTimeOfDay(villager, personalityIndex(data.getPersonality()));
+        long dwellEnd = data.getActivitySince() + MIN_ACTIVITY_DWELL_TICKS;
+        if (getSlot(adjustedTime) != data.getActivitySlot()) {
+            return dwellEnd;
         }
+        
+        long dayTime = Math.floorMod(adjustedTime, 24000L);
+        long untilBoundary = TimeOfDay.fromWorldTime(adjustedTime).endTime - dayTime;
+        return Math.max(villager.getWorld().getTime() + untilBoundary, dwellEnd);
     }
     
-    private static boolean isSpecialDay(VillagerData data, long worldTime) {
-        
-        long daysSinceBirth = (worldTime - data.getBirthTime()) / 24000;
-        return daysSinceBirth > 0 && daysSinceBirth % 365 == 0;
+    private static boolean updateVillagerBehavior(VillagerEntity villager, Activity activity) {
+        return VillagerActivityBehavior.apply(villager, activity);
+    }
+    
+    private static boolean isSpecialDay(VillagerData data) {
+        // Birthdays follow the calendar, so /time set cannot skip or repeat them
+        return ChronologyManager.isAnniversary(data.getBirthTime());
     }
     
     private static Formatting getActivityFormatting(Activity activity) {
@@ -425,14 +575,13 @@ public class VillagerScheduleManager {
     public static List<Text> getScheduleInfo(VillagerEntity villager) {
         List<Text> info = new ArrayList<>();
         
-        String professionKey = villager.getVillagerData().profession().getKey()
-            .map(key -> key.getValue().toString()).orElse("minecraft:none");
-        Schedule schedule = PROFESSION_SCHEDULES.getOrDefault(professionKey, new Schedule());
+        WeightTables tables = weightTables;
+        int profession = tables.professionIndex(villager);
         
         info.add(Text.literal("=== Daily Schedule ===").formatted(Formatting.GOLD));
         
         for (TimeOfDay time : TimeOfDay.values()) {
-            Activity activity = schedule.getActivity(time);
+            Activity activity = tables.getScheduledActivity(profession, time);
             info.add(Text.literal(time.name + ": ")
                 .formatted(Formatting.GRAY)
                 .append(Text.literal(activity.description)
@@ -449,34 +598,4 @@ public class VillagerScheduleManager {
         
         return info;
     }
-    
-    
-    public static class ScheduleGoal extends Goal {
-        private final VillagerEntity villager;
-        private Activity lastActivity;
-        
-        public ScheduleGoal(VillagerEntity villager) {
-            this.villager = villager;
-            this.lastActivity = Activity.WANDER;
-        }
-        
-        @Override
-        public boolean canStart() {
-            return true;
-        }
-        
-        @Override
-        public boolean shouldContinue() {
-            return true;
-        }
-        
-        @Override
-        public void tick() {
-            Activity currentActivity = getCurrentActivity(villager);
-            if (currentActivity != lastActivity) {
-                updateVillagerBehavior(villager, currentActivity);
-                lastActivity = currentActivity;
-            }
-        }
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,103 @@
+package com.beeny.util;
+
+/**
+ * Walker/Vose alias table: after O(n) preprocessing, draws an index with probability proportional
+ * to its weight in constant time. Instances are immutable and safe to share between threads.
+ */
+public final class AliasTable {
+    private final double[] probability;
+    private final int[] alias;
+    private final boolean empty;
+
+    private AliasTable(double[] probability, int[] alias, boolean empty) {
+        this.probability = probability;
+        this.alias = alias;
+        this.empty = empty;
+    }
+
+    /** Builds a table over the given weights. Zero and negative weights are never drawn. */
+    public static AliasTable of(float[] weights) {
+        int n = weights.length;
+        double total = 0;
+        for (float weight : weights) {
+            if (weight > 0) total += weight;
+        }
+
+        double[] probability = new double[n];
+        int[] alias = new int[n];
+        if (n == 0 || total <= 0) {
+            return new AliasTable(probability, alias, true);
+        }
+
+        // Scale so the average column is 1, then pair every short column with a tall one
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        int heaviest = 0;
+        for (int i = 0; i < n; i++) {
+            if (weights[i] > weights[heaviest]) heaviest = i;
+            scaled[i] = weights[i] > 0 ? weights[i] * n / total : 0;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[less] = scaled[less];
+            alias[less] = more;
+
+            scaled[more] = scaled[more] + scaled[less] - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+
+        // Whatever is left is 1 up to rounding error
+        while (largeCount > 0) {
+            int index = large[--largeCount];
+            probability[index] = 1.0;
+            alias[index] = index;
+        }
+        while (smallCount > 0) {
+            int index = small[--smallCount];
+            probability[index] = weights[index] > 0 ? 1.0 : 0.0;
+            alias[index] = weights[index] > 0 ? index : heaviest;
+        }
+
+        return new AliasTable(probability, alias, false);
+    }
+
+    public static AliasTable of(int[] weights) {
+        float[] converted = new float[weights.length];
+        for (int i = 0; i < weights.length; i++) {
+            converted[i] = weights[i];
+        }
+        return of(converted);
+    }
+
+    /** True when every weight was zero; {@link #sample} returns -1 in that case. */
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    public int size() {
+        return probability.length;
+    }
+
+    /** Draws an index from a single uniform value in [0, 1). */
+    public int sample(double uniform) {
+        if (empty) return -1;
+
+        double scaled = uniform * probability.length;
+        int column = Math.min((int) scaled, probability.length - 1);
+        return scaled - column < probability[column] ? column : alias[column];
+    }
+}
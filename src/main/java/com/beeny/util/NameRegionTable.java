@@ -0,0 +1,124 @@
+package com.beeny.util;
+
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.tag.convention.v2.ConventionalBiomeTags;
+import net.minecraft.registry.DynamicRegistryManager;
+import net.minecraft.registry.Registry;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.registry.tag.TagKey;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import net.minecraft.world.biome.Biome;
+import net.minecraft.world.biome.BiomeKeys;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps biomes to the naming regions used by {@link VillagerNames}. The table is keyed by biome identity and
+ * rebuilt whenever the server's registries or tags are (re)loaded. Vanilla biomes keep their hand-picked
+ * region; anything else, modded biomes included, is sorted by its conventional tags.
+ */
+public class NameRegionTable {
+    public static final String DEFAULT_REGION = "default";
+    private static final int MAX_CACHED_CHUNKS = 4096;
+
+    private static final Map<RegistryKey<Biome>, String> KNOWN_BIOMES = new HashMap<>();
+    // Checked in order, so a snowy taiga counts as snow like it always has
+    private static final List<Map.Entry<TagKey<Biome>, String>> TAG_REGIONS = List.of(
+        Map.entry(ConventionalBiomeTags.IS_DESERT, "desert"),
+        Map.entry(ConventionalBiomeTags.IS_BADLANDS, "desert"),
+        Map.entry(ConventionalBiomeTags.IS_SNOWY, "snow"),
+        Map.entry(ConventionalBiomeTags.IS_ICY, "snow"),
+        Map.entry(ConventionalBiomeTags.IS_TAIGA, "taiga"),
+        Map.entry(ConventionalBiomeTags.IS_PLAINS, "plains"),
+        Map.entry(ConventionalBiomeTags.IS_SAVANNA, "savanna"),
+        Map.entry(ConventionalBiomeTags.IS_JUNGLE, "jungle"),
+        Map.entry(ConventionalBiomeTags.IS_SWAMP, "swamp"),
+        Map.entry(ConventionalBiomeTags.IS_OCEAN, "ocean"),
+        Map.entry(ConventionalBiomeTags.IS_BEACH, "ocean")
+    );
+
+    static {
+        known("desert", BiomeKeys.DESERT, BiomeKeys.BADLANDS, BiomeKeys.ERODED_BADLANDS, BiomeKeys.WOODED_BADLANDS);
+        known("snow", BiomeKeys.SNOWY_PLAINS, BiomeKeys.SNOWY_TAIGA, BiomeKeys.FROZEN_RIVER, BiomeKeys.SNOWY_BEACH,
+            BiomeKeys.GROVE, BiomeKeys.SNOWY_SLOPES, BiomeKeys.FROZEN_PEAKS, BiomeKeys.JAGGED_PEAKS);
+        known("taiga", BiomeKeys.TAIGA, BiomeKeys.OLD_GROWTH_PINE_TAIGA, BiomeKeys.OLD_GROWTH_SPRUCE_TAIGA);
+        known("plains", BiomeKeys.PLAINS, BiomeKeys.SUNFLOWER_PLAINS, BiomeKeys.MEADOW);
+        known("savanna", BiomeKeys.SAVANNA, BiomeKeys.SAVANNA_PLATEAU, BiomeKeys.WINDSWEPT_SAVANNA);
+        known("jungle", BiomeKeys.JUNGLE, BiomeKeys.SPARSE_JUNGLE, BiomeKeys.BAMBOO_JUNGLE);
+        known("swamp", BiomeKeys.SWAMP, BiomeKeys.MANGROVE_SWAMP);
+        known("ocean", BiomeKeys.BEACH, BiomeKeys.OCEAN, BiomeKeys.WARM_OCEAN, BiomeKeys.LUKEWARM_OCEAN,
+            BiomeKeys.COLD_OCEAN, BiomeKeys.FROZEN_OCEAN, BiomeKeys.DEEP_OCEAN, BiomeKeys.DEEP_FROZEN_OCEAN);
+    }
+
+    @SafeVarargs
+    private static void known(String region, RegistryKey<Biome>... biomes) {
+        for (RegistryKey<Biome> biome : biomes) {
+            KNOWN_BIOMES.put(biome, region);
+        }
+    }
+
+    private static volatile Map<Biome, String> regions = Map.of();
+    private static final Map<RegistryKey<World>, Map<Long, String>> CHUNK_REGIONS = new ConcurrentHashMap<>();
+
+    public static void register() {
+        ServerLifecycleEvents.SERVER_STARTED.register(server -> rebuild(server.getRegistryManager()));
+        ServerLifecycleEvents.END_DATA_PACK_RELOAD.register((server, resourceManager, success) -> {
+            if (success) rebuild(server.getRegistryManager());
+        });
+    }
+
+    public static void rebuild(DynamicRegistryManager registries) {
+        Registry<Biome> biomes = registries.getOrThrow(RegistryKeys.BIOME);
+        Map<Biome, String> table = new IdentityHashMap<>();
+        biomes.streamEntries().forEach(entry -> table.put(entry.value(), classify(entry)));
+
+        regions = table;
+        CHUNK_REGIONS.clear();
+    }
+
+    public static void clear() {
+        regions = Map.of();
+        CHUNK_REGIONS.clear();
+    }
+
+    /** Region of the biome at the position. Cached per chunk, so a whole village shares one lookup. */
+    public static String getRegion(World world, BlockPos pos) {
+        Map<Long, String> chunks = CHUNK_REGIONS.computeIfAbsent(world.getRegistryKey(), key -> new ConcurrentHashMap<>());
+        long chunk = ChunkPos.toLong(pos.getX() >> 4, pos.getZ() >> 4);
+        String region = chunks.get(chunk);
+        if (region == null) {
+            if (chunks.size() >= MAX_CACHED_CHUNKS) {
+                chunks.clear();
+            }
+            region = getRegion(world.getBiome(pos));
+            chunks.put(chunk, region);
+        }
+        return region;
+    }
+
+    public static String getRegion(RegistryEntry<Biome> biome) {
+        String region = regions.get(biome.value());
+        // Misses are client-side biomes or a table that has not been built yet
+        return region != null ? region : classify(biome);
+    }
+
+    private static String classify(RegistryEntry<Biome> biome) {
+        Optional<RegistryKey<Biome>> key = biome.getKey();
+        if (key.isPresent()) {
+            String region = KNOWN_BIOMES.get(key.get());
+            if (region != null) return region;
+        }
+
+        for (Map.Entry<TagKey<Biome>, String> tagRegion : TAG_REGIONS) {
+            if (biome.isIn(tagRegion.getKey())) {
+                return tagRegion.getValue();
+            }
+        }
+        return DEFAULT_REGION;
+    }
+}
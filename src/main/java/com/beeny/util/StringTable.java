@@ -0,0 +1,30 @@
+package com.beeny.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Deduplicating string pool for data loaded from resources. Every equal string handed to {@link #intern}
+ * comes back as the same instance, so a reload keeps one copy of each key and text fragment no matter
+ * how many packs repeat it. Not thread-safe; build it on one thread and drop it once loading is done.
+ */
+public final class StringTable {
+    private final Map<String, String> strings = new HashMap<>();
+    private int lookups;
+
+    public String intern(String value) {
+        lookups++;
+        String existing = strings.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+
+    /** Distinct strings stored. */
+    public int size() {
+        return strings.size();
+    }
+
+    /** Strings that were handed in, duplicates included. */
+    public int lookups() {
+        return lookups;
+    }
+}
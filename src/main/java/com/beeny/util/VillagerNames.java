@@ -3,13 +3,8 @@ package com.beeny.util;
 import net.minecraft.entity.passive.VillagerEntity;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.registry.RegistryKey;
-import net.minecraft.registry.RegistryKeys;
-import net.minecraft.registry.entry.RegistryEntry;
 import net.minecraft.village.VillagerProfession;
 import net.minecraft.world.World;
-import net.minecraft.world.biome.Biome;
-import net.minecraft.world.biome.BiomeKeys;
-import net.minecraft.util.Identifier;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -94,11 +89,7 @@ public class VillagerNames {
             throw new IllegalArgumentException("Villager cannot be null");
         }
         
-        World world = villager.getWorld();
-        BlockPos pos = villager.getBlockPos();
-        RegistryEntry<Biome> biomeEntry = world.getBiome(pos);
-        
-        String biomeKey = getBiomeKey(biomeEntry);
+        String biomeKey = getRegionKey(villager.getWorld(), villager.getBlockPos());
         boolean isMale = getOrAssignGender(villager);
         
         List<String> firstNames = isMale ? 
@@ -121,67 +112,42 @@ public class VillagerNames {
         return VILLAGER_GENDERS.computeIfAbsent(villager.getUuidAsString(), k -> RANDOM.nextBoolean());
     }
     
-    private static String getBiomeKey(RegistryEntry<Biome> biomeEntry) {
-        
-        Optional<RegistryKey<Biome>> keyOpt = biomeEntry.getKey();
-        if (keyOpt.isEmpty()) {
-            return "default";
-        }
-        
-        RegistryKey<Biome> biomeKey = keyOpt.get();
-        
-        
-        if (biomeKey.equals(BiomeKeys.DESERT) || biomeKey.equals(BiomeKeys.BADLANDS) || 
-            biomeKey.equals(BiomeKeys.ERODED_BADLANDS) || biomeKey.equals(BiomeKeys.WOODED_BADLANDS)) {
-            return "desert";
-        }
-        
-        
-        if (biomeKey.equals(BiomeKeys.SNOWY_PLAINS) || biomeKey.equals(BiomeKeys.SNOWY_TAIGA) || 
-            biomeKey.equals(BiomeKeys.FROZEN_RIVER) || biomeKey.equals(BiomeKeys.SNOWY_BEACH) ||
-            biomeKey.equals(BiomeKeys.GROVE) || biomeKey.equals(BiomeKeys.SNOWY_SLOPES) ||
-            biomeKey.equals(BiomeKeys.FROZEN_PEAKS) || biomeKey.equals(BiomeKeys.JAGGED_PEAKS)) {
-            return "snow";
-        }
-        
-        
-        if (biomeKey.equals(BiomeKeys.TAIGA) || biomeKey.equals(BiomeKeys.OLD_GROWTH_PINE_TAIGA) || 
-            biomeKey.equals(BiomeKeys.OLD_GROWTH_SPRUCE_TAIGA)) {
-            return "taiga";
-        }
-        
-        
-        if (biomeKey.equals(BiomeKeys.PLAINS) || biomeKey.equals(BiomeKeys.SUNFLOWER_PLAINS) ||
-            biomeKey.equals(BiomeKeys.MEADOW)) {
-            return "plains";
-        }
-        
-        
-        if (biomeKey.equals(BiomeKeys.SAVANNA) || biomeKey.equals(BiomeKeys.SAVANNA_PLATEAU) ||
-            biomeKey.equals(BiomeKeys.WINDSWEPT_SAVANNA)) {
-            return "savanna";
-        }
-        
-        
-        if (biomeKey.equals(BiomeKeys.JUNGLE) || biomeKey.equals(BiomeKeys.SPARSE_JUNGLE) ||
-            biomeKey.equals(BiomeKeys.BAMBOO_JUNGLE)) {
-            return "jungle";
-        }
-        
-        
-        if (biomeKey.equals(BiomeKeys.SWAMP) || biomeKey.equals(BiomeKeys.MANGROVE_SWAMP)) {
-            return "swamp";
-        }
-        
+    public static String getRegionKey(World world, BlockPos pos) {
+        return NameRegionTable.getRegion(world, pos);
+    }
+    
+    /** Finds the naming region a surname came from, or null for custom or unknown surnames. */
+    public static String getRegionForSurname(String surname) {
+        if (surname == null || surname.isEmpty()) return null;
         
-        if (biomeKey.equals(BiomeKeys.BEACH) || biomeKey.equals(BiomeKeys.OCEAN) || 
-            biomeKey.equals(BiomeKeys.WARM_OCEAN) || biomeKey.equals(BiomeKeys.LUKEWARM_OCEAN) ||
-            biomeKey.equals(BiomeKeys.COLD_OCEAN) || biomeKey.equals(BiomeKeys.FROZEN_OCEAN) ||
-            biomeKey.equals(BiomeKeys.DEEP_OCEAN) || biomeKey.equals(BiomeKeys.DEEP_FROZEN_OCEAN)) {
-            return "ocean";
+        for (Map.Entry<String, List<String>> entry : REGIONAL_SURNAMES.entrySet()) {
+            if (entry.getValue().contains(surname)) {
+                return entry.getKey();
+            }
         }
-        
-        return "default";
+        return null;
+    }
+    
+    public static List<String> getFirstNames(String regionKey, boolean isMale) {
+        return isMale ?
+            REGIONAL_MALE_NAMES.getOrDefault(regionKey, REGIONAL_MALE_NAMES.get("default")) :
+            REGIONAL_FEMALE_NAMES.getOrDefault(regionKey, REGIONAL_FEMALE_NAMES.get("default"));
+    }
+    
+    public static List<String> getSurnames(String regionKey) {
+        return REGIONAL_SURNAMES.getOrDefault(regionKey, REGIONAL_SURNAMES.get("default"));
+    }
+    
+    public static String generateFirstName(String regionKey, boolean isMale, Random random) {
+        List<String> firstNames = isMale ?
+            REGIONAL_MALE_NAMES.getOrDefault(regionKey, REGIONAL_MALE_NAMES.get("default")) :
+            REGIONAL_FEMALE_NAMES.getOrDefault(regionKey, REGIONAL_FEMALE_NAMES.get("default"));
+        return firstNames.get(random.nextInt(firstNames.size()));
+    }
+    
+    public static String generateSurname(String regionKey, Random random) {
+        List<String> surnames = REGIONAL_SURNAMES.getOrDefault(regionKey, REGIONAL_SURNAMES.get("default"));
+        return surnames.get(random.nextInt(surnames.size()));
     }
     
     public static String getProfessionName(String professionKey) {
@@ -223,8 +189,7 @@ public class VillagerNames {
     }
     
     public static String generateNameForProfession(World world, BlockPos pos) {
-        RegistryEntry<Biome> biomeEntry = world.getBiome(pos);
-        String biomeKey = getBiomeKey(biomeEntry);
+        String biomeKey = getRegionKey(world, pos);
         
         
         boolean isMale = (pos.getX() + pos.getZ()) % 2 == 0;
@@ -252,8 +217,7 @@ public class VillagerNames {
         }
         
         // When we have an inherited surname, we need to generate just the first name
-        RegistryEntry<Biome> biomeEntry = world.getBiome(pos);
-        String biomeKey = getBiomeKey(biomeEntry);
+        String biomeKey = getRegionKey(world, pos);
         
         boolean isMale = (pos.getX() + pos.getZ()) % 2 == 0;
         
@@ -0,0 +1,151 @@
+package com.beeny.data;
+
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.NbtList;
+import net.minecraft.nbt.NbtOps;
+import net.minecraft.nbt.NbtString;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * NBT bytes of an 8-generation lineage saved with {@link VillagerData#CODEC}, once in the legacy shape (every
+ * relative copied into {@code familyMembers}, the way breeding used to do it) and once with direct edges only.
+ * Generation 0 has 2^8 founders; each later generation marries the previous one off in pairs, one child per couple.
+ */
+class VillagerDataSizeTest {
+    private static final int GENERATIONS = 8;
+
+    @Test
+    void directEdgesAreSmaller() {
+        Map<String, VillagerData> villagers = new LinkedHashMap<>();
+        Map<String, List<String>> legacyFamilies = new HashMap<>();
+        List<String> generation = new ArrayList<>();
+        for (int i = 0; i < 1 << GENERATIONS; i++) {
+            String id = add(villagers, legacyFamilies, "Founder " + i);
+            generation.add(id);
+        }
+
+        for (int g = 1; g <= GENERATIONS; g++) {
+            List<String> next = new ArrayList<>();
+            for (int i = 0; i < generation.size(); i += 2) {
+                next.add(marryAndBreed(villagers, legacyFamilies, generation.get(i), generation.get(i + 1), "Gen" + g + " " + i / 2));
+            }
+            generation = next;
+        }
+        String youngest = generation.get(0);
+
+        long legacyTotal = 0;
+        long directTotal = 0;
+        for (Map.Entry<String, VillagerData> entry : villagers.entrySet()) {
+            legacyTotal += size(legacy(entry.getValue(), legacyFamilies.get(entry.getKey())));
+            directTotal += size(encode(entry.getValue()));
+        }
+        int legacyYoungest = size(legacy(villagers.get(youngest), legacyFamilies.get(youngest)));
+        int directYoungest = size(encode(villagers.get(youngest)));
+
+        System.out.printf("%d villagers over %d generations: legacy %d bytes, direct edges %d bytes%n",
+            villagers.size(), GENERATIONS + 1, legacyTotal, directTotal);
+        System.out.printf("generation %d villager: %d familyMembers entries, legacy %d bytes, direct edges %d bytes%n",
+            GENERATIONS, legacyFamilies.get(youngest).size(), legacyYoungest, directYoungest);
+        assertTrue(directTotal < legacyTotal, "direct edges grew the world from " + legacyTotal + " to " + directTotal + " bytes");
+        assertTrue(directYoungest < legacyYoungest);
+    }
+
+    @Test
+    void legacyParentsStayCandidates() {
+        VillagerData data = villager("Alden Thornfield");
+        NbtCompound nbt = legacy(data, List.of("ex-one", "ex-two"));
+
+        VillagerData decoded = VillagerData.CODEC.parse(NbtOps.INSTANCE, nbt).getOrThrow();
+        assertTrue(decoded.getParentIds().isEmpty());
+        assertEquals(List.of("ex-one", "ex-two"), decoded.getLegacyParentCandidates());
+        assertFalse(((NbtCompound) encode(decoded)).contains("familyMembers"), "familyMembers was written back");
+    }
+
+    private static String add(Map<String, VillagerData> villagers, Map<String, List<String>> legacyFamilies, String name) {
+        String id = new UUID(0x5eedL, villagers.size()).toString();
+        villagers.put(id, villager(name));
+        legacyFamilies.put(id, new ArrayList<>());
+        return id;
+    }
+
+    // Mirrors the old performMarriage and onVillagerBreed: spouses list each other, the child copies both parents' lists
+    private static String marryAndBreed(Map<String, VillagerData> villagers, Map<String, List<String>> legacyFamilies,
+                                        String parent1, String parent2, String childName) {
+        VillagerData data1 = villagers.get(parent1);
+        VillagerData data2 = villagers.get(parent2);
+        data1.marry(data2.getName(), parent2);
+        data2.marry(data1.getName(), parent1);
+        addLegacy(legacyFamilies.get(parent1), parent2);
+        addLegacy(legacyFamilies.get(parent2), parent1);
+
+        String child = add(villagers, legacyFamilies, childName);
+        data1.addChild(childName, child);
+        data2.addChild(childName, child);
+        villagers.get(child).addParent(parent1);
+        villagers.get(child).addParent(parent2);
+
+        List<String> childFamily = legacyFamilies.get(child);
+        addLegacy(childFamily, parent1);
+        addLegacy(childFamily, parent2);
+        legacyFamilies.get(parent1).forEach(member -> addLegacy(childFamily, member));
+        legacyFamilies.get(parent2).forEach(member -> addLegacy(childFamily, member));
+        return child;
+    }
+
+    private static void addLegacy(List<String> family, String member) {
+        if (!family.contains(member)) {
+            family.add(member);
+        }
+    }
+
+    private static VillagerData villager(String name) {
+        VillagerData data = new VillagerData();
+        data.setName(name);
+        data.setPersonality("Friendly");
+        data.setHobby("Reading");
+        data.setBirthPlace("X:-212 Y:64 Z:1480");
+        data.addProfession("minecraft:farmer");
+        return data;
+    }
+
+    private static NbtElement encode(VillagerData data) {
+        return VillagerData.CODEC.encodeStart(NbtOps.INSTANCE, data).getOrThrow();
+    }
+
+    // The old saves had no parentIds and carried the whole familyMembers list instead
+    private static NbtCompound legacy(VillagerData data, List<String> familyMembers) {
+        NbtCompound nbt = ((NbtCompound) encode(data)).copy();
+        nbt.remove("parentIds");
+        NbtList members = new NbtList();
+        familyMembers.forEach(member -> members.add(NbtString.of(member)));
+        nbt.put("familyMembers", members);
+        return nbt;
+    }
+
+    private static int size(NbtElement nbt) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            NbtIo.write((NbtCompound) nbt, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.size();
+    }
+}
@@ -0,0 +1,195 @@
+package com.beeny.network;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.registry.DynamicRegistryManager;
+import net.minecraft.util.math.BlockPos;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bytes per villager for the family tree, ancestry and journal payloads, with the fixed-width encoding they
+ * used before {@link CompactCodec} and with the current codecs. The old encoders are kept here only to
+ * measure against; the new payloads are also decoded to check the round trip.
+ */
+class PayloadSizeTest {
+    private static final String[] FIRST_NAMES = {"Alden", "Mara", "Tobin", "Elsie", "Corwin", "Ivy", "Bram", "Wren"};
+    private static final String[] PERSONALITIES = {"Friendly", "Shy", "Curious", "Grumpy", "Cheerful"};
+    private static final String[] PROFESSIONS = {"minecraft:farmer", "minecraft:librarian", "minecraft:cleric", "minecraft:mason"};
+
+    @BeforeAll
+    static void bootstrap() {
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+    }
+
+    @Test
+    void familyTreeIsSmaller() {
+        UUID root = uuid(1);
+        List<FamilyTreeDataPacket.FamilyMemberData> members = new ArrayList<>();
+        // A couple and their three children
+        members.add(member(0, uuid(1).toString(), "CURRENT", "Mara Thornfield"));
+        members.add(member(1, uuid(2).toString(), "SPOUSE", "Alden Thornfield"));
+        for (int i = 0; i < 3; i++) {
+            members.add(member(2 + i, uuid(10 + i).toString(), "CHILD", "Alden Thornfield"));
+        }
+        FamilyTreeDataPacket packet = new FamilyTreeDataPacket(root, members, false);
+
+        int before = size(buf -> {
+            buf.writeLong(1234);
+            buf.writeInt(members.size());
+            members.forEach(member -> writeLegacyMember(buf, member));
+        });
+        int after = size(buf -> FamilyTreeDataPacket.CODEC.encode(buf, packet));
+
+        FamilyTreeDataPacket decoded = roundTrip(FamilyTreeDataPacket.CODEC, packet);
+        assertEquals(members.size(), decoded.getFamilyMembers().size());
+        assertEquals("Alden Thornfield", decoded.getFamilyMembers().get(1).getName());
+        report("family tree", members.size(), before, after);
+    }
+
+    @Test
+    void ancestryIsSmaller() {
+        UUID root = uuid(1);
+        List<AncestryDataPacket.AncestorEntry> ancestors = new ArrayList<>();
+        // Generated ancestors have string ids, see VillagerAncestryManager.ancestorId
+        for (int generation = 1, path = 2; generation <= AncestryDataPacket.ANCESTOR_GENERATIONS; generation++) {
+            for (int i = 0; i < 1 << generation; i++, path++) {
+                ancestors.add(new AncestryDataPacket.AncestorEntry(generation,
+                    member(path, "ancestor:" + root + ":" + path, "ANCESTOR", "")));
+            }
+        }
+        AncestryDataPacket packet = new AncestryDataPacket(root, ancestors);
+
+        int before = size(buf -> {
+            buf.writeLong(1234);
+            buf.writeInt(ancestors.size());
+            for (AncestryDataPacket.AncestorEntry entry : ancestors) {
+                buf.writeInt(entry.generation());
+                writeLegacyMember(buf, entry.data());
+            }
+        });
+        int after = size(buf -> AncestryDataPacket.CODEC.encode(buf, packet));
+
+        AncestryDataPacket decoded = roundTrip(AncestryDataPacket.CODEC, packet);
+        assertEquals(ancestors.size(), decoded.getAncestors().size());
+        assertEquals(ancestors.get(5).data().getUuid(), decoded.getAncestors().get(5).data().getUuid());
+        report("ancestry", ancestors.size(), before, after);
+    }
+
+    @Test
+    void journalPageIsSmaller() {
+        List<RequestVillagerListPacket.VillagerDataPacket> rows = new ArrayList<>();
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            UUID id = uuid(100 + i);
+            ids.add(id);
+            rows.add(new RequestVillagerListPacket.VillagerDataPacket(id, name(i) + " Thornfield",
+                new BlockPos(-212 + i * 3, 64 + i % 4, 1480 - i * 2), PROFESSIONS[i % PROFESSIONS.length], 40 + i));
+        }
+        RequestVillagerListPacket.ResponsePacket packet = new RequestVillagerListPacket.ResponsePacket(
+            42L, 7L, 25, 0, 25, false, false, ids, rows, List.of());
+
+        int before = size(buf -> {
+            buf.writeInt(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                RequestVillagerListPacket.VillagerDataPacket row = rows.get(i);
+                buf.writeUuid(row.getUuid());
+                buf.writeInt(1000 + i);
+                buf.writeString(row.getName());
+                buf.writeInt(row.getX());
+                buf.writeInt(row.getY());
+                buf.writeInt(row.getZ());
+                buf.writeString(row.getProfession());
+                buf.writeInt(row.getHappiness());
+            }
+        });
+        // The page's member list and header did not exist before; leave them out so the rows compare alike
+        RequestVillagerListPacket.ResponsePacket rowsOnly = new RequestVillagerListPacket.ResponsePacket(
+            42L, 7L, 25, 0, 25, false, false, null, rows, List.of());
+        int after = size(buf -> RequestVillagerListPacket.ResponsePacket.CODEC.encode(buf, rowsOnly));
+
+        RequestVillagerListPacket.ResponsePacket decoded = roundTrip(RequestVillagerListPacket.ResponsePacket.CODEC, packet);
+        assertEquals(ids, decoded.getPageIds());
+        assertEquals(rows.get(3).getProfession(), decoded.getVillagerDataList().get(3).getProfession());
+        assertEquals(rows.get(0).getX(), decoded.getVillagerDataList().get(0).getX());
+        report("journal", rows.size(), before, after);
+    }
+
+    private static FamilyTreeDataPacket.FamilyMemberData member(int index, String id, String relationship, String spouseName) {
+        return new FamilyTreeDataPacket.FamilyMemberData(
+            name(index) + " Thornfield", id, relationship,
+            1_250_000L - index * 96_000L, Long.MIN_VALUE, true,
+            PERSONALITIES[index % PERSONALITIES.length], 50 + index,
+            PROFESSIONS[index % PROFESSIONS.length], spouseName, index < 2 ? 3 : 0,
+            "X:-212 Y:64 Z:1480", "");
+    }
+
+    // The member encoding before CompactCodec: every string spelled out, fixed-width numbers
+    private static void writeLegacyMember(RegistryByteBuf buf, FamilyTreeDataPacket.FamilyMemberData member) {
+        buf.writeString(member.getName());
+        buf.writeString(member.getUuid());
+        buf.writeString(member.getRelationship());
+        buf.writeLong(member.getBirthTime());
+        buf.writeLong(member.getDeathTime());
+        buf.writeBoolean(member.isAlive());
+        buf.writeString(member.getPersonality());
+        buf.writeInt(member.getHappiness());
+        buf.writeString(member.getProfession());
+        buf.writeString(member.getSpouseName());
+        buf.writeInt(member.getChildrenCount());
+        buf.writeString(member.getBirthPlace());
+        buf.writeString(member.getNotes());
+    }
+
+    private static String name(int index) {
+        return FIRST_NAMES[index % FIRST_NAMES.length];
+    }
+
+    private static UUID uuid(long seed) {
+        return new UUID(0x5eed000000000000L ^ seed * 0x9e3779b97f4a7c15L, seed * 0xc2b2ae3d27d4eb4fL);
+    }
+
+    private static RegistryByteBuf newBuf() {
+        return new RegistryByteBuf(Unpooled.buffer(), DynamicRegistryManager.EMPTY);
+    }
+
+    private static int size(Consumer<RegistryByteBuf> writer) {
+        RegistryByteBuf buf = newBuf();
+        try {
+            writer.accept(buf);
+            return buf.readableBytes();
+        } finally {
+            buf.release();
+        }
+    }
+
+    private static <T> T roundTrip(PacketCodec<RegistryByteBuf, T> codec, T value) {
+        RegistryByteBuf buf = newBuf();
+        try {
+            codec.encode(buf, value);
+            T decoded = codec.decode(buf);
+            assertEquals(0, buf.readableBytes(), "decoder left bytes unread");
+            return decoded;
+        } finally {
+            buf.release();
+        }
+    }
+
+    private static void report(String payload, int villagers, int before, int after) {
+        System.out.printf("%s: %d villagers, %d -> %d bytes, %.1f -> %.1f bytes per villager%n",
+            payload, villagers, before, after, (double) before / villagers, (double) after / villagers);
+        assertTrue(after < before, payload + " grew from " + before + " to " + after + " bytes");
+    }
+}
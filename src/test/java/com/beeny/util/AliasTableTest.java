@@ -0,0 +1,85 @@
+package com.beeny.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link AliasTable#sample} is a pure function of its uniform input, so sweeping the input over an even grid
+ * measures the exact share of [0, 1) each index gets, without random noise.
+ */
+class AliasTableTest {
+    private static final int STEPS = 1_000_000;
+
+    @Test
+    void sharesMatchWeights() {
+        assertShares(new float[] {0f, 0.42f, 0.3f, 0f, 0f, 0.15f, 0f, 0.1f, 0f, 0.16f, 0f, 0.1f});
+        assertShares(new float[] {1f, 2f, 3f, 4f});
+        assertShares(new float[] {0.001f, 100f, 0.5f});
+        assertShares(new float[] {7f});
+    }
+
+    @Test
+    void sharesMatchLinearSampling() {
+        float[] weights = {0.3f, 0.4f, 0.1f, 0.2f};
+        AliasTable table = AliasTable.of(weights);
+        int[] alias = new int[weights.length];
+        int[] linear = new int[weights.length];
+        for (int i = 0; i < STEPS; i++) {
+            double uniform = (i + 0.5) / STEPS;
+            alias[table.sample(uniform)]++;
+            linear[sampleLinear(weights, uniform)]++;
+        }
+        for (int i = 0; i < weights.length; i++) {
+            assertEquals((double) linear[i] / STEPS, (double) alias[i] / STEPS, 1e-4, "index " + i);
+        }
+    }
+
+    @Test
+    void zeroWeightsAreNeverDrawn() {
+        AliasTable table = AliasTable.of(new float[] {0f, 5f, 0f, -1f, 1f});
+        for (int i = 0; i < STEPS; i++) {
+            int index = table.sample((i + 0.5) / STEPS);
+            assertTrue(index == 1 || index == 4, "drew " + index);
+        }
+    }
+
+    @Test
+    void emptyTablesDrawNothing() {
+        assertTrue(AliasTable.of(new float[] {0f, 0f}).isEmpty());
+        assertEquals(-1, AliasTable.of(new float[] {0f, 0f}).sample(0.5));
+        assertEquals(-1, AliasTable.of(new float[0]).sample(0.5));
+    }
+
+    private static void assertShares(float[] weights) {
+        AliasTable table = AliasTable.of(weights);
+        int[] counts = new int[weights.length];
+        for (int i = 0; i < STEPS; i++) {
+            counts[table.sample((i + 0.5) / STEPS)]++;
+        }
+
+        double total = 0;
+        for (float weight : weights) {
+            total += Math.max(weight, 0);
+        }
+        for (int i = 0; i < weights.length; i++) {
+            // Each column is split at most once, so the grid is off by at most a step per boundary
+            assertEquals(Math.max(weights[i], 0) / total, (double) counts[i] / STEPS, 1e-4, "index " + i);
+        }
+    }
+
+    private static int sampleLinear(float[] weights, double uniform) {
+        double total = 0;
+        for (float weight : weights) {
+            total += weight;
+        }
+        double target = uniform * total;
+        double current = 0;
+        for (int i = 0; i < weights.length; i++) {
+            current += weights[i];
+            if (target < current) return i;
+        }
+        return weights.length - 1;
+    }
+}